@@ -0,0 +1,90 @@
+package com.github.dimitryivaniuta.videometadata.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.PlaylistItem;
+import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.YouTubePlaylistResponse;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of a full {@code videos.list} page: the streaming {@link ProviderJsonDecoders} against
+ * the Jackson DTO path ({@link YouTubePlaylistResponse} mapped to {@link ExternalVideoMetadata})
+ * it replaced. Run with {@code ./gradlew jmh}; the {@code gc} profiler reports allocations next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProviderJsonDecodersBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Videos per response; {@code videos.list} returns at most 50. */
+    @Param({"1", "50"})
+    public int videos;
+
+    /** Response also carrying the parts and fields a partial request leaves out. */
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("{\"kind\":\"youtube#videoListResponse\",\"etag\":\"e\",\"items\":[");
+        for (int i = 0; i < videos; i++) {
+            json.append(i == 0 ? "" : ",").append("""
+                    {"kind":"youtube#video","etag":"e%1$d","id":"vid%1$d",
+                     "snippet":{"publishedAt":"2024-05-01T10:15:30Z","channelId":"UC%1$d",
+                      "title":"Video %1$d","description":"%2$s",
+                      "thumbnails":{"default":{"url":"https://i.ytimg.com/vi/vid%1$d/default.jpg","width":120,"height":90},
+                                    "high":{"url":"https://i.ytimg.com/vi/vid%1$d/hqdefault.jpg","width":480,"height":360}},
+                      "channelTitle":"Channel","tags":["a","b","c"],
+                      "localized":{"title":"Video %1$d","description":"%2$s"}},
+                     "contentDetails":{"duration":"PT4M13S","dimension":"2d","definition":"hd","licensedContent":true},
+                     "statistics":{"viewCount":"123456","likeCount":"789","commentCount":"12"}}
+                    """.formatted(i, "lorem ipsum ".repeat(40)));
+        }
+        body = json.append("],\"pageInfo\":{\"totalResults\":").append(videos)
+                .append(",\"resultsPerPage\":").append(videos).append("}}")
+                .toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ProviderJsonDecoders.YouTubeVideos streaming() throws IOException {
+        return ProviderJsonDecoders.youtubeVideos(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public List<ExternalVideoMetadata> dto() throws IOException {
+        YouTubePlaylistResponse resp = MAPPER.readValue(new ByteArrayInputStream(body), YouTubePlaylistResponse.class);
+        return resp.items().stream().map(ProviderJsonDecodersBenchmark::toMetadata).toList();
+    }
+
+    private static ExternalVideoMetadata toMetadata(PlaylistItem item) {
+        Object thumbnail = item.snippet().thumbnails().get("default");
+        return ExternalVideoMetadata.builder()
+                .externalId(item.id())
+                .provider(VideoProvider.YOUTUBE)
+                .title(item.snippet().title())
+                .description(item.snippet().description())
+                .duration(Duration.parse(item.contentDetails().duration()))
+                .publishedAt(OffsetDateTime.parse(item.snippet().publishedAt()).toInstant())
+                .channelName(item.snippet().channelTitle())
+                .thumbnailUrl(thumbnail instanceof Map<?, ?> m ? (String) m.get("url") : null)
+                .build();
+    }
+}
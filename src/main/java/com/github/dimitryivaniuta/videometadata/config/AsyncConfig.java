@@ -1,6 +1,7 @@
 package com.github.dimitryivaniuta.videometadata.config;
 
 import com.github.dimitryivaniuta.videometadata.event.AsyncErrorEvent;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.context.ApplicationEventPublisher;
@@ -15,12 +16,19 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Central configuration for all @Async work.
+ * <p>
+ * Imports do not run here: they are reactive and dispatched by
+ * {@link com.github.dimitryivaniuta.videometadata.imports.ImportDispatcher}.
+ * Pool sizing comes from {@link AsyncProperties} ({@code async.*}).
  */
 @Slf4j
 @Configuration
 @EnableAsync
+@RequiredArgsConstructor
 public class AsyncConfig implements AsyncConfigurer, ApplicationEventPublisherAware {
 
+    private final AsyncProperties props;
+
     private ApplicationEventPublisher publisher;
 
     /**
@@ -33,18 +41,18 @@ public class AsyncConfig implements AsyncConfigurer, ApplicationEventPublisherAw
         ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
 
         // Core threads to keep alive
-        exec.setCorePoolSize(4);
+        exec.setCorePoolSize(props.getCorePoolSize());
         // Max threads when queue is full
-        exec.setMaxPoolSize(16);
+        exec.setMaxPoolSize(props.getMaxPoolSize());
         // Backlog queue size before spawning up to max
-        exec.setQueueCapacity(100);
+        exec.setQueueCapacity(props.getQueueCapacity());
         // Name threads for easier debugging
-        exec.setThreadNamePrefix("vm-async-");
+        exec.setThreadNamePrefix(props.getThreadNamePrefix());
         // If the pool is saturated, abort new tasks
         exec.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         // Wait for tasks to finish on shutdown
-        exec.setAwaitTerminationSeconds(30);
-        exec.setWaitForTasksToCompleteOnShutdown(true);
+        exec.setAwaitTerminationSeconds(props.getAwaitTerminationSeconds());
+        exec.setWaitForTasksToCompleteOnShutdown(props.isWaitForTasksOnShutdown());
 
         exec.initialize();
         return exec;
@@ -1,32 +1,103 @@
 package com.github.dimitryivaniuta.videometadata.config;
 
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.imports.AdaptiveConcurrencyLimiter;
+import com.github.dimitryivaniuta.videometadata.service.ExternalVideoProviderClient;
+import io.netty.channel.ChannelOption;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.*;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Configures WebClients for each external provider.
+ * Configures WebClients for each external provider, and keys the aggregation service's provider
+ * clients by the provider they serve.
+ * <p>
+ * Every provider gets its own {@link ConnectionProvider}, shared by all calls to it, so one slow
+ * provider cannot exhaust the connections of another. Pools publish their acquire time and
+ * total/active/idle/pending connection gauges to Micrometer as
+ * {@code reactor.netty.connection.provider.*}, tagged with the pool name. Every exchange is timed
+ * by the {@link AdaptiveConcurrencyLimiter#latencyProbe} of its provider.
  */
 @Configuration
 //@EnableConfigurationProperties(ProvidersProperties.class)
 public class ExternalApiConfig {
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider youtubeConnectionProvider(ProvidersProperties props) {
+        return connectionProvider("youtube", props.getYoutube().getPool());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider vimeoConnectionProvider(ProvidersProperties props) {
+        return connectionProvider("vimeo", props.getVimeo().getPool());
+    }
+
     @Bean("youtubeWebClient")
     public WebClient youtubeWebClient(WebClient.Builder builder,
-                                      ProvidersProperties props) {
+                                      ProvidersProperties props,
+                                      AdaptiveConcurrencyLimiter limiter) {
         return builder
                 .baseUrl(props.getYoutube().getBaseUrl())
+                .clientConnector(connector(youtubeConnectionProvider(props), props.getYoutube().getPool()))
+                .filter(limiter.latencyProbe(VideoProvider.YOUTUBE))
                 .build();
     }
 
     @Bean("vimeoWebClient")
     public WebClient vimeoWebClient(WebClient.Builder builder,
-                                    ProvidersProperties props) {
+                                    ProvidersProperties props,
+                                    AdaptiveConcurrencyLimiter limiter) {
         return builder
                 .baseUrl(props.getVimeo().getBaseUrl())
+                .clientConnector(connector(vimeoConnectionProvider(props), props.getVimeo().getPool()))
+                .filter(limiter.latencyProbe(VideoProvider.VIMEO))
                 .defaultHeader(HttpHeaders.AUTHORIZATION,
                         "Bearer " + props.getVimeo().getAccessToken())
                 .build();
     }
+
+    /**
+     * Provider clients of the aggregation service, keyed by the provider they serve.
+     */
+    @Bean
+    public Map<VideoProvider, ExternalVideoProviderClient> videoProviderClients(List<ExternalVideoProviderClient> clients) {
+        Map<VideoProvider, ExternalVideoProviderClient> byProvider = new EnumMap<>(VideoProvider.class);
+        clients.forEach(client -> byProvider.put(client.provider(), client));
+        return byProvider;
+    }
+
+    private static ConnectionProvider connectionProvider(String name, ProvidersProperties.Pool pool) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictionInterval())
+                // most recently used first: idle connections at the tail actually get evicted
+                .lifo()
+                .metrics(true)
+                .build();
+    }
+
+    private static ReactorClientHttpConnector connector(ConnectionProvider provider, ProvidersProperties.Pool pool) {
+        HttpClient client = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true);
+        if (pool.isHttp2()) {
+            // both providers are HTTPS-only; ALPN picks HTTP/2 and falls back to HTTP/1.1
+            client = client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+        return new ReactorClientHttpConnector(client);
+    }
 }
@@ -5,7 +5,13 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration properties for video import and throttling behavior.
@@ -24,6 +30,12 @@ public class ImportProperties {
      */
     private int concurrencyLimit = 4;
 
+    /**
+     * Submissions with more external ids than this are split into chunks of this size, which
+     * any node can claim independently.
+     */
+    private int chunkSize = 100;
+
     /**
      * Number of retry attempts on external‐API fetch failures.
      */
@@ -42,6 +54,36 @@ public class ImportProperties {
     /** Per‑user rate‑limit settings. */
     private PerUser perUser = new PerUser();
 
+    /** Durable queue worker settings. */
+    private Worker worker = new Worker();
+
+    /** Batched persistence of fetched videos. */
+    private Batch batch = new Batch();
+
+    /** Live progress counters and streaming. */
+    private Progress progress = new Progress();
+
+    /** Fair‑share scheduling of provider calls across users. */
+    private Scheduler scheduler = new Scheduler();
+
+    /** Coalescing of concurrent fetches of the same video. */
+    private SingleFlight singleFlight = new SingleFlight();
+
+    /** Background refresh of stale video metadata. */
+    private Refresh refresh = new Refresh();
+
+    /** Persisted retries of ids that failed during an import. */
+    private RetryQueue retryQueue = new RetryQueue();
+
+    /** Replay of submissions repeated with the same Idempotency-Key. */
+    private Idempotency idempotency = new Idempotency();
+
+    /** Budgeted retries of provider calls, shared by all layers. */
+    private ProviderRetry providerRetry = new ProviderRetry();
+
+    /** Hedged (duplicated) provider requests against tail latency. */
+    private Hedging hedging = new Hedging();
+
     @Getter
     @Setter
     public static class Throttle {
@@ -52,10 +94,10 @@ public class ImportProperties {
         private int maxConcurrent = 2;
 
         /**
-         * Maximum number of jobs allowed to queue before reject.
-         * Zero means no queuing—excess jobs are rejected immediately.
+         * Maximum number of provider calls allowed to wait in the scheduler backlog before reject.
+         * Zero means no queuing—excess calls are rejected immediately.
          */
-        private int maxQueued = 0;
+        private int maxQueued = 1000;
 
         /**
          * Time window over which to count import submissions.
@@ -72,48 +114,344 @@ public class ImportProperties {
          * the window are rejected; if false, they will join the existing job.
          */
         private boolean duplicateJobReject = true;
+    }
+
+    @Getter @Setter
+    public static class PerUser {
+        /**
+         * Max import submissions allowed per user in the window.
+         */
+        private int rateLimitPerUser = 5;
+
+        /**
+         * Sliding window for counting per‑user submissions.
+         */
+        private Duration window = Duration.ofSeconds(60);
 
         /**
-         * Additional service‐level retry settings, applied after provider‐level retries.
+         * TTL for “duplicate job” markers per (user,externalId), in ms.
          */
-        private ServiceRetry serviceRetry = new ServiceRetry();
+        private long duplicateCacheTtlMs = 600_000L;
+    }
+
+    @Getter @Setter
+    public static class Worker {
+        /**
+         * Whether this node claims submissions from the durable queue.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between queue polls when no wake‑up signal arrives.
+         */
+        private Duration pollInterval = Duration.ofSeconds(2);
+
+        /**
+         * How long a claimed submission stays leased without a heartbeat.
+         */
+        private Duration leaseDuration = Duration.ofSeconds(60);
+
+        /**
+         * How often a running submission extends its lease.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * Claims after which an expired submission is failed instead of re‑queued.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * How long shutdown waits for running submissions before handing them back to the queue.
+         */
+        private Duration drainTimeout = Duration.ofSeconds(20);
+    }
+
+    @Getter @Setter
+    public static class Batch {
+        /**
+         * Maximum videos written by one multi‑row INSERT.
+         */
+        private int size = 100;
+
+        /**
+         * Maximum time a partially filled batch waits before it is flushed.
+         */
+        private Duration maxWait = Duration.ofMillis(500);
+    }
+
+    @Getter @Setter
+    public static class Progress {
+        /**
+         * Maximum time counted progress stays in memory before it is written to the submission row.
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /**
+         * Items counted since the last write that trigger an early flush.
+         */
+        private int flushEvery = 50;
+
+        /**
+         * How often an open progress stream re‑reads the submission row as a safety net.
+         */
+        private Duration streamKeepAlive = Duration.ofSeconds(15);
+    }
+
+    @Getter @Setter
+    public static class Scheduler {
+        /**
+         * Provider calls in flight at the same time on this node, across all imports.
+         */
+        private int maxConcurrent = 8;
+
+        /**
+         * Calls a (user, provider) flow may start per round‑robin turn.
+         */
+        private int quantum = 1;
+
+        /**
+         * Optional per‑provider cap on calls in flight; providers not listed share {@code maxConcurrent}.
+         * Upper bound of the adaptive limit.
+         */
+        private Map<VideoProvider, Integer> providerMaxConcurrent = new HashMap<>();
+
+        /** Adaptive per‑provider concurrency limit below the caps. */
+        private Adaptive adaptive = new Adaptive();
+    }
+
+    @Getter @Setter
+    public static class Adaptive {
+        /**
+         * Whether the per‑provider limit adapts; if off, the caps apply as fixed limits.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Limit each provider starts with.
+         */
+        private int initialLimit = 2;
+
+        /**
+         * Lowest limit backoff can reach.
+         */
+        private int minLimit = 1;
+
+        /**
+         * Smoothed RTT above {@code rttTolerance × baseline RTT} counts as overload.
+         */
+        private double rttTolerance = 2.0;
+
+        /**
+         * Factor applied to the limit on overload.
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * How long a baseline (minimum) RTT is kept before it is re‑learned.
+         */
+        private Duration probeInterval = Duration.ofSeconds(30);
+    }
+
+    @Getter @Setter
+    public static class SingleFlight {
+        /**
+         * Redis lease taken per (provider, externalId) while one node fetches it.
+         */
+        private Duration lease = Duration.ofSeconds(15);
+
+        /**
+         * How often a node waiting for another node's lease checks whether it is gone.
+         */
+        private Duration pollInterval = Duration.ofMillis(250);
+
+        /**
+         * Longest a node waits for another node's lease before fetching anyway.
+         */
+        private Duration maxWait = Duration.ofMinutes(1);
+    }
+
+    @Getter @Setter
+    public static class Refresh {
+        /**
+         * Whether this node takes part in the stale‑metadata sweep.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between sweeps; at most one node sweeps per interval.
+         */
+        private Duration interval = Duration.ofMinutes(10);
+
+        /**
+         * Videos not updated for this long are refreshed from their provider.
+         */
+        private Duration staleAfter = Duration.ofDays(7);
+
+        /**
+         * Videos read per keyset chunk.
+         */
+        private int chunkSize = 200;
+
+        /**
+         * Provider calls in flight per sweep.
+         */
+        private int maxConcurrent = 4;
+
+        /**
+         * Provider calls the sweep may spend per clock hour, across all nodes.
+         * Providers not listed are not refreshed.
+         */
+        private Map<VideoProvider, Integer> hourlyBudget = new HashMap<>();
+    }
+
+    @Getter @Setter
+    public static class RetryQueue {
+        /**
+         * Whether this node drains due retries.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between drain polls.
+         */
+        private Duration pollInterval = Duration.ofSeconds(30);
+
+        /**
+         * Due retries claimed per poll.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Provider calls in flight per drained batch.
+         */
+        private int maxConcurrent = 4;
+
+        /**
+         * Failed attempts (including the one during the import) after which an id is given up.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Backoff before the first retry; doubled per attempt.
+         */
+        private Duration initialBackoff = Duration.ofMinutes(1);
+
+        /**
+         * Upper bound of the backoff.
+         */
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        /**
+         * How long claimed retries stay invisible to other nodes.
+         */
+        private Duration lease = Duration.ofMinutes(5);
     }
 
     @Getter
     @Setter
-    public static class ServiceRetry {
+    public static class Idempotency {
+        /**
+         * Whether the Idempotency-Key header of import submissions is honoured.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long the response of a key is replayed.
+         */
+        private Duration ttl = Duration.ofHours(24);
 
         /**
-         * Enable or disable service‐level retry behavior.
+         * Redis lease held per key while its first request is submitted.
+         */
+        private Duration lease = Duration.ofSeconds(30);
+
+        /**
+         * How often a duplicate waiting for another node's lease checks for the stored response.
+         */
+        private Duration pollInterval = Duration.ofMillis(250);
+
+        /**
+         * Longest a node waits for another node's lease before fetching anyway.
+         */
+        private Duration maxWait = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class ProviderRetry {
+        /**
+         * Whether failed provider calls are retried at all.
          */
         private boolean enabled = true;
 
         /**
-         * Maximum retry attempts at the service layer.
+         * Retries of one call at most, on top of the first attempt.
          */
-        private int maxAttempts = 2;
+        private int maxAttempts = 3;
 
         /**
-         * Backoff duration between service‐level retry attempts.
+         * Upper bound of the first backoff; doubled per retry and fully jittered.
          */
-        private Duration backoff = Duration.ofMillis(800);
+        private Duration initialBackoff = Duration.ofMillis(200);
+
+        /**
+         * Upper bound of any backoff.
+         */
+        private Duration maxBackoff = Duration.ofSeconds(5);
+
+        /**
+         * Retry tokens earned per successful call, i.e. retries allowed as a fraction of successes.
+         */
+        private double budgetRatio = 0.1;
+
+        /**
+         * Tokens a provider's budget holds at most (and starts with).
+         */
+        private double budgetMaxTokens = 10;
+
+        /**
+         * Longest provider {@code Retry-After} that is waited for; longer ones fail the call.
+         */
+        private Duration maxRetryAfter = Duration.ofSeconds(30);
     }
 
-    @Getter @Setter
-    public static class PerUser {
+    @Getter
+    @Setter
+    public static class Hedging {
         /**
-         * Max import submissions allowed per user in the window.
+         * Providers whose single‑video requests are hedged; none by default.
          */
-        private int rateLimitPerUser = 5;
+        private Set<VideoProvider> providers = new HashSet<>();
 
         /**
-         * Sliding window for counting per‑user submissions.
+         * Latency percentile after which a second request is sent.
          */
-        private Duration window = Duration.ofSeconds(60);
+        private double percentile = 0.95;
 
         /**
-         * TTL for “duplicate job” markers per (user,externalId), in ms.
+         * Window over which the percentile is computed.
          */
-        private long duplicateCacheTtlMs = 600_000L;
+        private Duration window = Duration.ofMinutes(1);
+
+        /**
+         * Requests a provider must have answered before it is hedged.
+         */
+        private int minSamples = 50;
+
+        /**
+         * Shortest delay before a hedge, whatever the percentile.
+         */
+        private Duration minDelay = Duration.ofMillis(50);
+
+        /**
+         * Hedge tokens earned per request, i.e. hedges allowed as a fraction of requests.
+         */
+        private double budgetRatio = 0.05;
+
+        /**
+         * Tokens a provider's hedge budget holds at most (and starts with).
+         */
+        private double budgetMaxTokens = 10;
     }
 }
@@ -3,6 +3,13 @@ package com.github.dimitryivaniuta.videometadata.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * Binds all external video‑provider settings from video‑providers.yml.
  */
@@ -19,10 +26,39 @@ public class ProvidersProperties {
          * Your YouTube Data API v3 key.
          */
         private String apiKey;
+        /**
+         * Pool of API keys rotated by the quota ledger; {@code apiKey} alone is used when empty.
+         */
+        private List<String> apiKeys = new ArrayList<>();
+        /**
+         * Quota units each key may spend per quota day (YouTube's default allocation is 10 000).
+         */
+        private long dailyQuota = 10_000;
+        /**
+         * Zone whose midnight starts a new quota day; YouTube resets quotas at midnight Pacific Time.
+         */
+        private ZoneId quotaZone = ZoneId.of("America/Los_Angeles");
         /**
          * Base URL (e.g. <a href="https://www.googleapis.com/youtube/v3">youtube</a>).
          */
         private String baseUrl;
+        /**
+         * Connection pool shared by all calls to YouTube.
+         */
+        private final Pool pool = new Pool();
+
+        /**
+         * @return keys to rotate: {@code apiKeys}, or {@code apiKey} if none are listed; blanks and duplicates dropped
+         */
+        public List<String> apiKeyPool() {
+            List<String> keys = apiKeys.isEmpty() ? Collections.singletonList(apiKey) : apiKeys;
+            return keys.stream()
+                    .filter(Objects::nonNull)
+                    .map(String::trim)
+                    .filter(key -> !key.isEmpty())
+                    .distinct()
+                    .toList();
+        }
     }
 
     @Data
@@ -35,5 +71,48 @@ public class ProvidersProperties {
          * Base URL (e.g. <a href="https://api.vimeo.com">vimeo</a>).
          */
         private String baseUrl;
+        /**
+         * Connection pool shared by all calls to Vimeo.
+         */
+        private final Pool pool = new Pool();
+    }
+
+    /**
+     * Reactor Netty connection pool of one provider.
+     */
+    @Data
+    public static class Pool {
+        /**
+         * Maximum open connections (HTTP/2: connections, each multiplexing many streams).
+         */
+        private int maxConnections = 50;
+        /**
+         * Maximum calls waiting for a connection; further calls fail fast.
+         */
+        private int pendingAcquireMaxCount = 500;
+        /**
+         * How long a call may wait for a connection.
+         */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        /**
+         * Idle time after which a connection is closed; keep below the provider's own idle timeout.
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        /**
+         * Maximum lifetime of a connection, so DNS changes are picked up.
+         */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        /**
+         * Interval of the background eviction of idle and expired connections.
+         */
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        /**
+         * TCP connect timeout.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(3);
+        /**
+         * Negotiate HTTP/2 via ALPN, falling back to HTTP/1.1.
+         */
+        private boolean http2 = true;
     }
 }
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Video listing & statistics caching settings.
  */
@@ -14,9 +16,33 @@ public class VideoProperties {
     private Stats stats = new Stats();
     private int defaultPageSize = 20;
     private int maxPageSize = 100;
+    private MetadataCache metadataCache = new MetadataCache();
 
     @Data
     public static class Stats {
         private long cacheTtlMs = 300_000;
     }
+
+    /**
+     * Two‑tier cache of provider metadata (in‑process L1, Redis L2).
+     */
+    @Data
+    public static class MetadataCache {
+        /**
+         * Entries the in‑process tier holds at most.
+         */
+        private long l1MaxSize = 10_000;
+        /**
+         * Age up to which an entry is served as is.
+         */
+        private Duration freshFor = Duration.ofMinutes(10);
+        /**
+         * Further age up to which an entry is still served while it is refreshed in the background.
+         */
+        private Duration staleWhileRevalidate = Duration.ofMinutes(50);
+        /**
+         * How long a provider's "not found" is remembered.
+         */
+        private Duration negativeTtl = Duration.ofMinutes(1);
+    }
 }
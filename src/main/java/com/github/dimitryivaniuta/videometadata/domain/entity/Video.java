@@ -74,6 +74,10 @@ public class Video {
     @Column("title")
     private String title;
 
+    /** Provider ETag of the last fetched metadata (sent as If-None-Match on refresh). */
+    @Column("etag")
+    private String etag;
+
     /** When imported into our system. */
     @Column("imported_at")
     private Instant importedAt;
@@ -110,6 +114,20 @@ public class Video {
         if (updatedAt == null) updatedAt = now;
     }
 
+    /**
+     * Whether writing this freshly fetched metadata (title, description, duration, upload time) over
+     * {@code stored} would change nothing. Fields a sparse provider response left out ({@code null},
+     * or a zero duration) keep their stored value, as in the batched UPDATE, so they count as unchanged.
+     * Used to skip writes when a refresh returned unchanged content.
+     */
+    public boolean hasSameMetadata(Video stored) {
+        return (title == null || title.equals(stored.title))
+                && (description == null || description.equals(stored.description))
+                && (durationMillis == 0 || durationMillis == stored.durationMillis)
+                && (uploadDateTime == null
+                    || stored.uploadDateTime != null && uploadDateTime.isEqual(stored.uploadDateTime));
+    }
+
     /* ---------------- Equality / hashCode (by id) ---------------- */
 
     @Override
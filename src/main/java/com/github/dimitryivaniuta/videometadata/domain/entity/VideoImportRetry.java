@@ -0,0 +1,56 @@
+package com.github.dimitryivaniuta.videometadata.domain.entity;
+
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+/**
+ * One external id of an import submission whose fetch or insert failed and is retried
+ * in the background with exponential backoff.
+ */
+@Getter
+@Setter
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("video_import_retries")
+public class VideoImportRetry {
+
+    @Id
+    private Long id;
+
+    /** FK to {@code video_import_submissions.id}. */
+    @Column("submission_fk")
+    private Long submissionFk;
+
+    /** Submission owner; fairness key of the retried provider call and owner of the stored video. */
+    @Column("username")
+    private String username;
+
+    @Column("provider")
+    private VideoProvider provider;
+
+    @Column("external_video_id")
+    private String externalVideoId;
+
+    /** Failed attempts so far, including the one during the import. */
+    @Column("attempts")
+    private int attempts;
+
+    /** When the id is due again; {@code null} once it was given up. */
+    @Column("next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column("last_error")
+    private String lastError;
+
+    @Column("created_at")
+    private Instant createdAt;
+
+    @Column("updated_at")
+    private Instant updatedAt;
+}
@@ -3,19 +3,17 @@ package com.github.dimitryivaniuta.videometadata.domain.entity;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
 import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
-import com.github.dimitryivaniuta.videometadata.domain.repository.projection.SubmissionExternalId;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.annotation.PersistenceCreator;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
-import org.springframework.data.relational.core.mapping.MappedCollection;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.ZonedDateTime;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Reactive entity describing an asynchronous video import submission.
@@ -71,6 +69,38 @@ public class VideoImportSubmission {
     @Column("version")
     private Long version;
 
+    // Lease (durable job queue)
+    /**
+     * Worker id currently holding the lease; {@code null} unless RUNNING.
+     */
+    @Column("lease_owner")
+    private String leaseOwner;
+
+    @Column("lease_expires_at")
+    private ZonedDateTime leaseExpiresAt;
+
+    @Column("heartbeat_at")
+    private ZonedDateTime heartbeatAt;
+
+    /**
+     * How many times the submission has been claimed by a worker.
+     */
+    @Column("attempts")
+    private int attempts;
+
+    // Chunking (large submissions)
+    /**
+     * Parent submission of a chunk; {@code null} for top‑level submissions.
+     */
+    @Column("parent_fk")
+    private Long parentFk;
+
+    /**
+     * Number of chunks a parent was split into; {@code 0} for rows that are claimed and run themselves.
+     */
+    @Column("chunk_count")
+    private int chunkCount;
+
     // Playlist info
     @Column("external_playlist_id")
     private String externalPlaylistId;
@@ -101,11 +131,11 @@ public class VideoImportSubmission {
     private String errorMessage;
 
     /**
-     * The set of external IDs requested. Stored in separate table.
+     * The external IDs requested, in request order. Stored inline as {@code TEXT[]}.
      */
-    @MappedCollection(idColumn = "submission_fk")
+    @Column("external_ids")
     @Builder.Default
-    private Set<SubmissionExternalId> externalIds = new LinkedHashSet<>();
+    private List<String> externalIds = new ArrayList<>();
 
     /* Convenience to update stats */
     public void applyStats(ImportStatistics s) {
@@ -4,10 +4,11 @@ import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.convert.ReadingConverter;
 
+/** Read the ordinal back; a SMALLINT column arrives as {@link Short}. */
 @ReadingConverter
-public class SubmissionStatusReadingConverter implements Converter<Integer, SubmissionStatus> {
+public class SubmissionStatusReadingConverter implements Converter<Number, SubmissionStatus> {
     @Override
-    public SubmissionStatus convert(Integer source) {
-        return SubmissionStatus.values()[source];
+    public SubmissionStatus convert(Number source) {
+        return SubmissionStatus.values()[source.intValue()];
     }
 }
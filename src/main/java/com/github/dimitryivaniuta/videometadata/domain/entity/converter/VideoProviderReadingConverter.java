@@ -6,17 +6,19 @@ import org.springframework.data.convert.ReadingConverter;
 
 /**
  * Converts an integer (ordinal) from the database back to {@link VideoProvider}.
+ * A SMALLINT column arrives as {@link Short}, so any {@link Number} is accepted.
  */
 @ReadingConverter
-public final class VideoProviderReadingConverter implements Converter<Integer, VideoProvider> {
+public final class VideoProviderReadingConverter implements Converter<Number, VideoProvider> {
 
     @Override
-    public VideoProvider convert(Integer source) {
+    public VideoProvider convert(Number source) {
         VideoProvider[] values = VideoProvider.values();
-        if (source < 0 || source >= values.length) {
+        int ordinal = source.intValue();
+        if (ordinal < 0 || ordinal >= values.length) {
             throw new IllegalArgumentException(
                     "Unknown VideoProvider ordinal: " + source + ". Check DB data / enum order!");
         }
-        return values[source];
+        return values[ordinal];
     }
 }
\ No newline at end of file
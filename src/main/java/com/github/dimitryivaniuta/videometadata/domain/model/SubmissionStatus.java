@@ -4,5 +4,6 @@ public enum SubmissionStatus {
     QUEUED,
     RUNNING,
     FINISHED,
-    FAILED
+    FAILED,
+    CANCELLED
 }
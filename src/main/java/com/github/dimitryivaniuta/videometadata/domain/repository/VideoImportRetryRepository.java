@@ -0,0 +1,117 @@
+package com.github.dimitryivaniuta.videometadata.domain.repository;
+
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportRetry;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Reactive repository for the persisted import retry queue ({@code video_import_retries}).
+ * <p>
+ * Due rows are claimed with {@code FOR UPDATE SKIP LOCKED}; claiming pushes
+ * {@code next_attempt_at} forward by a lease, so a row whose drainer died becomes due again.
+ */
+public interface VideoImportRetryRepository extends R2dbcRepository<VideoImportRetry, Long> {
+
+    /**
+     * Queues a failed id, or bumps the attempt count if the submission already queued it.
+     *
+     * @return {@link Mono} emitting the number of rows written
+     */
+    @Modifying
+    @Query("""
+           INSERT INTO video_import_retries
+                  (submission_fk, username, provider, external_video_id, attempts, next_attempt_at, last_error)
+           VALUES (:submissionFk, :username, :provider, :externalVideoId, 1,
+                   NOW() + :delayMs * INTERVAL '1 millisecond', :lastError)
+           ON CONFLICT ON CONSTRAINT uq_video_import_retries_item DO UPDATE
+              SET attempts        = video_import_retries.attempts + 1,
+                  next_attempt_at = EXCLUDED.next_attempt_at,
+                  last_error      = EXCLUDED.last_error
+           """)
+    Mono<Integer> enqueue(Long submissionFk,
+                          String username,
+                          VideoProvider provider,
+                          String externalVideoId,
+                          long delayMs,
+                          String lastError);
+
+    /**
+     * Atomically claims up to {@code limit} due rows (longest overdue first).
+     *
+     * @param leaseMs how long the claimed rows stay invisible to other drainers
+     * @param limit   maximum rows to claim
+     * @return {@link Flux} of the claimed rows
+     */
+    @Query("""
+           UPDATE video_import_retries r
+              SET next_attempt_at = NOW() + :leaseMs * INTERVAL '1 millisecond'
+            WHERE r.id IN (SELECT q.id
+                             FROM video_import_retries q
+                            WHERE q.next_attempt_at <= NOW()
+                         ORDER BY q.next_attempt_at
+                            LIMIT :limit
+                              FOR UPDATE SKIP LOCKED)
+        RETURNING r.*
+           """)
+    Flux<VideoImportRetry> claimDue(long leaseMs, int limit);
+
+    /**
+     * Records another failed attempt; a {@code null} delay gives the id up.
+     *
+     * @return {@link Mono} emitting the number of rows updated
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_retries
+              SET attempts        = attempts + 1,
+                  next_attempt_at = CASE WHEN CAST(:delayMs AS BIGINT) IS NULL THEN NULL
+                                         ELSE NOW() + :delayMs * INTERVAL '1 millisecond' END,
+                  last_error      = :lastError
+            WHERE id = :id
+           """)
+    Mono<Integer> reschedule(Long id, Long delayMs, String lastError);
+
+    /**
+     * Postpones a row without counting an attempt, e.g. until its provider's quota resets.
+     *
+     * @return {@link Mono} emitting the number of rows updated
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_retries
+              SET next_attempt_at = NOW() + :delayMs * INTERVAL '1 millisecond',
+                  last_error      = :lastError
+            WHERE id = :id
+           """)
+    Mono<Integer> defer(Long id, long delayMs, String lastError);
+
+    /**
+     * Removes rows whose id was imported (or found stored) by the drainer.
+     *
+     * @return {@link Mono} emitting the number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM video_import_retries WHERE id = ANY(:ids)")
+    Mono<Integer> deleteByIds(Long[] ids);
+
+    /**
+     * Removes the queued ids of cancelled submissions.
+     *
+     * @return {@link Mono} emitting the number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM video_import_retries WHERE submission_fk = ANY(:submissionIds)")
+    Mono<Integer> deleteBySubmissions(Long[] submissionIds);
+
+    /* ---------------- Convenience overloads ---------------- */
+
+    default Flux<VideoImportRetry> claimDue(Duration lease, int limit) {
+        return claimDue(lease.toMillis(), limit);
+    }
+}
@@ -1,11 +1,344 @@
 package com.github.dimitryivaniuta.videometadata.domain.repository;
 
 import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
+import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
+/**
+ * Reactive repository for {@link VideoImportSubmission} rows.
+ * <p>
+ * Besides plain CRUD it exposes the lease operations that turn
+ * {@code video_import_submissions} into a durable, multi-node job queue:
+ * workers claim QUEUED rows with {@code FOR UPDATE SKIP LOCKED}, extend their
+ * lease by heartbeating, and expired leases are swept back into the queue.
+ * All lease updates are fenced by {@code lease_owner}.
+ */
 public interface VideoImportSubmissionRepository extends R2dbcRepository<VideoImportSubmission, Long> {
 
     Mono<VideoImportSubmission> findBySubmissionId(String submissionId);
 
-}
\ No newline at end of file
+    /**
+     * Atomically claims up to {@code limit} QUEUED submissions or chunks (oldest first) for {@code owner}.
+     * Rows locked by other workers are skipped, so concurrent nodes never claim the same row;
+     * chunked parents are never claimed themselves.
+     * Statistics are reset, so they always describe the current attempt.
+     *
+     * @param queued  status to claim from ({@link SubmissionStatus#QUEUED})
+     * @param running status to move to ({@link SubmissionStatus#RUNNING})
+     * @param owner   worker id taking the lease
+     * @param leaseMs lease length in milliseconds
+     * @param limit   maximum rows to claim
+     * @return {@link Flux} of the claimed rows
+     */
+    @Query("""
+           UPDATE video_import_submissions s
+              SET status           = :running,
+                  lease_owner      = :owner,
+                  lease_expires_at = NOW() + :leaseMs * INTERVAL '1 millisecond',
+                  heartbeat_at     = NOW(),
+                  started_at       = COALESCE(s.started_at, NOW()),
+                  attempts         = s.attempts + 1,
+                  requested_count    = 0,
+                  accepted_count     = 0,
+                  succeeded_count    = 0,
+                  skipped_duplicates = 0,
+                  failed_count       = 0,
+                  version          = s.version + 1
+            WHERE s.id IN (SELECT q.id
+                             FROM video_import_submissions q
+                            WHERE q.status = :queued
+                              AND q.chunk_count = 0
+                         ORDER BY q.queued_at
+                            LIMIT :limit
+                              FOR UPDATE SKIP LOCKED)
+        RETURNING s.*
+           """)
+    Flux<VideoImportSubmission> claim(SubmissionStatus queued,
+                                      SubmissionStatus running,
+                                      String owner,
+                                      long leaseMs,
+                                      int limit);
+
+    /**
+     * Extends the lease of a RUNNING submission held by {@code owner}.
+     *
+     * @return {@link Mono} emitting the number of rows updated; {@code 0} means the lease was lost
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_submissions
+              SET heartbeat_at     = NOW(),
+                  lease_expires_at = NOW() + :leaseMs * INTERVAL '1 millisecond'
+            WHERE id = :id
+              AND lease_owner = :owner
+              AND status = :running
+           """)
+    Mono<Integer> heartbeat(Long id, String owner, SubmissionStatus running, long leaseMs);
+
+    /**
+     * Moves a leased RUNNING submission to a terminal status and releases the lease.
+     *
+     * @return {@link Mono} emitting the number of rows updated; {@code 0} means the lease was lost
+     *         or the submission was cancelled
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_submissions
+              SET status           = :status,
+                  error_message    = :errorMessage,
+                  finished_at      = NOW(),
+                  lease_owner      = NULL,
+                  lease_expires_at = NULL,
+                  version          = version + 1
+            WHERE id = :id
+              AND lease_owner = :owner
+              AND status = :running
+           """)
+    Mono<Integer> complete(Long id, String owner, SubmissionStatus running, SubmissionStatus status, String errorMessage);
+
+    /**
+     * Cancels a QUEUED or RUNNING submission together with its open chunks.
+     * The lease expiry is cleared so the row is never reclaimed, while {@code lease_owner} is kept:
+     * it tells which rows were running and on which node. Heartbeats and completions of the
+     * running worker match no row afterwards.
+     *
+     * @param id       internal id of the submission
+     * @param username who cancelled, recorded in {@code error_message}
+     * @return {@link Flux} of the rows cancelled by this call; empty if none was open
+     */
+    @Query("""
+           UPDATE video_import_submissions
+              SET status           = :cancelled,
+                  error_message    = 'Cancelled by ' || :username,
+                  finished_at      = NOW(),
+                  lease_expires_at = NULL,
+                  version          = version + 1
+            WHERE (id = :id OR parent_fk = :id)
+              AND status IN (:queued, :running)
+        RETURNING *
+           """)
+    Flux<VideoImportSubmission> cancel(Long id,
+                                       String username,
+                                       SubmissionStatus queued,
+                                       SubmissionStatus running,
+                                       SubmissionStatus cancelled);
+
+    /**
+     * Returns every RUNNING submission whose lease has expired to the queue, or fails it once it
+     * has been claimed {@code maxAttempts} times.
+     *
+     * @return {@link Mono} emitting the number of rows reclaimed
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_submissions
+              SET status           = CASE WHEN attempts >= :maxAttempts THEN :failed ELSE :queued END,
+                  error_message    = CASE WHEN attempts >= :maxAttempts
+                                          THEN 'Lease expired after ' || attempts || ' attempts'
+                                          ELSE error_message END,
+                  finished_at      = CASE WHEN attempts >= :maxAttempts THEN NOW() ELSE finished_at END,
+                  lease_owner      = NULL,
+                  lease_expires_at = NULL,
+                  version          = version + 1
+            WHERE status = :running
+              AND lease_expires_at < NOW()
+           """)
+    Mono<Integer> reclaimExpired(SubmissionStatus running,
+                                 SubmissionStatus queued,
+                                 SubmissionStatus failed,
+                                 int maxAttempts);
+
+    /**
+     * Hands every RUNNING submission held by {@code owner} back to the queue (graceful shutdown).
+     *
+     * @return {@link Mono} emitting the number of rows released
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_submissions
+              SET status           = :queued,
+                  lease_owner      = NULL,
+                  lease_expires_at = NULL,
+                  version          = version + 1
+            WHERE lease_owner = :owner
+              AND status = :running
+           """)
+    Mono<Integer> release(String owner, SubmissionStatus running, SubmissionStatus queued);
+
+    /**
+     * Hands a single RUNNING submission held by {@code owner} back to the queue.
+     *
+     * @return {@link Mono} emitting the number of rows released
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_submissions
+              SET status           = :queued,
+                  lease_owner      = NULL,
+                  lease_expires_at = NULL,
+                  version          = version + 1
+            WHERE id = :id
+              AND lease_owner = :owner
+              AND status = :running
+           """)
+    Mono<Integer> release(Long id, String owner, SubmissionStatus running, SubmissionStatus queued);
+
+    /**
+     * Adds per-stage counts to the submission statistics.
+     *
+     * @param id        internal submission id
+     * @param requested ids requested
+     * @param accepted  ids admitted for import
+     * @param succeeded rows actually inserted
+     * @param skipped   ids skipped as duplicates (already stored or already submitted)
+     * @param failed    ids that could not be imported
+     * @return {@link Mono} emitting the number of rows updated
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_submissions
+              SET requested_count    = requested_count + :requested,
+                  accepted_count     = accepted_count + :accepted,
+                  succeeded_count    = succeeded_count + :succeeded,
+                  skipped_duplicates = skipped_duplicates + :skipped,
+                  failed_count       = failed_count + :failed
+            WHERE id = :id
+           """)
+    Mono<Integer> addStatistics(Long id, int requested, int accepted, int succeeded, int skipped, int failed);
+
+    /**
+     * Moves a chunked parent to RUNNING when its first chunk is claimed.
+     *
+     * @return {@link Mono} emitting the number of rows updated
+     */
+    @Modifying
+    @Query("""
+           UPDATE video_import_submissions
+              SET status     = :running,
+                  started_at = COALESCE(started_at, NOW()),
+                  version    = version + 1
+            WHERE id = :id
+              AND status = :queued
+           """)
+    Mono<Integer> markParentRunning(Long id, SubmissionStatus queued, SubmissionStatus running);
+
+    /**
+     * Recomputes the statistics of a chunked parent as the sum of its chunks.
+     *
+     * @param id internal id of the parent
+     * @return {@link Mono} with the updated parent row
+     */
+    @Query("""
+           UPDATE video_import_submissions p
+              SET requested_count    = c.requested,
+                  accepted_count     = c.accepted,
+                  succeeded_count    = c.succeeded,
+                  skipped_duplicates = c.skipped,
+                  failed_count       = c.failed
+             FROM (SELECT CAST(COALESCE(SUM(requested_count), 0) AS INT)    AS requested,
+                          CAST(COALESCE(SUM(accepted_count), 0) AS INT)     AS accepted,
+                          CAST(COALESCE(SUM(succeeded_count), 0) AS INT)    AS succeeded,
+                          CAST(COALESCE(SUM(skipped_duplicates), 0) AS INT) AS skipped,
+                          CAST(COALESCE(SUM(failed_count), 0) AS INT)       AS failed
+                     FROM video_import_submissions
+                    WHERE parent_fk = :id) c
+            WHERE p.id = :id
+        RETURNING p.*
+           """)
+    Mono<VideoImportSubmission> aggregateChunks(Long id);
+
+    /**
+     * Completes chunked parents whose chunks are all terminal: FINISHED if every chunk finished,
+     * FAILED if any chunk failed or was cancelled on its own, with statistics summed over the chunks. A parent is completed exactly once,
+     * even if its last chunks finish concurrently on different nodes. Only chunks of open parents are
+     * aggregated, so the cost of a sweep does not grow with the history of the table.
+     *
+     * @param parentId parent to check, or {@code null} for all open parents
+     * @return {@link Flux} of the parents completed by this call
+     */
+    @Query("""
+           UPDATE video_import_submissions p
+              SET status             = CASE WHEN c.failed_chunks > 0 THEN :failed ELSE :finished END,
+                  error_message      = CASE WHEN c.failed_chunks > 0
+                                            THEN c.failed_chunks || ' of ' || p.chunk_count || ' chunk(s) failed or cancelled'
+                                       END,
+                  started_at         = COALESCE(p.started_at, NOW()),
+                  finished_at        = NOW(),
+                  requested_count    = c.requested,
+                  accepted_count     = c.accepted,
+                  succeeded_count    = c.succeeded,
+                  skipped_duplicates = c.skipped,
+                  failed_count       = c.failed,
+                  version            = p.version + 1
+             FROM (SELECT parent_fk,
+                          COUNT(*) FILTER (WHERE status IN (:failed, :cancelled)) AS failed_chunks,
+                          COUNT(*) FILTER (WHERE status IN (:queued, :running))   AS open_chunks,
+                          CAST(SUM(requested_count) AS INT)                       AS requested,
+                          CAST(SUM(accepted_count) AS INT)                        AS accepted,
+                          CAST(SUM(succeeded_count) AS INT)                       AS succeeded,
+                          CAST(SUM(skipped_duplicates) AS INT)                    AS skipped,
+                          CAST(SUM(failed_count) AS INT)                          AS failed
+                     FROM video_import_submissions
+                    WHERE parent_fk IN (SELECT id
+                                          FROM video_import_submissions
+                                         WHERE status IN (:queued, :running)
+                                           AND chunk_count > 0
+                                           AND (CAST(:parentId AS BIGINT) IS NULL OR id = :parentId))
+                 GROUP BY parent_fk) c
+            WHERE p.id = c.parent_fk
+              AND p.status IN (:queued, :running)
+              AND c.open_chunks = 0
+        RETURNING p.*
+           """)
+    Flux<VideoImportSubmission> completeChunked(Long parentId,
+                                                SubmissionStatus queued,
+                                                SubmissionStatus running,
+                                                SubmissionStatus finished,
+                                                SubmissionStatus failed,
+                                                SubmissionStatus cancelled);
+
+    /* ---------------- Convenience overloads ---------------- */
+
+    default Mono<Integer> markParentRunning(Long id) {
+        return markParentRunning(id, SubmissionStatus.QUEUED, SubmissionStatus.RUNNING);
+    }
+
+    default Flux<VideoImportSubmission> completeChunked(Long parentId) {
+        return completeChunked(parentId, SubmissionStatus.QUEUED, SubmissionStatus.RUNNING,
+                SubmissionStatus.FINISHED, SubmissionStatus.FAILED, SubmissionStatus.CANCELLED);
+    }
+
+    default Mono<Integer> complete(Long id, String owner, SubmissionStatus status, String errorMessage) {
+        return complete(id, owner, SubmissionStatus.RUNNING, status, errorMessage);
+    }
+
+    default Flux<VideoImportSubmission> cancel(Long id, String username) {
+        return cancel(id, username, SubmissionStatus.QUEUED, SubmissionStatus.RUNNING, SubmissionStatus.CANCELLED);
+    }
+
+    default Flux<VideoImportSubmission> claimQueued(String owner, Duration lease, int limit) {
+        return claim(SubmissionStatus.QUEUED, SubmissionStatus.RUNNING, owner, lease.toMillis(), limit);
+    }
+
+    default Mono<Integer> heartbeat(Long id, String owner, Duration lease) {
+        return heartbeat(id, owner, SubmissionStatus.RUNNING, lease.toMillis());
+    }
+
+    default Mono<Integer> reclaimExpired(int maxAttempts) {
+        return reclaimExpired(SubmissionStatus.RUNNING, SubmissionStatus.QUEUED, SubmissionStatus.FAILED, maxAttempts);
+    }
+
+    default Mono<Integer> release(Long id, String owner) {
+        return release(id, owner, SubmissionStatus.RUNNING, SubmissionStatus.QUEUED);
+    }
+
+    default Mono<Integer> releaseAll(String owner) {
+        return release(owner, SubmissionStatus.RUNNING, SubmissionStatus.QUEUED);
+    }
+}
@@ -4,12 +4,15 @@ import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
 import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
 import com.github.dimitryivaniuta.videometadata.domain.repository.projection.ProviderAvgDurationRow;
 import com.github.dimitryivaniuta.videometadata.domain.repository.projection.ProviderCountRow;
+import com.github.dimitryivaniuta.videometadata.domain.repository.projection.StaleBacklogRow;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -42,6 +45,37 @@ public interface VideoRepository extends R2dbcRepository<Video, Long>, VideoRepo
      */
     Mono<Boolean> existsByProviderAndExternalVideoId(VideoProvider provider, String externalVideoId);
 
+    /**
+     * Set-based variant of {@link #existsByProviderAndExternalVideoId(VideoProvider, String)}:
+     * returns which of the given external ids already exist for the provider, in one round trip.
+     *
+     * @param provider         enum identifying the source
+     * @param externalVideoIds provider‑specific video IDs to look up
+     * @return {@link Flux} of the external ids that are already stored
+     */
+    @Query("""
+           SELECT external_video_id
+             FROM videos
+            WHERE provider = :provider
+              AND external_video_id = ANY(:externalVideoIds)
+           """)
+    Flux<String> findExistingExternalVideoIds(VideoProvider provider, String[] externalVideoIds);
+
+    /**
+     * Loads the stored rows of the given external ids for the provider, in one round trip.
+     *
+     * @param provider         enum identifying the source
+     * @param externalVideoIds provider‑specific video IDs to load
+     * @return {@link Flux} of the stored videos
+     */
+    @Query("""
+           SELECT *
+             FROM videos
+            WHERE provider = :provider
+              AND external_video_id = ANY(:externalVideoIds)
+           """)
+    Flux<Video> findByProviderAndExternalVideoIds(VideoProvider provider, String[] externalVideoIds);
+
 
     /**
      * Count videos per provider.
@@ -81,5 +115,52 @@ public interface VideoRepository extends R2dbcRepository<Video, Long>, VideoRepo
            """)
     Flux<Video> searchByTitle(String fragment, int offset, int limit);
 
+    /**
+     * Next keyset chunk of videos last updated before {@code staleBefore}, ordered by
+     * {@code (updated_at, id)} and starting after the given cursor.
+     *
+     * @param staleBefore    rows updated at or after this instant are fresh
+     * @param afterUpdatedAt {@code updated_at} of the last row of the previous chunk
+     * @param afterId        {@code id} of the last row of the previous chunk
+     * @param limit          chunk size
+     * @return {@link Flux} of stale videos, oldest first
+     */
+    @Query("""
+           SELECT *
+             FROM videos
+            WHERE updated_at < :staleBefore
+              AND (updated_at, id) > (:afterUpdatedAt, :afterId)
+         ORDER BY updated_at, id
+            LIMIT :limit
+           """)
+    Flux<Video> findStaleChunk(Instant staleBefore, Instant afterUpdatedAt, Long afterId, int limit);
+
+    /**
+     * Size and lag of the stale-metadata backlog.
+     *
+     * @param staleBefore rows updated at or after this instant are fresh
+     * @return {@link Mono} with the number of stale rows and the age of the oldest one in seconds
+     */
+    @Query("""
+           SELECT COUNT(*) AS cnt,
+                  CAST(EXTRACT(EPOCH FROM NOW() - MIN(updated_at)) AS BIGINT) AS lag
+             FROM videos
+            WHERE updated_at < :staleBefore
+           """)
+    Mono<StaleBacklogRow> staleBacklog(Instant staleBefore);
 
+    /**
+     * Marks videos as checked without changing their metadata, e.g. after a refresh found
+     * nothing new, so the stale-metadata sweep moves on to other rows.
+     *
+     * @param ids internal video ids
+     * @return {@link Mono} emitting the number of rows updated
+     */
+    @Modifying
+    @Query("""
+           UPDATE videos
+              SET updated_at = NOW()
+            WHERE id = ANY(:ids)
+           """)
+    Mono<Integer> touchUpdatedAt(Long[] ids);
 }
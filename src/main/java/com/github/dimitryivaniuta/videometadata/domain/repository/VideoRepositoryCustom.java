@@ -8,6 +8,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 
 /**
  * Custom reactive search API that replaces JPA Specifications.
@@ -28,4 +29,24 @@ public interface VideoRepositoryCustom {
                            Long minDurationMs,
                            Long maxDurationMs,
                            VideoCategory category);
+
+    /**
+     * Inserts all videos with one multi-row {@code INSERT ... ON CONFLICT DO NOTHING}.
+     * Rows that collide with {@code uq_videos_provider_externalid} are skipped silently. A title or
+     * upload time the provider did not send is stored as an empty title or the import time.
+     *
+     * @param videos videos to insert (keep batches well below the 65535 bind-parameter limit)
+     * @return {@link Flux} of ids of the rows that were actually inserted
+     */
+    Flux<Long> insertIgnoringDuplicates(List<Video> videos);
+
+    /**
+     * Writes refreshed provider metadata (title, description, duration, upload time, ETag)
+     * of many videos with one {@code UPDATE ... FROM (VALUES ...)}, matched by id. A missing title
+     * or upload time keeps the stored one.
+     *
+     * @param videos refreshed videos; {@code id} must be set
+     * @return {@link Mono} emitting the number of rows updated
+     */
+    Mono<Long> updateMetadataBatch(List<Video> videos);
 }
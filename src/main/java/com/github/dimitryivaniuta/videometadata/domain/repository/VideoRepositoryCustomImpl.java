@@ -8,17 +8,51 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Objects;
 
 @Repository
 @RequiredArgsConstructor
 class VideoRepositoryCustomImpl implements VideoRepositoryCustom {
 
+    private static final String INSERT_HEAD = """
+            INSERT INTO videos (provider, external_video_id, external_id, created_by_user_id, title,
+                                description, duration_ms, upload_date_time, category,
+                                etag, imported_at, created_at, updated_at, version)
+            VALUES
+            """;
+
+    private static final String INSERT_TAIL = """
+
+            ON CONFLICT ON CONSTRAINT uq_videos_provider_externalid DO NOTHING
+            RETURNING id
+            """;
+
+    private static final String UPDATE_HEAD = """
+            UPDATE videos v
+               SET title            = COALESCE(d.title, v.title),
+                   description      = COALESCE(d.description, v.description),
+                   duration_ms      = COALESCE(NULLIF(d.duration_ms, 0), v.duration_ms),
+                   upload_date_time = COALESCE(d.upload_date_time, v.upload_date_time),
+                   etag             = d.etag,
+                   updated_at       = NOW(),
+                   version          = v.version + 1
+              FROM (VALUES
+            """;
+
+    private static final String UPDATE_TAIL = """
+
+                   ) AS d(id, title, description, duration_ms, upload_date_time, etag)
+             WHERE v.id = d.id
+            """;
+
     private final R2dbcEntityTemplate template;
 
     @Override
@@ -90,4 +124,96 @@ class VideoRepositoryCustomImpl implements VideoRepositoryCustom {
 
         return template.count(Query.query(criteria), Video.class);
     }
+
+    @Override
+    public Flux<Long> insertIgnoringDuplicates(List<Video> videos) {
+        if (videos == null || videos.isEmpty()) {
+            return Flux.empty();
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT_HEAD);
+        for (int i = 0; i < videos.size(); i++) {
+            if (i > 0) {
+                sql.append(",\n");
+            }
+            sql.append("(:provider").append(i)
+                    .append(", :extVideoId").append(i)
+                    .append(", :extId").append(i)
+                    .append(", :owner").append(i)
+                    // title and upload time are NOT NULL; providers may omit them
+                    .append(", COALESCE(:title").append(i).append(", '')")
+                    .append(", :description").append(i)
+                    .append(", :durationMs").append(i)
+                    .append(", COALESCE(:uploadedAt").append(i).append(", :importedAt").append(i).append(")")
+                    .append(", :category").append(i)
+                    .append(", :etag").append(i)
+                    .append(", :importedAt").append(i)
+                    .append(", :importedAt").append(i)
+                    .append(", :importedAt").append(i)
+                    .append(", 0)");
+        }
+        sql.append(INSERT_TAIL);
+
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql.toString());
+        Instant now = Instant.now();
+        for (int i = 0; i < videos.size(); i++) {
+            Video v = videos.get(i);
+            // enums are stored as ordinals (see VideoProviderWritingConverter)
+            spec = spec.bind("provider" + i, v.getProvider().ordinal());
+            spec = bindNullable(spec, "extVideoId" + i, v.getExternalVideoId(), String.class);
+            spec = bindNullable(spec, "extId" + i, v.getExternalId(), String.class);
+            spec = bindNullable(spec, "owner" + i, v.getCreatedByUserId(), Long.class);
+            spec = bindNullable(spec, "title" + i, v.getTitle(), String.class);
+            spec = bindNullable(spec, "description" + i, v.getDescription(), String.class);
+            spec = spec.bind("durationMs" + i, v.getDurationMillis());
+            spec = bindNullable(spec, "uploadedAt" + i, v.getUploadDateTime(), ZonedDateTime.class);
+            spec = spec.bind("category" + i, v.getCategory() == null ? 0 : v.getCategory().ordinal());
+            spec = bindNullable(spec, "etag" + i, v.getEtag(), String.class);
+            spec = spec.bind("importedAt" + i, v.getImportedAt() == null ? now : v.getImportedAt());
+        }
+
+        return spec.map((row, meta) -> row.get("id", Long.class)).all();
+    }
+
+    @Override
+    public Mono<Long> updateMetadataBatch(List<Video> videos) {
+        if (videos == null || videos.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        StringBuilder sql = new StringBuilder(UPDATE_HEAD);
+        for (int i = 0; i < videos.size(); i++) {
+            if (i > 0) {
+                sql.append(",\n");
+            }
+            // explicit casts: VALUES rows carry no column types of their own
+            sql.append("(CAST(:id").append(i).append(" AS BIGINT)")
+                    .append(", CAST(:title").append(i).append(" AS VARCHAR)")
+                    .append(", CAST(:description").append(i).append(" AS TEXT)")
+                    .append(", CAST(:durationMs").append(i).append(" AS BIGINT)")
+                    .append(", CAST(:uploadedAt").append(i).append(" AS TIMESTAMPTZ)")
+                    .append(", CAST(:etag").append(i).append(" AS VARCHAR))");
+        }
+        sql.append(UPDATE_TAIL);
+
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql.toString());
+        for (int i = 0; i < videos.size(); i++) {
+            Video v = videos.get(i);
+            spec = spec.bind("id" + i, Objects.requireNonNull(v.getId(), "video id"));
+            spec = bindNullable(spec, "title" + i, v.getTitle(), String.class);
+            spec = bindNullable(spec, "description" + i, v.getDescription(), String.class);
+            spec = spec.bind("durationMs" + i, v.getDurationMillis());
+            spec = bindNullable(spec, "uploadedAt" + i, v.getUploadDateTime(), ZonedDateTime.class);
+            spec = bindNullable(spec, "etag" + i, v.getEtag(), String.class);
+        }
+
+        return spec.fetch().rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name,
+                                                                  Object value,
+                                                                  Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
 }
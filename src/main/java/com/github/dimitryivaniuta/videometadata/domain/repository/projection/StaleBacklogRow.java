@@ -0,0 +1,9 @@
+package com.github.dimitryivaniuta.videometadata.domain.repository.projection;
+
+/**
+ * Row projection for the stale-metadata backlog: number of stale rows and age of the oldest one.
+ */
+public interface StaleBacklogRow {
+    Long getCnt();
+    Long getLag();   // seconds since the oldest stale row was last updated, null if none
+}
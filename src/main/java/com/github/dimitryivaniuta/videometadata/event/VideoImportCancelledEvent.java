@@ -0,0 +1,21 @@
+package com.github.dimitryivaniuta.videometadata.event;
+
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Fired when an import submission was CANCELLED.
+ */
+@Getter
+public class VideoImportCancelledEvent extends ApplicationEvent {
+
+    private final ImportProgressSnapshot snapshot;
+    private final String                 reason;
+
+    public VideoImportCancelledEvent(Object source, ImportProgressSnapshot snapshot, String reason) {
+        super(source);
+        this.snapshot = snapshot;
+        this.reason   = reason;
+    }
+}
@@ -1,4 +1,19 @@
 package com.github.dimitryivaniuta.videometadata.event;
 
-public class VideoImportCompletedEvent {
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Fired when an import submission finished successfully.
+ */
+@Getter
+public class VideoImportCompletedEvent extends ApplicationEvent {
+
+    private final ImportProgressSnapshot snapshot;
+
+    public VideoImportCompletedEvent(Object source, ImportProgressSnapshot snapshot) {
+        super(source);
+        this.snapshot = snapshot;
+    }
 }
@@ -1,4 +1,21 @@
 package com.github.dimitryivaniuta.videometadata.event;
 
-public class VideoImportFailedEvent {
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Fired when an import submission was marked FAILED.
+ */
+@Getter
+public class VideoImportFailedEvent extends ApplicationEvent {
+
+    private final ImportProgressSnapshot snapshot;
+    private final String                 errorMessage;
+
+    public VideoImportFailedEvent(Object source, ImportProgressSnapshot snapshot, String errorMessage) {
+        super(source);
+        this.snapshot     = snapshot;
+        this.errorMessage = errorMessage;
+    }
 }
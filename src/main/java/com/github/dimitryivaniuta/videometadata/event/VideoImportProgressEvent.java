@@ -1,4 +1,19 @@
 package com.github.dimitryivaniuta.videometadata.event;
 
-public class VideoImportProgressEvent {
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Fired whenever the counters of a running import were flushed to the submission row.
+ */
+@Getter
+public class VideoImportProgressEvent extends ApplicationEvent {
+
+    private final ImportProgressSnapshot snapshot;
+
+    public VideoImportProgressEvent(Object source, ImportProgressSnapshot snapshot) {
+        super(source);
+        this.snapshot = snapshot;
+    }
 }
@@ -0,0 +1,20 @@
+package com.github.dimitryivaniuta.videometadata.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an Idempotency-Key is reused with a different request, or while the request that
+ * first used it is still being processed for longer than expected.
+ */
+@Getter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyConflictException extends RuntimeException {
+    private final String idempotencyKey;
+
+    public IdempotencyKeyConflictException(String idempotencyKey, String reason) {
+        super("Idempotency-Key '" + idempotencyKey + "' " + reason);
+        this.idempotencyKey = idempotencyKey;
+    }
+}
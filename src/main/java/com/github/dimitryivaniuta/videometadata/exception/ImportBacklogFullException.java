@@ -0,0 +1,19 @@
+package com.github.dimitryivaniuta.videometadata.exception;
+
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import lombok.Getter;
+
+/**
+ * Thrown when the import scheduler backlog is full and a provider call cannot be queued.
+ */
+@Getter
+public class ImportBacklogFullException extends RuntimeException {
+    private final String user;
+    private final VideoProvider provider;
+
+    public ImportBacklogFullException(String user, VideoProvider provider, int maxQueued) {
+        super("Import backlog full (" + maxQueued + " queued), rejected " + provider + " call of '" + user + "'");
+        this.user = user;
+        this.provider = provider;
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.dimitryivaniuta.videometadata.exception;
+
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Thrown when every API key of a provider has spent its daily quota; calls can resume at {@code resetAt}.
+ */
+@Getter
+public class ProviderQuotaExhaustedException extends RuntimeException {
+    private final VideoProvider provider;
+    private final Instant resetAt;
+
+    public ProviderQuotaExhaustedException(VideoProvider provider, Instant resetAt) {
+        super("Daily API quota of " + provider + " exhausted on all keys until " + resetAt);
+        this.provider = provider;
+        this.resetAt = resetAt;
+    }
+
+    public ProviderQuotaExhaustedException(VideoProvider provider, Instant resetAt, Throwable cause) {
+        this(provider, resetAt);
+        initCause(cause);
+    }
+}
@@ -1,4 +1,36 @@
 package com.github.dimitryivaniuta.videometadata.graphql.controller;
 
+import com.github.dimitryivaniuta.videometadata.service.VideoImportService;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+/**
+ * GraphQL mutations controlling video imports. ADMIN only.
+ */
+@Controller
+@RequiredArgsConstructor
 public class VideoImportMutationController {
+
+    private final VideoImportService importService;
+
+    /**
+     * Cancels a queued or running import; see {@link VideoImportService#cancelImport(String, String)}.
+     *
+     * @param submissionId id returned when the import was started
+     * @return resulting progress, {@code null} if the id is unknown
+     */
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ImportProgressSnapshot> cancelImport(@Argument String submissionId) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(ctx -> ctx.getAuthentication().getName())
+                .switchIfEmpty(Mono.error(new IllegalStateException("No authenticated principal found")))
+                .flatMap(username -> importService.cancelImport(submissionId, username));
+    }
 }
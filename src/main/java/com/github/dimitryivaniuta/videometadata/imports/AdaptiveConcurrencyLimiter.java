@@ -0,0 +1,234 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Per‑provider adaptive concurrency limit (AIMD with an RTT gradient) for provider calls.
+ *
+ * <p>The {@link FairShareScheduler} starts a provider call only while fewer than
+ * {@link #limit(VideoProvider)} calls to that provider are in flight and reports every finished call
+ * back. The limit grows by one per limit's worth of successful calls (about one per round trip)
+ * while the smoothed RTT stays within {@code rtt-tolerance} of the baseline, and shrinks by
+ * {@code backoff-ratio} on a 429, a 503, a timeout or a smoothed RTT above that tolerance. Only one
+ * decrease is applied per burst: calls started before the last decrease cannot trigger another.</p>
+ *
+ * <p>RTTs are not taken from the scheduled call, which also spans the quota ledger, bulkhead and
+ * rate limiter waits and retry backoff, but from each HTTP exchange: the {@link #latencyProbe} filter
+ * of the provider WebClients times every attempt up to its response headers and reports 429/503
+ * responses as overload even if a retry later succeeds. Requests of different cost keep separate
+ * baselines, named by the {@link #LATENCY_CLASS} request attribute (e.g. {@link #BATCH} for
+ * multi‑id requests), so 50‑id batches do not look like slow single calls. Each baseline is the
+ * minimum seen since the last {@code probe-interval}, so it follows a provider that got slower for
+ * good. The limit stays between {@code min-limit} and the provider's
+ * {@code scheduler.provider-max-concurrent} (or {@code scheduler.max-concurrent}); each provider's
+ * limit is exported as a gauge.</p>
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    /** Weight of the newest sample in the smoothed RTT. */
+    private static final double RTT_SMOOTHING = 0.2;
+
+    /** Request attribute naming the RTT baseline of a provider request; see {@link #latencyProbe}. */
+    public static final String LATENCY_CLASS = AdaptiveConcurrencyLimiter.class.getName() + ".latencyClass";
+
+    /** Baseline of requests without a {@link #LATENCY_CLASS}: single‑video requests. */
+    public static final String SINGLE = "single";
+
+    /** Baseline of multi‑id requests. */
+    public static final String BATCH = "batch";
+
+    private final ImportProperties props;
+    private final Map<VideoProvider, Limit> limits = new EnumMap<>(VideoProvider.class);
+
+    public AdaptiveConcurrencyLimiter(ImportProperties props, MeterRegistry registry) {
+        this.props = props;
+        ImportProperties.Adaptive cfg = props.getScheduler().getAdaptive();
+        for (VideoProvider provider : VideoProvider.values()) {
+            Limit limit = new Limit(Math.min(Math.max(cfg.getInitialLimit(), cfg.getMinLimit()), maxLimit(provider)));
+            limits.put(provider, limit);
+            Gauge.builder(ImportMetrics.GAUGE_SCHEDULER_LIMIT, limit, Limit::current)
+                    .description("Adaptive limit of concurrent calls to a provider")
+                    .tag("provider", provider.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * @return calls to {@code provider} that may be in flight right now
+     */
+    public int limit(VideoProvider provider) {
+        if (!props.getScheduler().getAdaptive().isEnabled()) {
+            return maxLimit(provider);
+        }
+        return limits.get(provider).current();
+    }
+
+    /**
+     * @return upper bound of the limit of {@code provider}
+     */
+    public int maxLimit(VideoProvider provider) {
+        ImportProperties.Scheduler cfg = props.getScheduler();
+        return Math.max(1, cfg.getProviderMaxConcurrent().getOrDefault(provider, cfg.getMaxConcurrent()));
+    }
+
+    /**
+     * WebClient filter reporting every exchange with a provider: the time to a non‑error response as
+     * an RTT sample of the request's {@link #LATENCY_CLASS}, a 429 or 503 response as overload.
+     *
+     * @param provider provider the WebClient calls
+     * @return filter to add to the provider's WebClient
+     */
+    public ExchangeFilterFunction latencyProbe(VideoProvider provider) {
+        return (request, next) -> Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            String latencyClass = request.attribute(LATENCY_CLASS).map(Object::toString).orElse(SINGLE);
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        if (isOverload(response.statusCode())) {
+                            onOverload(provider, startedAt);
+                        } else if (!response.statusCode().isError()) {
+                            onLatency(provider, latencyClass, startedAt);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Records the RTT of one exchange with a provider; a smoothed RTT of its class above the
+     * tolerance shrinks the limit.
+     *
+     * @param provider     provider called
+     * @param latencyClass baseline the exchange is compared with, e.g. {@link #SINGLE} or {@link #BATCH}
+     * @param startedAt    {@link System#nanoTime()} when the request was sent
+     */
+    public void onLatency(VideoProvider provider, String latencyClass, long startedAt) {
+        long rtt = System.nanoTime() - startedAt;
+        Limit limit = limits.get(provider);
+        ImportProperties.Adaptive cfg = props.getScheduler().getAdaptive();
+        synchronized (limit) {
+            Baseline baseline = limit.baselines.computeIfAbsent(latencyClass, k -> new Baseline());
+            baseline.sample(rtt, cfg.getProbeInterval().toNanos());
+            limit.congested = baseline.smoothedRtt > baseline.minRtt * cfg.getRttTolerance();
+            if (limit.congested) {
+                decrease(limit, startedAt, provider);
+            }
+        }
+    }
+
+    /**
+     * Records a call that completed normally (with or without a value).
+     *
+     * @param provider provider called
+     * @param inFlight calls to the provider in flight when this one started
+     */
+    public void onSuccess(VideoProvider provider, int inFlight) {
+        Limit limit = limits.get(provider);
+        synchronized (limit) {
+            // only grow when the current limit is actually used and the last RTT sample was in tolerance
+            if (!limit.congested && inFlight * 2 >= limit.value) {
+                limit.value = Math.min(maxLimit(provider), limit.value + 1.0 / limit.value);
+            }
+        }
+    }
+
+    /**
+     * Records a failed call. Overload signals (429, 503, timeouts) shrink the limit; other errors
+     * say nothing about provider load and are ignored.
+     *
+     * @param provider  provider called
+     * @param startedAt {@link System#nanoTime()} when the call started
+     * @param error     failure of the call
+     */
+    public void onError(VideoProvider provider, long startedAt, Throwable error) {
+        if (isOverload(error)) {
+            onOverload(provider, startedAt);
+        }
+    }
+
+    private void onOverload(VideoProvider provider, long startedAt) {
+        Limit limit = limits.get(provider);
+        synchronized (limit) {
+            decrease(limit, startedAt, provider);
+        }
+    }
+
+    private void decrease(Limit limit, long startedAt, VideoProvider provider) {
+        if (limit.lastDecrease != 0 && startedAt - limit.lastDecrease < 0) {
+            return;
+        }
+        ImportProperties.Adaptive cfg = props.getScheduler().getAdaptive();
+        limit.value = Math.max(cfg.getMinLimit(), Math.min(maxLimit(provider), limit.value * cfg.getBackoffRatio()));
+        limit.lastDecrease = System.nanoTime();
+    }
+
+    private static boolean isOverload(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof TimeoutException) {
+                return true;
+            }
+            if (t instanceof WebClientResponseException ex && isOverload(ex.getStatusCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOverload(HttpStatusCode status) {
+        return status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)
+                || status.isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Limit state of one provider; guarded by its own monitor.
+     */
+    private static final class Limit {
+        private volatile double value;
+        private final Map<String, Baseline> baselines = new HashMap<>();
+        /** Whether the latest RTT sample was above the tolerance of its baseline. */
+        private boolean congested;
+        private long lastDecrease;
+
+        private Limit(int initial) {
+            this.value = initial;
+        }
+
+        private int current() {
+            return Math.max(1, (int) value);
+        }
+    }
+
+    /**
+     * Smoothed and minimum RTT of one class of requests to a provider; guarded by the monitor of its {@link Limit}.
+     */
+    private static final class Baseline {
+        private double smoothedRtt;
+        private double minRtt = Double.MAX_VALUE;
+        private long minRttSince = System.nanoTime();
+
+        private void sample(long rtt, long probeIntervalNanos) {
+            smoothedRtt = smoothedRtt == 0 ? rtt : smoothedRtt + RTT_SMOOTHING * (rtt - smoothedRtt);
+            long now = System.nanoTime();
+            if (now - minRttSince > probeIntervalNanos) {
+                // forget the old baseline, the provider may have become slower for good
+                minRtt = smoothedRtt;
+                minRttSince = now;
+            }
+            minRtt = Math.min(minRtt, rtt);
+        }
+    }
+}
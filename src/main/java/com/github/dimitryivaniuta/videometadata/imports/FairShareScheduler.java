@@ -0,0 +1,257 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.exception.ImportBacklogFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Node‑wide scheduler for provider calls made by imports.
+ *
+ * <p>{@code throttle.maxConcurrent} only bounds the calls of a single submission; this scheduler
+ * bounds all of them together ({@code scheduler.maxConcurrent}) and hands the slots out fairly with
+ * deficit round‑robin over (user, provider) flows: each flow may start {@code scheduler.quantum}
+ * calls per turn, so one user with several large submissions cannot starve the others. A provider at
+ * its current {@link AdaptiveConcurrencyLimiter} limit is skipped without losing its turn credit;
+ * every finished call is reported back to the limiter, which takes its RTT samples from the HTTP
+ * exchanges themselves rather than from the whole scheduled call.</p>
+ *
+ * <p>Waiting calls are bounded by {@code throttle.maxQueued}; beyond that {@link #schedule} fails
+ * fast with {@link ImportBacklogFullException}. Queue depth, active slots, wait time and rejections
+ * are exported as metrics.</p>
+ */
+@Component
+public class FairShareScheduler {
+
+    private final ImportProperties props;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final MeterRegistry registry;
+    private final Counter rejected;
+
+    private final Object lock = new Object();
+
+    /** Flows with waiting calls, in round‑robin order; the head has the turn. */
+    private final ArrayDeque<Flow> ring = new ArrayDeque<>();
+    private final Map<FlowKey, Flow> flows = new HashMap<>();
+    private final Map<VideoProvider, Integer> activeByProvider = new EnumMap<>(VideoProvider.class);
+    private final Map<VideoProvider, Timer> waitTimers = new EnumMap<>(VideoProvider.class);
+
+    private int queued;
+    private int active;
+
+    public FairShareScheduler(ImportProperties props, AdaptiveConcurrencyLimiter limiter, MeterRegistry registry) {
+        this.props = props;
+        this.limiter = limiter;
+        this.registry = registry;
+        this.rejected = Counter.builder(ImportMetrics.COUNTER_SCHEDULER_REJECTED)
+                .description("Provider calls rejected because the import backlog was full")
+                .register(registry);
+        Gauge.builder(ImportMetrics.GAUGE_SCHEDULER_QUEUED, this, FairShareScheduler::queuedCount)
+                .description("Provider calls waiting for an import slot")
+                .register(registry);
+        Gauge.builder(ImportMetrics.GAUGE_SCHEDULER_ACTIVE, this, FairShareScheduler::activeCount)
+                .description("Provider calls currently holding an import slot")
+                .register(registry);
+    }
+
+    /**
+     * Runs {@code call} once a slot is granted to the (user, provider) flow.
+     * Cancelling the returned Mono removes a waiting call or cancels a running one.
+     *
+     * @param user     submission owner (fairness key)
+     * @param provider provider the call goes to (fairness key and cap)
+     * @param call     provider call, subscribed when the slot is granted
+     * @return Mono with the call result, or {@link ImportBacklogFullException} if the backlog is full
+     */
+    public <T> Mono<T> schedule(String user, VideoProvider provider, Supplier<Mono<T>> call) {
+        return Mono.create(sink -> {
+            Task<T> task = new Task<>(provider, call, sink);
+            if (!enqueue(new FlowKey(user, provider), task)) {
+                rejected.increment();
+                sink.error(new ImportBacklogFullException(user, provider, props.getThrottle().getMaxQueued()));
+                return;
+            }
+            sink.onCancel(task::cancel);
+            dispatch();
+        });
+    }
+
+    /**
+     * @return most calls to {@code provider} that can ever run at once; callers need not keep more in flight
+     */
+    public int maxConcurrent(VideoProvider provider) {
+        return limiter.maxLimit(provider);
+    }
+
+    public int queuedCount() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+
+    public int activeCount() {
+        synchronized (lock) {
+            return active;
+        }
+    }
+
+    private boolean enqueue(FlowKey key, Task<?> task) {
+        synchronized (lock) {
+            if (queued >= props.getThrottle().getMaxQueued() && !hasSlot(key.provider())) {
+                return false;
+            }
+            Flow flow = flows.computeIfAbsent(key, k -> {
+                Flow f = new Flow(k);
+                ring.addLast(f);
+                return f;
+            });
+            flow.tasks.addLast(task);
+            queued++;
+            return true;
+        }
+    }
+
+    /**
+     * Grants free slots in deficit round‑robin order and starts the granted calls outside the lock.
+     */
+    private void dispatch() {
+        List<Task<?>> granted = new ArrayList<>();
+        synchronized (lock) {
+            int skipped = 0;
+            while (active < props.getScheduler().getMaxConcurrent() && !ring.isEmpty() && skipped < ring.size()) {
+                Flow flow = ring.peekFirst();
+                Task<?> next = flow.nextLive();
+                if (next == null) {
+                    ring.pollFirst();
+                    flows.remove(flow.key);
+                    continue;
+                }
+                if (!hasSlot(flow.key.provider())) {
+                    // provider at its limit: keep the remaining credit, let the next flow go
+                    ring.addLast(ring.pollFirst());
+                    skipped++;
+                    continue;
+                }
+                if (flow.deficit <= 0) {
+                    flow.deficit += Math.max(1, props.getScheduler().getQuantum());
+                }
+                flow.tasks.pollFirst();
+                flow.deficit--;
+                queued--;
+                active++;
+                next.inFlight = activeByProvider.merge(next.provider, 1, Integer::sum);
+                next.started = true;
+                granted.add(next);
+                skipped = 0;
+                if (flow.deficit <= 0) {
+                    ring.addLast(ring.pollFirst());
+                }
+            }
+        }
+        granted.forEach(Task::start);
+    }
+
+    private void release(Task<?> task) {
+        synchronized (lock) {
+            active--;
+            activeByProvider.merge(task.provider, -1, Integer::sum);
+        }
+        dispatch();
+    }
+
+    private boolean hasSlot(VideoProvider provider) {
+        if (active >= props.getScheduler().getMaxConcurrent()) {
+            return false;
+        }
+        return activeByProvider.getOrDefault(provider, 0) < limiter.limit(provider);
+    }
+
+    private Timer waitTimer(VideoProvider provider) {
+        synchronized (lock) {
+            return waitTimers.computeIfAbsent(provider, p -> Timer.builder(ImportMetrics.TIMER_SCHEDULER_WAIT)
+                    .description("Time a provider call waited for an import slot")
+                    .tag("provider", p.name())
+                    .register(registry));
+        }
+    }
+
+    private record FlowKey(String user, VideoProvider provider) { }
+
+    private static final class Flow {
+        private final FlowKey key;
+        private final ArrayDeque<Task<?>> tasks = new ArrayDeque<>();
+        private int deficit;
+
+        private Flow(FlowKey key) {
+            this.key = key;
+        }
+
+        /** Head task, dropping calls cancelled while waiting. */
+        private Task<?> nextLive() {
+            while (!tasks.isEmpty() && tasks.peekFirst().cancelled) {
+                tasks.pollFirst();
+            }
+            return tasks.peekFirst();
+        }
+    }
+
+    private final class Task<T> {
+        private final VideoProvider provider;
+        private final Supplier<Mono<T>> call;
+        private final MonoSink<T> sink;
+        private final long enqueuedAt = System.nanoTime();
+
+        // guarded by lock
+        private boolean started;
+        private boolean cancelled;
+        private int inFlight;
+
+        private final Disposable.Swap running = Disposables.swap();
+
+        private Task(VideoProvider provider, Supplier<Mono<T>> call, MonoSink<T> sink) {
+            this.provider = provider;
+            this.call = call;
+            this.sink = sink;
+        }
+
+        private void start() {
+            long startedAt = System.nanoTime();
+            waitTimer(provider).record(Duration.ofNanos(startedAt - enqueuedAt));
+            running.update(Mono.defer(call)
+                    .doOnSuccess(v -> limiter.onSuccess(provider, inFlight))
+                    .doOnError(ex -> limiter.onError(provider, startedAt, ex))
+                    .doFinally(sig -> release(this))
+                    .subscribe(sink::success, sink::error, sink::success));
+        }
+
+        private void cancel() {
+            synchronized (lock) {
+                if (!started) {
+                    if (!cancelled) {
+                        cancelled = true;
+                        queued--;
+                    }
+                    return;
+                }
+            }
+            running.dispose();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs claimed import submissions with bounded concurrency.
+ *
+ * <p>Jobs are offered to a bounded unicast {@link Sinks.Many} and started by a single
+ * {@code flatMap} with {@code app.import.concurrency-limit} concurrency. The buffer is as large
+ * as the concurrency limit: claimed rows hold a lease, so there is no point in buffering more than
+ * can start soon. Every running job is tracked as a {@link Disposable} keyed by its submission id,
+ * so it can be cancelled individually (a job cancelled while still buffered is skipped when its
+ * turn comes). On shutdown, {@link #stop()} skips the buffered jobs, which have not spent anything
+ * yet, so their owner can hand them back at once, and {@link #shutdown(Duration)} drains only the
+ * jobs already running before disposing the rest. Active and queued job counts are exported as gauges.</p>
+ */
+@Slf4j
+@Component
+public class ImportDispatcher {
+
+    private final int concurrency;
+    private final Sinks.Many<Job> queue;
+    private final Map<Long, Disposable> running = new ConcurrentHashMap<>();
+    /** Buffered jobs by submission id; {@code true} once cancelled or skipped before they started. */
+    private final Map<Long, Boolean> waiting = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    /** Completes once the queue was completed and every job left it and finished. */
+    private final Sinks.Empty<Void> drained = Sinks.empty();
+    private final Disposable consumer;
+    private volatile boolean stopping;
+
+    public ImportDispatcher(ImportProperties props, MeterRegistry registry) {
+        this.concurrency = Math.max(1, props.getConcurrencyLimit());
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(Queues.<Job>get(concurrency).get());
+        this.consumer = queue.asFlux()
+                .flatMap(this::run, concurrency)
+                .subscribe(null, ex -> drained.tryEmitEmpty(), drained::tryEmitEmpty);
+
+        Gauge.builder(ImportMetrics.GAUGE_ACTIVE_JOBS, running, Map::size)
+                .description("Import submissions running on this node")
+                .register(registry);
+        Gauge.builder(ImportMetrics.GAUGE_QUEUED_JOBS, queued, AtomicInteger::get)
+                .description("Claimed import submissions waiting for a dispatcher slot")
+                .register(registry);
+    }
+
+    /**
+     * Offers a job to the dispatcher.
+     *
+     * @param id  internal submission id
+     * @param job the import, subscribed once a slot is free
+     * @return {@code false} if the buffer is full or the dispatcher is shut down
+     */
+    public boolean submit(Long id, Mono<Void> job) {
+        queued.incrementAndGet();
+        waiting.put(id, false);
+        Sinks.EmitResult result = queue.tryEmitNext(new Job(id, job));
+        if (result.isFailure()) {
+            queued.decrementAndGet();
+            waiting.remove(id);
+            log.warn("Import dispatcher rejected id={}: {}", id, result);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return how many more jobs can be submitted right now
+     */
+    public int freeSlots() {
+        return concurrency - running.size() - queued.get();
+    }
+
+    public int activeCount() {
+        return running.size();
+    }
+
+    public int queuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * Cancels a running job, or a buffered one before it starts.
+     *
+     * @param id internal submission id
+     * @return {@code true} if a job of this node was cancelled
+     */
+    public boolean cancel(Long id) {
+        if (waiting.replace(id, false, true)) {
+            return true;
+        }
+        Disposable d = running.get(id);
+        if (d == null) {
+            return false;
+        }
+        d.dispose();
+        return true;
+    }
+
+    /**
+     * Stops accepting jobs and skips every buffered one: it will not be started.
+     *
+     * @return submission ids of the skipped jobs, whose leases the caller should release
+     */
+    public List<Long> stop() {
+        stopping = true;
+        queue.tryEmitComplete();
+        List<Long> skipped = new ArrayList<>();
+        // a job that already left the buffer is running and is not flagged
+        waiting.keySet().forEach(id -> {
+            if (waiting.replace(id, false, true)) {
+                skipped.add(id);
+            }
+        });
+        if (!skipped.isEmpty()) {
+            log.info("Skipping {} buffered import(s) at shutdown", skipped.size());
+        }
+        return skipped;
+    }
+
+    /**
+     * Stops accepting jobs and skips the buffered ones ({@link #stop()}), waits up to {@code timeout}
+     * for running jobs to finish and disposes whatever is still running afterwards.
+     *
+     * @param timeout maximum time to wait for in‑flight jobs
+     */
+    public void shutdown(Duration timeout) {
+        stop();
+        // the consumer completes once the skipped jobs left the buffer and all running ones finished
+        drained.asMono()
+                .timeout(timeout, Mono.empty())
+                .block();
+        if (!running.isEmpty()) {
+            log.warn("Disposing {} import(s) still running after {}", running.size(), timeout);
+            running.values().forEach(Disposable::dispose);
+        }
+        consumer.dispose();
+    }
+
+    /**
+     * Subscribes the job and completes when it terminates or is cancelled, freeing the slot.
+     */
+    private Mono<Void> run(Job job) {
+        queued.decrementAndGet();
+        return Mono.<Void>create(sink -> {
+            Disposable.Swap slot = Disposables.swap();
+            // registered before leaving the buffer, so a concurrent cancel always finds the job
+            running.put(job.id(), slot);
+            if (Boolean.TRUE.equals(waiting.remove(job.id()))) {
+                running.remove(job.id());
+                if (!stopping) {
+                    log.info("Skipping cancelled import id={}", job.id());
+                }
+                sink.success();
+                return;
+            }
+            slot.update(job.work()
+                    .doFinally(sig -> {
+                        running.remove(job.id());
+                        sink.success();
+                    })
+                    .subscribe(null, ex -> log.error("Import id={} terminated with error: {}", job.id(), ex.toString())));
+        });
+    }
+
+    private record Job(Long id, Mono<Void> work) { }
+}
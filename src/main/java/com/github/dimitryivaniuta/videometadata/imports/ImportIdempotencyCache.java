@@ -0,0 +1,199 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.exception.IdempotencyKeyConflictException;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportRequest;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportSubmissionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Redis‑backed response cache for {@code Idempotency-Key} headers of import submissions.
+ *
+ * <p>The response of the first request with a key is stored under
+ * {@code import:idempotency:<sha256(username, key)>} for {@code app.import.idempotency.ttl},
+ * together with a fingerprint of the request. A repeated key gets the stored response back without
+ * creating a submission; a repeated key with a different request is rejected. Concurrent duplicates
+ * share one in‑flight {@link Mono} within the JVM; across nodes the first one takes a Redis lease
+ * and the others poll until its response is stored or the lease expires. If Redis is unavailable
+ * the request runs without cross‑node protection. Failed requests store nothing, so they can be
+ * retried with the same key.</p>
+ */
+@Slf4j
+@Component
+public class ImportIdempotencyCache {
+
+    private static final String KEY_PREFIX = "import:idempotency:";
+
+    /** Plain mapper; the application one carries Redis default typing. */
+    private static final ObjectMapper JSON = JsonMapper.builder().findAndAddModules().build();
+
+    private final ReactiveStringRedisTemplate redis;
+    private final RedisDistributedLock lock;
+    private final ImportProperties props;
+    private final MeterRegistry registry;
+
+    private final Map<String, Mono<Stored>> inFlight = new ConcurrentHashMap<>();
+
+    public ImportIdempotencyCache(ReactiveStringRedisTemplate redis,
+                                  RedisDistributedLock lock,
+                                  ImportProperties props,
+                                  MeterRegistry registry) {
+        this.redis = redis;
+        this.lock = lock;
+        this.props = props;
+        this.registry = registry;
+    }
+
+    /**
+     * Runs {@code submit} once per {@code (username, idempotencyKey)} and replays its response.
+     *
+     * @param username       submitting user; keys are scoped per user
+     * @param idempotencyKey client key, {@code null} or blank to run {@code submit} unconditionally
+     * @param request        submitted request, compared with the one that first used the key
+     * @param submit         the actual submission
+     * @return Mono with the original submission response
+     */
+    public Mono<VideoImportSubmissionResponse> execute(String username,
+                                                       String idempotencyKey,
+                                                       VideoImportRequest request,
+                                                       Supplier<Mono<VideoImportSubmissionResponse>> submit) {
+        if (!props.getIdempotency().isEnabled() || idempotencyKey == null || idempotencyKey.isBlank()) {
+            return submit.get();
+        }
+        String key = KEY_PREFIX + sha256(username + "\n" + idempotencyKey);
+        String fingerprint = fingerprint(request);
+        return Mono.defer(() -> {
+                    AtomicBoolean created = new AtomicBoolean();
+                    Mono<Stored> shared = inFlight.computeIfAbsent(key, k -> {
+                        created.set(true);
+                        return resolve(k, idempotencyKey, fingerprint, submit)
+                                .doFinally(sig -> inFlight.remove(k))
+                                .cache();
+                    });
+                    if (!created.get()) {
+                        count("joined");
+                    }
+                    return shared;
+                })
+                .flatMap(stored -> fingerprint.equals(stored.fingerprint())
+                        ? Mono.just(stored.response())
+                        : Mono.error(new IdempotencyKeyConflictException(idempotencyKey,
+                                "was already used for a different import request")));
+    }
+
+    /**
+     * Returns the stored response, or submits under the key's lease; waits while another node
+     * holds the lease.
+     */
+    private Mono<Stored> resolve(String key,
+                                 String idempotencyKey,
+                                 String fingerprint,
+                                 Supplier<Mono<VideoImportSubmissionResponse>> submit) {
+        ImportProperties.Idempotency cfg = props.getIdempotency();
+        String lease = key.substring("import:".length());
+        String token = UUID.randomUUID().toString();
+        Mono<Boolean> acquire = lock.tryAcquire(lease, token, cfg.getLease())
+                .onErrorResume(ex -> {
+                    log.warn("Idempotency lease unavailable for {}: {}", key, ex.toString());
+                    return Mono.just(true);
+                });
+
+        Mono<Stored> attempt = read(key)
+                .doOnNext(stored -> count("replayed"))
+                .switchIfEmpty(acquire.flatMap(acquired -> acquired
+                        ? submitLeased(key, lease, token, fingerprint, submit)
+                        : Mono.empty()));
+
+        // the peer lease expires after cfg.lease at the latest; past that one of the waiters takes over
+        long maxPolls = cfg.getLease().toMillis() / Math.max(1, cfg.getPollInterval().toMillis()) + 1;
+        return attempt
+                .repeatWhenEmpty(polls -> polls.take(maxPolls).delayElements(cfg.getPollInterval()))
+                .switchIfEmpty(Mono.error(() -> new IdempotencyKeyConflictException(idempotencyKey,
+                        "is still in use by a request in progress")));
+    }
+
+    private Mono<Stored> submitLeased(String key,
+                                      String lease,
+                                      String token,
+                                      String fingerprint,
+                                      Supplier<Mono<VideoImportSubmissionResponse>> submit) {
+        // the previous holder may have stored its response just before we got the lease
+        return read(key)
+                .doOnNext(stored -> count("replayed"))
+                .switchIfEmpty(Mono.defer(submit)
+                        .map(response -> new Stored(fingerprint, response))
+                        .flatMap(stored -> write(key, stored).thenReturn(stored))
+                        .doOnNext(stored -> count("executed")))
+                .doFinally(sig -> lock.release(lease, token)
+                        .onErrorResume(ex -> Mono.just(false))
+                        .subscribe());
+    }
+
+    private Mono<Stored> read(String key) {
+        return redis.opsForValue().get(key)
+                .flatMap(json -> Mono.fromCallable(() -> JSON.readValue(json, Stored.class)))
+                .onErrorResume(ex -> {
+                    log.warn("Could not read idempotent response {}: {}", key, ex.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> write(String key, Stored stored) {
+        return Mono.fromCallable(() -> JSON.writeValueAsString(stored))
+                .flatMap(json -> redis.opsForValue().set(key, json, props.getIdempotency().getTtl()))
+                .onErrorResume(ex -> {
+                    // the submission exists; only its replay is lost
+                    log.warn("Could not store idempotent response {}: {}", key, ex.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Order‑insensitive digest of what the request imports.
+     */
+    private static String fingerprint(VideoImportRequest request) {
+        return sha256(request.provider()
+                + "\n" + Objects.toString(request.externalPlaylistId(), "")
+                + "\n" + request.forced()
+                + "\n" + String.join(",", request.safeExternalIds().stream().sorted().toList()));
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder(ImportMetrics.COUNTER_IDEMPOTENCY)
+                .description("Import submissions carrying an Idempotency-Key, by outcome")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /** Stored response with the fingerprint of the request that produced it; package‑private for Jackson. */
+    record Stored(String fingerprint, VideoImportSubmissionResponse response) { }
+}
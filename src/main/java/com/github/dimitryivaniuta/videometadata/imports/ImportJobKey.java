@@ -1,4 +1,28 @@
 package com.github.dimitryivaniuta.videometadata.imports;
 
-public class ImportJobKey {
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+
+import java.util.Objects;
+
+/**
+ * Identity of one provider fetch: the (provider, externalId) pair that
+ * concurrent imports coalesce on.
+ *
+ * @param provider   video provider
+ * @param externalId provider-specific video id
+ */
+public record ImportJobKey(VideoProvider provider, String externalId) {
+
+    public ImportJobKey {
+        Objects.requireNonNull(provider, "provider must not be null");
+        Objects.requireNonNull(externalId, "externalId must not be null");
+    }
+
+    /**
+     * @return stable key fragment, e.g. {@code YOUTUBE:dQw4w9WgXcQ}
+     */
+    @Override
+    public String toString() {
+        return provider.name() + ":" + externalId;
+    }
 }
@@ -0,0 +1,296 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
+import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportSubmissionRepository;
+import com.github.dimitryivaniuta.videometadata.service.VideoImportProcessor;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable import worker backed by {@code video_import_submissions}.
+ *
+ * <p>Every node runs one worker. It polls (or is woken up on new submissions), reclaims expired
+ * leases, and claims up to {@code app.import.concurrency-limit} QUEUED rows with
+ * {@code FOR UPDATE SKIP LOCKED}. While a submission runs its lease is extended by heartbeats;
+ * if a node dies the lease expires and another node picks the row up. Terminal transitions
+ * (RUNNING → FINISHED/FAILED) are fenced by the lease owner, so a worker that lost its lease
+ * never overwrites someone else's result.</p>
+ *
+ * <p>Claimed submissions run on the {@link ImportDispatcher}, which bounds and tracks them.</p>
+ *
+ * <p>Large submissions are queued as chunks ({@code app.import.chunk-size} ids each) that are
+ * claimed like any submission, so several nodes work on one job. The parent moves to RUNNING with
+ * its first chunk and is completed by whichever worker finishes its last chunk; every poll also
+ * completes parents whose remaining chunks were failed by the lease sweep.</p>
+ *
+ * <p>Cancellation is cooperative: the row is moved to CANCELLED first, then the ids are broadcast
+ * on the Redis channel {@code import:cancel}. The node running a cancelled submission (or holding
+ * it in its dispatcher buffer) disposes it, flushes the partial statistics and publishes the
+ * terminal frame. If the broadcast is lost the next heartbeat matches no row and the job stops as
+ * on a lost lease.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportJobWorker implements DisposableBean {
+
+    private static final String CANCEL_CHANNEL = "import:cancel";
+
+    private final VideoImportSubmissionRepository submissionRepo;
+    private final VideoImportProcessor processor;
+    private final ImportProgressTracker progress;
+    private final ImportDispatcher dispatcher;
+    private final ImportProperties props;
+    private final ReactiveStringRedisTemplate redis;
+
+    /** Lease owner id of this node. */
+    private final String workerId = resolveWorkerId();
+
+    private final Sinks.Many<Long> wakeUps = Sinks.many().multicast().directBestEffort();
+
+    private Disposable loop;
+    private Disposable cancellations;
+
+    /**
+     * Starts the poll loop once the application is ready to serve.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ImportProperties.Worker cfg = props.getWorker();
+        if (!cfg.isEnabled()) {
+            log.info("Import worker disabled on this node");
+            return;
+        }
+        loop = Flux.merge(Flux.interval(Duration.ZERO, cfg.getPollInterval()), wakeUps.asFlux())
+                .onBackpressureDrop()
+                .concatMap(tick -> poll(), 1)
+                .subscribe();
+        cancellations = redis.listenToChannel(CANCEL_CHANNEL)
+                .concatMap(msg -> cancelLocal(Long.valueOf(msg.getMessage())))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+        log.info("Import worker {} started (slots={}, lease={})",
+                workerId, props.getConcurrencyLimit(), cfg.getLeaseDuration());
+    }
+
+    /**
+     * Triggers an immediate poll, e.g. right after a submission was queued.
+     */
+    public void wakeUp() {
+        wakeUps.tryEmitNext(0L);
+    }
+
+    /**
+     * Tells every node to stop the given submissions; call after they were moved to CANCELLED.
+     *
+     * @param ids internal ids of the cancelled rows
+     * @return Mono completing once the ids were published
+     */
+    public Mono<Void> broadcastCancel(Collection<Long> ids) {
+        return Flux.fromIterable(ids)
+                .concatMap(id -> redis.convertAndSend(CANCEL_CHANNEL, String.valueOf(id)))
+                .onErrorResume(ex -> {
+                    // running jobs still stop on their next heartbeat
+                    log.warn("Could not broadcast cancellation of {}: {}", ids, ex.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * @return number of submissions currently processed by this node
+     */
+    public int activeCount() {
+        return dispatcher.activeCount();
+    }
+
+    private Mono<Void> poll() {
+        ImportProperties.Worker cfg = props.getWorker();
+        return submissionRepo.reclaimExpired(cfg.getMaxAttempts())
+                .doOnNext(n -> {
+                    if (n > 0) {
+                        log.warn("Reclaimed {} import submission(s) with expired leases", n);
+                    }
+                })
+                .then(completeParents(null))
+                .then(Mono.defer(() -> {
+                    int free = dispatcher.freeSlots();
+                    if (free <= 0) {
+                        return Mono.empty();
+                    }
+                    return submissionRepo.claimQueued(workerId, cfg.getLeaseDuration(), free)
+                            .doOnNext(this::launch)
+                            .then();
+                }))
+                .onErrorResume(ex -> {
+                    log.error("Import worker poll failed: {}", ex.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private void launch(VideoImportSubmission s) {
+        ImportProperties.Worker cfg = props.getWorker();
+        log.info("Claimed import id={} attempt={} user={}", s.getSubmissionId(), s.getAttempts(), s.getUsername());
+
+        Mono<Void> job = (s.getParentFk() == null ? Mono.<Integer>empty() : submissionRepo.markParentRunning(s.getParentFk()))
+                .then(Mono.defer(() -> processor.processImport(s, toRequest(s))));
+
+        // completes only when the lease was lost; each failed heartbeat is tolerated
+        Mono<Void> leaseLost = Flux.interval(cfg.getHeartbeatInterval())
+                .concatMap(tick -> submissionRepo.heartbeat(s.getId(), workerId, cfg.getLeaseDuration())
+                        .onErrorResume(ex -> {
+                            log.warn("Heartbeat failed for import id={}: {}", s.getSubmissionId(), ex.toString());
+                            return Mono.just(1);
+                        }))
+                .takeUntil(rows -> rows == 0)
+                .then(Mono.error(new IllegalStateException("Lease lost for import " + s.getSubmissionId())));
+
+        boolean accepted = dispatcher.submit(s.getId(), Mono.firstWithSignal(job, leaseLost)
+                .then(Mono.defer(() -> finish(s, SubmissionStatus.FINISHED, null)))
+                .onErrorResume(ex -> {
+                    log.error("Import id={} failed: {}", s.getSubmissionId(), ex.toString());
+                    return finish(s, SubmissionStatus.FAILED, ex.toString());
+                })
+                .doOnNext(rows -> {
+                    if (rows == 0) {
+                        log.warn("Import id={} finished after its lease was taken over", s.getSubmissionId());
+                    }
+                })
+                .doOnError(ex -> log.error("Could not record result of import id={}: {}", s.getSubmissionId(), ex.toString()))
+                .doFinally(sig -> wakeUp())
+                .then());
+        if (!accepted) {
+            // lease stays with us until it expires; hand it back right away instead
+            submissionRepo.release(s.getId(), workerId).subscribe();
+        }
+    }
+
+    /**
+     * Flushes the outstanding progress, records the terminal status and, if the lease was still
+     * ours, publishes the final progress frame.
+     */
+    private Mono<Integer> finish(VideoImportSubmission s, SubmissionStatus status, String errorMessage) {
+        if (s.getParentFk() != null) {
+            // a chunk: its final flush already rolled up into the parent, which publishes the terminal frame
+            return progress.close(s.getId())
+                    .then(submissionRepo.complete(s.getId(), workerId, status, errorMessage))
+                    .flatMap(rows -> rows == 0
+                            ? Mono.just(rows)
+                            : completeParents(s.getParentFk()).thenReturn(rows));
+        }
+        return progress.close(s.getId())
+                .flatMap(counters -> submissionRepo.complete(s.getId(), workerId, status, errorMessage)
+                        .flatMap(rows -> rows == 0
+                                ? Mono.just(rows)
+                                : progress.publishTerminal(counters, status, errorMessage).thenReturn(rows)))
+                .switchIfEmpty(Mono.defer(() -> submissionRepo.complete(s.getId(), workerId, status, errorMessage)));
+    }
+
+    /**
+     * Stops a cancelled submission if it runs (or waits) on this node, writes its partial
+     * statistics and publishes its terminal frame, or the parent's for a chunk.
+     */
+    private Mono<Void> cancelLocal(Long id) {
+        if (!dispatcher.cancel(id)) {
+            return Mono.empty();
+        }
+        log.info("Cancelled import id={} on this node", id);
+        return progress.close(id)
+                .then(submissionRepo.findById(id))
+                .flatMap(s -> s.getParentFk() == null ? Mono.just(s) : submissionRepo.aggregateChunks(s.getParentFk()))
+                .flatMap(s -> progress.publishTerminal(ImportProgressSnapshot.from(s)))
+                .onErrorResume(ex -> {
+                    log.warn("Could not record cancellation of import id={}: {}", id, ex.toString());
+                    return Mono.empty();
+                })
+                .doFinally(sig -> wakeUp());
+    }
+
+    /**
+     * Completes chunked parents whose chunks are all terminal and publishes their terminal frames.
+     *
+     * @param parentId parent to check, or {@code null} for all
+     */
+    private Mono<Void> completeParents(Long parentId) {
+        return submissionRepo.completeChunked(parentId)
+                .doOnNext(p -> log.info("Chunked import id={} {} ({} chunks)",
+                        p.getSubmissionId(), p.getStatus(), p.getChunkCount()))
+                .concatMap(p -> progress.publishTerminal(ImportProgressSnapshot.from(p)))
+                .then();
+    }
+
+    /**
+     * Stops polling, hands the claimed submissions that have not started back to the queue at once,
+     * lets in-flight ones finish within {@code worker.drainTimeout} and hands the rest back as well,
+     * so another node resumes them.
+     */
+    @Override
+    public void destroy() {
+        if (loop != null) {
+            loop.dispose();
+        }
+        if (cancellations != null) {
+            cancellations.dispose();
+        }
+        List<Long> notStarted = dispatcher.stop();
+        if (!notStarted.isEmpty()) {
+            try {
+                Integer released = Flux.fromIterable(notStarted)
+                        .concatMap(id -> submissionRepo.release(id, workerId))
+                        .reduce(0, Integer::sum)
+                        .block(Duration.ofSeconds(5));
+                log.info("Import worker {} released {} import(s) it had not started", workerId, released);
+            } catch (RuntimeException ex) {
+                log.warn("Could not release waiting imports of {}: {}", workerId, ex.toString());
+            }
+        }
+        dispatcher.shutdown(props.getWorker().getDrainTimeout());
+        try {
+            Integer released = submissionRepo.releaseAll(workerId).block(Duration.ofSeconds(5));
+            log.info("Import worker {} stopped, released {} lease(s)", workerId, released);
+        } catch (RuntimeException ex) {
+            log.warn("Could not release import leases of {}: {}", workerId, ex.toString());
+        }
+    }
+
+    private static VideoImportRequest toRequest(VideoImportSubmission s) {
+        return VideoImportRequest.builder()
+                .provider(s.getProvider())
+                .externalPlaylistId(s.getExternalPlaylistId())
+                .playlistMeta(s.getExternalPlaylistMeta())
+                .externalIds(new LinkedHashSet<>(s.getExternalIds()))
+                .force(s.isForced())
+                .build();
+    }
+
+    private static String resolveWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception ex) {
+            host = "unknown";
+        }
+        return host + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -12,5 +12,27 @@ public final class ImportMetrics {
     public static final String COUNTER_SKIPPED_DUP = "import.videos.skipped.duplicate";
     public static final String DIST_BATCH_SIZE = "import.batch.size";
     public static final String GAUGE_ACTIVE_JOBS = "import.jobs.active";
+    public static final String GAUGE_QUEUED_JOBS = "import.jobs.queued";
     public static final String COUNTER_LOCK_FAIL = "import.jobs.lock.fail";
+    public static final String GAUGE_SCHEDULER_QUEUED = "import.scheduler.queued";
+    public static final String GAUGE_SCHEDULER_ACTIVE = "import.scheduler.active";
+    public static final String GAUGE_SCHEDULER_LIMIT = "import.scheduler.limit";
+    public static final String TIMER_SCHEDULER_WAIT = "import.scheduler.wait";
+    public static final String COUNTER_SCHEDULER_REJECTED = "import.scheduler.rejected";
+    public static final String COUNTER_FETCH_COALESCED = "import.fetch.coalesced";
+    public static final String COUNTER_FETCH_PEER_WAIT = "import.fetch.peer.wait";
+    public static final String COUNTER_REFRESH_VIDEOS = "import.refresh.videos";
+    public static final String GAUGE_REFRESH_BACKLOG = "import.refresh.backlog";
+    public static final String GAUGE_REFRESH_LAG = "import.refresh.lag.seconds";
+    public static final String TIMER_REFRESH_SWEEP = "import.refresh.sweep";
+    public static final String COUNTER_RETRY_QUEUED = "import.retry.queued";
+    public static final String COUNTER_RETRY_OUTCOME = "import.retry.outcome";
+    public static final String COUNTER_IDEMPOTENCY = "import.submissions.idempotency";
+    public static final String COUNTER_PROVIDER_RETRIES = "import.provider.retries";
+    public static final String GAUGE_PROVIDER_RETRY_BUDGET = "import.provider.retry.budget";
+    public static final String GAUGE_PROVIDER_QUOTA_REMAINING = "import.provider.quota.remaining";
+    public static final String COUNTER_PROVIDER_QUOTA_UNITS = "import.provider.quota.units";
+    public static final String TIMER_PROVIDER_LATENCY = "import.provider.latency";
+    public static final String COUNTER_PROVIDER_HEDGE_REQUESTS = "import.provider.hedge.requests";
+    public static final String COUNTER_PROVIDER_HEDGES = "import.provider.hedges";
 }
@@ -0,0 +1,270 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
+import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportSubmissionRepository;
+import com.github.dimitryivaniuta.videometadata.event.VideoImportCancelledEvent;
+import com.github.dimitryivaniuta.videometadata.event.VideoImportCompletedEvent;
+import com.github.dimitryivaniuta.videometadata.event.VideoImportFailedEvent;
+import com.github.dimitryivaniuta.videometadata.event.VideoImportProgressEvent;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live progress of the imports running on this node.
+ *
+ * <p>The processor bumps in‑memory atomic counters per submission; the deltas are written to
+ * {@code video_import_submissions} in one additive UPDATE every {@code app.import.progress.flush-interval}
+ * or as soon as {@code flush-every} items were counted, whichever comes first. Each flush publishes an
+ * {@link ImportProgressSnapshot} as {@link VideoImportProgressEvent} and on the Redis channel
+ * {@code import:progress:<submissionId>}, so SSE clients connected to any node receive it.</p>
+ *
+ * <p>Chunks of a large submission write their own counters and then recompute the parent's as the
+ * sum of all chunks; the published frame is the parent's, on the parent's channel.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportProgressTracker implements DisposableBean {
+
+    private static final String CHANNEL_PREFIX = "import:progress:";
+
+    /** Plain mapper; the application one carries Redis default typing. */
+    private static final ObjectMapper JSON = JsonMapper.builder().findAndAddModules().build();
+
+    private final VideoImportSubmissionRepository submissionRepo;
+    private final ReactiveStringRedisTemplate redis;
+    private final ApplicationEventPublisher publisher;
+    private final ImportProperties props;
+
+    /** Counters of submissions running on this node, keyed by internal id. */
+    private final Map<Long, Counters> active = new ConcurrentHashMap<>();
+
+    private Disposable flusher;
+
+    /**
+     * Starts the periodic flush once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        flusher = Flux.interval(props.getProgress().getFlushInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(active.values())
+                        .concatMap(c -> flush(c, false))
+                        .then(), 1)
+                .subscribe();
+    }
+
+    /**
+     * Registers a submission that starts processing on this node.
+     *
+     * @param submission claimed submission row
+     * @return counters to report progress to
+     */
+    public Counters open(VideoImportSubmission submission) {
+        Counters c = new Counters(submission.getId(), submission.getSubmissionId(), submission.getParentFk());
+        active.put(submission.getId(), c);
+        return c;
+    }
+
+    /**
+     * Writes the outstanding deltas of a submission and stops tracking it.
+     * Call before the submission is moved to its terminal status.
+     *
+     * @param id internal submission id
+     * @return Mono with the final counters, empty if the submission was not tracked here
+     */
+    public Mono<Counters> close(Long id) {
+        Counters c = active.remove(id);
+        if (c == null) {
+            return Mono.empty();
+        }
+        return flush(c, true).thenReturn(c);
+    }
+
+    /**
+     * Publishes the terminal frame of a submission and fires the completed / failed / cancelled event.
+     *
+     * @param counters     final counters as returned by {@link #close(Long)}
+     * @param status       terminal status
+     * @param errorMessage failure reason, {@code null} on success
+     * @return Mono completing once the frame was sent
+     */
+    public Mono<Void> publishTerminal(Counters counters, SubmissionStatus status, String errorMessage) {
+        return publishTerminal(counters.snapshot(status, errorMessage));
+    }
+
+    /**
+     * Publishes a terminal frame, e.g. of a chunked parent completed from its chunks' rows, and fires
+     * the event matching its status.
+     *
+     * @param snapshot terminal snapshot
+     * @return Mono completing once the frame was sent
+     */
+    public Mono<Void> publishTerminal(ImportProgressSnapshot snapshot) {
+        switch (snapshot.status()) {
+            case FAILED -> publisher.publishEvent(new VideoImportFailedEvent(this, snapshot, snapshot.errorMessage()));
+            case CANCELLED -> publisher.publishEvent(new VideoImportCancelledEvent(this, snapshot, snapshot.errorMessage()));
+            default -> publisher.publishEvent(new VideoImportCompletedEvent(this, snapshot));
+        }
+        return send(snapshot);
+    }
+
+    /**
+     * Subscribes to the progress frames of a submission published by any node.
+     *
+     * @param submissionId public submission id
+     * @return hot Flux of snapshots; never completes on its own
+     */
+    public Flux<ImportProgressSnapshot> listen(String submissionId) {
+        return redis.listenToChannel(CHANNEL_PREFIX + submissionId)
+                .handle((msg, sink) -> {
+                    try {
+                        sink.next(JSON.readValue(msg.getMessage(), ImportProgressSnapshot.class));
+                    } catch (JsonProcessingException ex) {
+                        log.warn("Dropping malformed progress frame for {}: {}", submissionId, ex.getMessage());
+                    }
+                });
+    }
+
+    private Mono<Void> flush(Counters c, boolean force) {
+        // forced (final) flushes may overlap a periodic one: deltas are additive, nothing is lost
+        if (!c.flushing.compareAndSet(false, true) && !force) {
+            return Mono.empty();
+        }
+        int requested = c.requested.delta.getAndSet(0);
+        int accepted  = c.accepted.delta.getAndSet(0);
+        int succeeded = c.succeeded.delta.getAndSet(0);
+        int skipped   = c.skipped.delta.getAndSet(0);
+        int failed    = c.failed.delta.getAndSet(0);
+        c.pending.set(0);
+        if (requested + accepted + succeeded + skipped + failed == 0) {
+            c.flushing.set(false);
+            return Mono.empty();
+        }
+        Mono<ImportProgressSnapshot> written = c.parentId == null
+                ? Mono.fromSupplier(() -> c.snapshot(SubmissionStatus.RUNNING, null))
+                : submissionRepo.aggregateChunks(c.parentId).map(ImportProgressSnapshot::from);
+        return submissionRepo.addStatistics(c.id, requested, accepted, succeeded, skipped, failed)
+                .then(written)
+                .flatMap(snapshot -> {
+                    publisher.publishEvent(new VideoImportProgressEvent(this, snapshot));
+                    return send(snapshot);
+                })
+                .onErrorResume(ex -> {
+                    // put the deltas back, the next flush retries them
+                    c.requested.delta.addAndGet(requested);
+                    c.accepted.delta.addAndGet(accepted);
+                    c.succeeded.delta.addAndGet(succeeded);
+                    c.skipped.delta.addAndGet(skipped);
+                    c.failed.delta.addAndGet(failed);
+                    log.warn("Progress flush failed for import id={}: {}", c.submissionId, ex.toString());
+                    return Mono.empty();
+                })
+                .doFinally(sig -> c.flushing.set(false));
+    }
+
+    private Mono<Void> send(ImportProgressSnapshot snapshot) {
+        return Mono.fromCallable(() -> JSON.writeValueAsString(snapshot))
+                .flatMap(json -> redis.convertAndSend(CHANNEL_PREFIX + snapshot.submissionId(), json))
+                .onErrorResume(ex -> {
+                    log.warn("Could not publish progress of {}: {}", snapshot.submissionId(), ex.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        active.clear();
+    }
+
+    /**
+     * Per‑submission counters reported by the processor.
+     */
+    public final class Counters {
+
+        private final Long   id;
+        private final String submissionId;
+        private final Long   parentId;
+
+        private final Counter requested = new Counter();
+        private final Counter accepted  = new Counter();
+        private final Counter succeeded = new Counter();
+        private final Counter skipped   = new Counter();
+        private final Counter failed    = new Counter();
+
+        /** Items counted since the last flush. */
+        private final AtomicInteger pending  = new AtomicInteger();
+        private final AtomicBoolean flushing = new AtomicBoolean();
+
+        private Counters(Long id, String submissionId, Long parentId) {
+            this.id = id;
+            this.submissionId = submissionId;
+            this.parentId = parentId;
+        }
+
+        public void requested(int n) { add(requested, n); }
+
+        public void accepted(int n)  { add(accepted, n); }
+
+        public void succeeded(int n) { add(succeeded, n); }
+
+        public void skipped(int n)   { add(skipped, n); }
+
+        public void failed(int n)    { add(failed, n); }
+
+        private void add(Counter counter, int n) {
+            if (n <= 0) {
+                return;
+            }
+            counter.delta.addAndGet(n);
+            counter.total.addAndGet(n);
+            if (pending.addAndGet(n) >= props.getProgress().getFlushEvery()) {
+                flush(this, false).subscribe();
+            }
+        }
+
+        private ImportProgressSnapshot snapshot(SubmissionStatus status, String errorMessage) {
+            return new ImportProgressSnapshot(
+                    submissionId,
+                    status,
+                    requested.total.get(),
+                    accepted.total.get(),
+                    skipped.total.get(),
+                    succeeded.total.get(),
+                    failed.total.get(),
+                    errorMessage);
+        }
+    }
+
+    /**
+     * Delta not yet written plus the running total used for published snapshots.
+     */
+    private static final class Counter {
+        private final AtomicInteger delta = new AtomicInteger();
+        private final AtomicInteger total = new AtomicInteger();
+    }
+}
@@ -0,0 +1,302 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.entity.User;
+import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportRetry;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportRetryRepository;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportSubmissionRepository;
+import com.github.dimitryivaniuta.videometadata.exception.ProviderQuotaExhaustedException;
+import com.github.dimitryivaniuta.videometadata.resilience.ProviderResilience;
+import com.github.dimitryivaniuta.videometadata.service.ExternalVideoClient;
+import com.github.dimitryivaniuta.videometadata.service.UserService;
+import com.github.dimitryivaniuta.videometadata.service.VideoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Persisted retry queue for external ids that failed during an import, and its drainer.
+ *
+ * <p>The processor {@link #enqueue}s an id whose provider fetch or insert failed instead of
+ * failing the whole submission. Every {@code app.import.retry-queue.poll-interval} each node
+ * claims a batch of due rows ({@code FOR UPDATE SKIP LOCKED}), fetches them through the
+ * {@link SingleFlightFetcher} and the {@link FairShareScheduler} and inserts the results with one
+ * multi‑row INSERT. Imported ids are removed and move from {@code failed} to {@code succeeded} in
+ * their submission's statistics. Ids that fail again are rescheduled with exponential backoff and
+ * equal jitter, and given up (kept with {@code next_attempt_at = NULL}) after {@code max-attempts};
+ * an id the provider reports as not found (deleted or private) is given up at once.</p>
+ *
+ * <p>Ids that failed because the provider's daily quota is spent on all keys
+ * ({@link ProviderQuotaExhaustedException}) are deferred instead: they become due shortly after the
+ * quota resets and the deferral does not count as an attempt. Ids whose call was rejected locally
+ * (full scheduler backlog or bulkhead, rate limiter timeout, open circuit) never reached the provider
+ * and are deferred by the first backoff step, also without counting an attempt.</p>
+ */
+@Slf4j
+@Component
+public class ImportRetryQueue implements DisposableBean {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /** Spread of deferred retries after a quota reset, so they do not all drain at midnight. */
+    private static final Duration QUOTA_RESET_JITTER = Duration.ofMinutes(5);
+
+    private final VideoImportRetryRepository retryRepo;
+    private final VideoImportSubmissionRepository submissionRepo;
+    private final Map<VideoProvider, ExternalVideoClient> clients;
+    private final SingleFlightFetcher singleFlight;
+    private final FairShareScheduler scheduler;
+    private final VideoService videoService;
+    private final UserService userService;
+    private final ImportProperties props;
+    private final MeterRegistry registry;
+    private final Counter queued;
+
+    private Disposable loop;
+
+    public ImportRetryQueue(VideoImportRetryRepository retryRepo,
+                            VideoImportSubmissionRepository submissionRepo,
+                            Map<VideoProvider, ExternalVideoClient> clients,
+                            SingleFlightFetcher singleFlight,
+                            FairShareScheduler scheduler,
+                            VideoService videoService,
+                            UserService userService,
+                            ImportProperties props,
+                            MeterRegistry registry) {
+        this.retryRepo = retryRepo;
+        this.submissionRepo = submissionRepo;
+        this.clients = clients;
+        this.singleFlight = singleFlight;
+        this.scheduler = scheduler;
+        this.videoService = videoService;
+        this.userService = userService;
+        this.props = props;
+        this.registry = registry;
+        this.queued = Counter.builder(ImportMetrics.COUNTER_RETRY_QUEUED)
+                .description("Import ids queued for a background retry")
+                .register(registry);
+    }
+
+    /**
+     * Starts the drain loop once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ImportProperties.RetryQueue cfg = props.getRetryQueue();
+        if (!cfg.isEnabled()) {
+            log.info("Import retry drainer disabled on this node");
+            return;
+        }
+        loop = Flux.interval(cfg.getPollInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> drain(), 1)
+                .subscribe();
+    }
+
+    /**
+     * Queues an id of {@code submission} whose fetch or insert failed; ids failed for spent quota
+     * are due after the quota reset. Never errors: if the row cannot be written the id is only logged.
+     *
+     * @param submission submission the id belongs to
+     * @param provider   provider of the id
+     * @param externalId provider‑specific video id
+     * @param error      cause of the failure
+     * @return Mono completing once the row was written
+     */
+    public Mono<Void> enqueue(VideoImportSubmission submission,
+                              VideoProvider provider,
+                              String externalId,
+                              Throwable error) {
+        Duration deferral = untilQuotaReset(error);
+        return retryRepo.enqueue(submission.getId(), submission.getUsername(), provider, externalId,
+                        (deferral != null ? deferral : backoff(1)).toMillis(), describe(error))
+                .doOnSuccess(n -> queued.increment())
+                .onErrorResume(ex -> {
+                    log.error("Could not queue retry of {}:{} for import {}: {}",
+                            provider, externalId, submission.getSubmissionId(), ex.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Claims one batch of due retries and processes it.
+     *
+     * @return Mono completing when the batch is done
+     */
+    public Mono<Void> drain() {
+        ImportProperties.RetryQueue cfg = props.getRetryQueue();
+        return retryRepo.claimDue(cfg.getLease(), cfg.getBatchSize())
+                .flatMap(row -> attempt(row)
+                                .map(video -> new Attempt(row, video, null))
+                                .defaultIfEmpty(new Attempt(row, null, null))
+                                .onErrorResume(ex -> Mono.just(new Attempt(row, null, ex))),
+                        Math.max(1, cfg.getMaxConcurrent()))
+                .collectList()
+                .filter(attempts -> !attempts.isEmpty())
+                .flatMap(this::persist)
+                .onErrorResume(ex -> {
+                    log.error("Import retry drain failed: {}", ex.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Fetches one queued id; empty if it has been stored in the meantime.
+     */
+    private Mono<Video> attempt(VideoImportRetry row) {
+        ExternalVideoClient client = clients.get(row.getProvider());
+        if (client == null) {
+            return Mono.error(new IllegalStateException("No ExternalVideoClient for " + row.getProvider()));
+        }
+        return videoService.existsByProviderAndExternalIdMono(row.getProvider(), row.getExternalVideoId())
+                .flatMap(stored -> stored
+                        ? Mono.<Video>empty()
+                        : singleFlight.fetch(new ImportJobKey(row.getProvider(), row.getExternalVideoId()),
+                                        () -> scheduler.schedule(row.getUsername(), row.getProvider(),
+                                                () -> client.fetchVideoMetadata(row.getExternalVideoId())))
+                                // the instance may be shared with a running import
+                                .map(video -> video.toBuilder().build()));
+    }
+
+    private Mono<Void> persist(List<Attempt> attempts) {
+        List<Attempt> fetched = attempts.stream().filter(a -> a.video() != null).toList();
+
+        Mono<Boolean> inserted = fetched.isEmpty()
+                ? Mono.just(true)
+                : Flux.fromIterable(fetched)
+                        .concatMap(a -> userService.getByUsername(a.row().getUsername())
+                                .map(User::getId)
+                                .doOnNext(owner -> a.video().setCreatedByUserId(owner))
+                                .thenReturn(a.video()))
+                        .collectList()
+                        .flatMap(videoService::insertIgnoringDuplicates)
+                        .thenReturn(true)
+                        .onErrorResume(ex -> {
+                            log.warn("Insert of {} retried video(s) failed: {}", fetched.size(), ex.toString());
+                            return Mono.just(false);
+                        });
+
+        return inserted.flatMap(ok -> {
+            // fetch errors, and all fetched videos if their insert failed, are retried
+            Map<Boolean, List<Attempt>> split = attempts.stream()
+                    .collect(Collectors.partitioningBy(a -> a.error() == null && (ok || a.video() == null)));
+            return succeed(split.get(true)).then(reschedule(split.get(false)));
+        });
+    }
+
+    private Mono<Void> succeed(List<Attempt> done) {
+        if (done.isEmpty()) {
+            return Mono.empty();
+        }
+        count("succeeded", done.size());
+        Long[] ids = done.stream().map(a -> a.row().getId()).toArray(Long[]::new);
+        Map<Long, Long> perSubmission = done.stream()
+                .collect(Collectors.groupingBy(a -> a.row().getSubmissionFk(), Collectors.counting()));
+        return retryRepo.deleteByIds(ids)
+                .thenMany(Flux.fromIterable(perSubmission.entrySet()))
+                .concatMap(e -> submissionRepo.addStatistics(e.getKey(), 0, 0,
+                                e.getValue().intValue(), 0, -e.getValue().intValue())
+                        // chunks roll the change up into their parent
+                        .then(submissionRepo.findById(e.getKey()))
+                        .filter(s -> s.getParentFk() != null)
+                        .flatMap(s -> submissionRepo.aggregateChunks(s.getParentFk())))
+                .then();
+    }
+
+    private Mono<Void> reschedule(List<Attempt> failed) {
+        int maxAttempts = props.getRetryQueue().getMaxAttempts();
+        return Flux.fromIterable(failed)
+                .concatMap(a -> {
+                    VideoImportRetry row = a.row();
+                    Duration deferral = untilQuotaReset(a.error());
+                    if (deferral == null && ProviderResilience.isRejectedLocally(a.error())) {
+                        deferral = backoff(1);
+                    }
+                    if (deferral != null) {
+                        count("deferred", 1);
+                        return retryRepo.defer(row.getId(), deferral.toMillis(), describe(a.error()));
+                    }
+                    int attempts = row.getAttempts() + 1;
+                    boolean notFound = ExternalVideoClient.isNotFound(a.error());
+                    boolean givenUp = notFound || attempts >= maxAttempts;
+                    count(givenUp ? "given_up" : "rescheduled", 1);
+                    if (notFound) {
+                        log.warn("Giving up import of {}:{}: not found at the provider",
+                                row.getProvider(), row.getExternalVideoId());
+                    } else if (givenUp) {
+                        log.warn("Giving up import of {}:{} after {} attempts: {}",
+                                row.getProvider(), row.getExternalVideoId(), attempts, describe(a.error()));
+                    }
+                    return retryRepo.reschedule(row.getId(),
+                            givenUp ? null : backoff(attempts).toMillis(),
+                            describe(a.error()));
+                })
+                .then();
+    }
+
+    /**
+     * Backoff after {@code attempts} failed attempts: {@code initialBackoff * 2^(attempts-1)},
+     * capped at {@code maxBackoff}, of which the upper half is randomized.
+     */
+    private Duration backoff(int attempts) {
+        ImportProperties.RetryQueue cfg = props.getRetryQueue();
+        long base = cfg.getInitialBackoff().toMillis() << Math.min(Math.max(attempts - 1, 0), 30);
+        long capped = Math.max(1, Math.min(base, cfg.getMaxBackoff().toMillis()));
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    /**
+     * Delay until shortly after the quota reset if {@code error} was caused by a spent quota, else null.
+     */
+    private static Duration untilQuotaReset(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ProviderQuotaExhaustedException ex) {
+                Duration wait = Duration.between(Instant.now(), ex.getResetAt());
+                return (wait.isNegative() ? Duration.ZERO : wait)
+                        .plusMillis(ThreadLocalRandom.current().nextLong(QUOTA_RESET_JITTER.toMillis() + 1));
+            }
+        }
+        return null;
+    }
+
+    private static String describe(Throwable error) {
+        String text = error == null ? "Insert failed" : error.toString();
+        return text.length() > MAX_ERROR_LENGTH ? text.substring(0, MAX_ERROR_LENGTH) : text;
+    }
+
+    private void count(String outcome, long n) {
+        Counter.builder(ImportMetrics.COUNTER_RETRY_OUTCOME)
+                .description("Drained import retries, by outcome")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(n);
+    }
+
+    @Override
+    public void destroy() {
+        if (loop != null) {
+            loop.dispose();
+        }
+    }
+
+    /** Result of one retried fetch: the video, nothing (already stored) or the error. */
+    private record Attempt(VideoImportRetry row, Video video, Throwable error) { }
+}
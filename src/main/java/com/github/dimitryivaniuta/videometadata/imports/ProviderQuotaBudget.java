@@ -0,0 +1,71 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Hourly provider‑call budget of the stale‑metadata refresh, shared by all nodes.
+ *
+ * <p>Usage is counted in {@code import:refresh:quota:<PROVIDER>:<epochHour>}, which expires
+ * after two hours. {@link #reserve} grants as many of the requested calls as the
+ * {@code app.import.refresh.hourly-budget} of the provider still allows, in one Lua call.
+ * If Redis is unavailable nothing is granted: the refresh waits rather than overspending.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProviderQuotaBudget {
+
+    private static final String KEY_PREFIX = "import:refresh:quota:";
+
+    private static final RedisScript<Long> RESERVE = RedisScript.of("""
+            local used  = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local grant = math.min(tonumber(ARGV[1]), tonumber(ARGV[2]) - used)
+            if grant <= 0 then
+                return 0
+            end
+            redis.call('INCRBY', KEYS[1], grant)
+            if redis.call('PTTL', KEYS[1]) < 0 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            end
+            return grant
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    private final ImportProperties props;
+
+    /**
+     * Reserves up to {@code calls} provider calls from the current hour's budget.
+     *
+     * @param provider provider the calls go to
+     * @param calls    calls wanted
+     * @return Mono with the number of calls granted, {@code 0} if the budget is spent
+     */
+    public Mono<Integer> reserve(VideoProvider provider, int calls) {
+        int budget = props.getRefresh().getHourlyBudget().getOrDefault(provider, 0);
+        if (calls <= 0 || budget <= 0) {
+            return Mono.just(0);
+        }
+        String key = KEY_PREFIX + provider.name() + ":" + Instant.now().getEpochSecond() / 3600;
+        return redis.execute(RESERVE, List.of(key),
+                        List.of(String.valueOf(calls), String.valueOf(budget),
+                                String.valueOf(Duration.ofHours(2).toMillis())))
+                .next()
+                .map(Long::intValue)
+                .defaultIfEmpty(0)
+                .onErrorResume(ex -> {
+                    log.warn("Refresh quota of {} unavailable: {}", provider, ex.toString());
+                    return Mono.just(0);
+                });
+    }
+}
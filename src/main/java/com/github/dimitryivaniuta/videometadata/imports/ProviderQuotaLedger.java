@@ -0,0 +1,296 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ProvidersProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.exception.ProviderQuotaExhaustedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Daily API quota ledger of the provider keys, shared by all nodes.
+ *
+ * <p>Units spent are counted per key and quota day in
+ * {@code quota:ledger:<PROVIDER>:<keyId>:<yyyy-MM-dd>}, where {@code keyId} is a short digest of the
+ * key (the key itself never reaches Redis or the metrics) and the day is taken in the provider's
+ * quota zone; entries expire after two days. {@link #acquire} charges a call to the first key of
+ * the pool, in round‑robin order, that can still afford it, in one Lua call. A key the provider
+ * reports as spent anyway (e.g. shared with another application, or after an unaccounted call) is
+ * {@link #markExhausted}; {@link #withKey} then repeats the call once with the next key. When no
+ * key is left the call fails with {@link ProviderQuotaExhaustedException}, which imports turn into
+ * a retry deferred to the next quota day.</p>
+ *
+ * <p>If Redis is unavailable the next key is used without accounting: the provider remains the
+ * authority on its quota. Remaining units per key are exported as gauges, re-read every
+ * {@value #GAUGE_REFRESH_SECONDS}s so they include other nodes' usage.</p>
+ */
+@Slf4j
+@Component
+public class ProviderQuotaLedger implements DisposableBean {
+
+    private static final String KEY_PREFIX = "quota:ledger:";
+
+    private static final long GAUGE_REFRESH_SECONDS = 30;
+
+    private static final Duration ENTRY_TTL = Duration.ofDays(2);
+
+    /** Charges ARGV[1] units to the first of KEYS below ARGV[2]; its index (0‑based) or -1. */
+    private static final RedisScript<Long> ACQUIRE = RedisScript.of("""
+            local units = tonumber(ARGV[1])
+            local limit = tonumber(ARGV[2])
+            for i, key in ipairs(KEYS) do
+                local used = tonumber(redis.call('GET', key) or '0')
+                if used + units <= limit then
+                    redis.call('INCRBY', key, units)
+                    if redis.call('PTTL', key) < 0 then
+                        redis.call('PEXPIRE', key, ARGV[3])
+                    end
+                    return i - 1
+                end
+            end
+            return -1
+            """, Long.class);
+
+    /** Raises the usage of KEYS[1] to the limit ARGV[1]. */
+    private static final RedisScript<Long> EXHAUST = RedisScript.of("""
+            local used = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if used < tonumber(ARGV[1]) then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    private final MeterRegistry registry;
+    private final Map<VideoProvider, Pool> pools = new EnumMap<>(VideoProvider.class);
+
+    private Disposable gaugeRefresh;
+
+    public ProviderQuotaLedger(ReactiveStringRedisTemplate redis,
+                               ProvidersProperties providers,
+                               MeterRegistry registry) {
+        this.redis = redis;
+        this.registry = registry;
+        ProvidersProperties.YouTube youtube = providers.getYoutube();
+        List<String> keys = youtube.apiKeyPool();
+        if (!keys.isEmpty()) {
+            pools.put(VideoProvider.YOUTUBE,
+                    new Pool(VideoProvider.YOUTUBE, keys, youtube.getDailyQuota(), youtube.getQuotaZone()));
+        }
+    }
+
+    /**
+     * Starts the periodic refresh of the remaining-quota gauges once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (pools.isEmpty()) {
+            return;
+        }
+        gaugeRefresh = Flux.interval(Duration.ZERO, Duration.ofSeconds(GAUGE_REFRESH_SECONDS))
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(pools.values()).concatMap(this::refreshGauges), 1)
+                .subscribe();
+    }
+
+    /**
+     * Charges {@code units} to a key of {@code provider} that can still afford them.
+     *
+     * @param provider provider called
+     * @param units    quota cost of the call
+     * @return Mono with the API key to call with; {@link ProviderQuotaExhaustedException} if none is left
+     */
+    public Mono<String> acquire(VideoProvider provider, int units) {
+        Pool pool = pools.get(provider);
+        if (pool == null) {
+            return Mono.error(new IllegalStateException("No API key configured for " + provider));
+        }
+        return Mono.defer(() -> {
+            int start = Math.floorMod(pool.next.getAndIncrement(), pool.size());
+            List<String> order = new ArrayList<>(pool.size());
+            LocalDate day = pool.day();
+            for (int i = 0; i < pool.size(); i++) {
+                order.add(pool.ledgerKey((start + i) % pool.size(), day));
+            }
+            return redis.execute(ACQUIRE, order,
+                            List.of(String.valueOf(units), String.valueOf(pool.dailyQuota),
+                                    String.valueOf(ENTRY_TTL.toMillis())))
+                    .next()
+                    .map(Long::intValue)
+                    .onErrorResume(ex -> {
+                        log.warn("Quota ledger of {} unavailable, calling unaccounted: {}", provider, ex.toString());
+                        return Mono.just(0);
+                    })
+                    .flatMap(offset -> {
+                        if (offset < 0) {
+                            return Mono.error(new ProviderQuotaExhaustedException(provider, pool.resetAt()));
+                        }
+                        int index = (start + offset) % pool.size();
+                        pool.remaining[index].updateAndGet(r -> Math.max(0, r - units));
+                        pool.spent[index].increment(units);
+                        return Mono.just(pool.apiKeys.get(index));
+                    });
+        });
+    }
+
+    /**
+     * Runs {@code call} with a key charged {@code units}. If the provider rejects the key for spent
+     * quota, the key is {@link #markExhausted marked} and the call is made once more with a fresh key;
+     * a second rejection fails like an exhausted pool.
+     *
+     * @param provider provider called
+     * @param units    quota cost of the call
+     * @param call     provider call with the API key to use
+     * @return Mono with the result of the call; {@link ProviderQuotaExhaustedException} if no key has quota left
+     */
+    public <T> Mono<T> withKey(VideoProvider provider, int units, Function<String, Mono<T>> call) {
+        return withKey(provider, units, call, true);
+    }
+
+    private <T> Mono<T> withKey(VideoProvider provider, int units, Function<String, Mono<T>> call, boolean again) {
+        return acquire(provider, units)
+                .flatMap(apiKey -> call.apply(apiKey)
+                        .onErrorResume(ProviderRetryPolicy::isQuotaExceeded, ex -> markExhausted(provider, apiKey)
+                                .then(again
+                                        ? withKey(provider, units, call, false)
+                                        : Mono.error(new ProviderQuotaExhaustedException(
+                                                provider, pools.get(provider).resetAt(), ex)))));
+    }
+
+    /**
+     * Records that the provider rejected {@code apiKey} for spent quota, so it is skipped until the next quota day.
+     *
+     * @return Mono completing when recorded; never errors
+     */
+    public Mono<Void> markExhausted(VideoProvider provider, String apiKey) {
+        Pool pool = pools.get(provider);
+        int index = pool == null ? -1 : pool.apiKeys.indexOf(apiKey);
+        if (index < 0) {
+            return Mono.empty();
+        }
+        log.warn("{} key {} reported its daily quota as exhausted", provider, pool.keyIds.get(index));
+        pool.remaining[index].set(0);
+        return redis.execute(EXHAUST, List.of(pool.ledgerKey(index, pool.day())),
+                        List.of(String.valueOf(pool.dailyQuota), String.valueOf(ENTRY_TTL.toMillis())))
+                .then()
+                .onErrorResume(ex -> {
+                    log.warn("Could not record exhausted quota of {}: {}", provider, ex.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> refreshGauges(Pool pool) {
+        LocalDate day = pool.day();
+        List<String> keys = new ArrayList<>(pool.size());
+        for (int i = 0; i < pool.size(); i++) {
+            keys.add(pool.ledgerKey(i, day));
+        }
+        return redis.opsForValue().multiGet(keys)
+                .doOnNext(values -> {
+                    for (int i = 0; i < pool.size(); i++) {
+                        String used = values.get(i);
+                        pool.remaining[i].set(Math.max(0, pool.dailyQuota - (used == null ? 0 : Long.parseLong(used))));
+                    }
+                })
+                .onErrorResume(ex -> {
+                    log.debug("Could not read quota ledger of {}: {}", pool.provider, ex.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        if (gaugeRefresh != null) {
+            gaugeRefresh.dispose();
+        }
+    }
+
+    private static String keyId(String apiKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(apiKey.getBytes(StandardCharsets.UTF_8))).substring(0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /**
+     * Key pool of one provider with its rotation cursor and per-key meters.
+     */
+    private final class Pool {
+        private final VideoProvider provider;
+        private final List<String> apiKeys;
+        private final List<String> keyIds;
+        private final long dailyQuota;
+        private final ZoneId zone;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicLong[] remaining;
+        private final Counter[] spent;
+
+        private Pool(VideoProvider provider, List<String> apiKeys, long dailyQuota, ZoneId zone) {
+            this.provider = provider;
+            this.apiKeys = apiKeys;
+            this.keyIds = apiKeys.stream().map(ProviderQuotaLedger::keyId).toList();
+            this.dailyQuota = dailyQuota;
+            this.zone = zone;
+            this.remaining = new AtomicLong[apiKeys.size()];
+            this.spent = new Counter[apiKeys.size()];
+            for (int i = 0; i < apiKeys.size(); i++) {
+                remaining[i] = new AtomicLong(dailyQuota);
+                Gauge.builder(ImportMetrics.GAUGE_PROVIDER_QUOTA_REMAINING, remaining[i], AtomicLong::get)
+                        .description("Quota units an API key has left in the current quota day")
+                        .tag("provider", provider.name())
+                        .tag("key", keyIds.get(i))
+                        .register(registry);
+                spent[i] = Counter.builder(ImportMetrics.COUNTER_PROVIDER_QUOTA_UNITS)
+                        .description("Quota units charged to an API key")
+                        .tag("provider", provider.name())
+                        .tag("key", keyIds.get(i))
+                        .register(registry);
+            }
+        }
+
+        private int size() {
+            return apiKeys.size();
+        }
+
+        private LocalDate day() {
+            return LocalDate.now(zone);
+        }
+
+        private Instant resetAt() {
+            return day().plusDays(1).atStartOfDay(zone).toInstant();
+        }
+
+        private String ledgerKey(int index, LocalDate day) {
+            return KEY_PREFIX + provider.name() + ":" + keyIds.get(index) + ":" + day;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Opt‑in request hedging for providers listed in {@code app.import.hedging.providers}.
+ *
+ * <p>A call that has not answered within the provider's rolling latency percentile
+ * ({@code percentile} over {@code window}, never below {@code min-delay}) is sent a second time;
+ * whichever copy answers first wins and the other is cancelled. An error of one copy is only
+ * reported once the other has failed too. Hedges are drawn from a per‑provider token bucket that
+ * earns {@code budget-ratio} tokens per call, so they add at most that fraction of load; providers
+ * are not hedged until {@code min-samples} calls have been timed.</p>
+ *
+ * <p>Latencies are recorded in {@code import.provider.latency}; hedge‑eligible calls, hedges sent,
+ * hedges that won and hedges skipped for lack of budget are counted per provider.</p>
+ */
+@Component
+public class ProviderRequestHedger {
+
+    /** How long a computed percentile is reused before the histogram is read again. */
+    private static final long PERCENTILE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ImportProperties props;
+    private final Map<VideoProvider, State> states = new EnumMap<>(VideoProvider.class);
+
+    public ProviderRequestHedger(ImportProperties props, MeterRegistry registry) {
+        this.props = props;
+        ImportProperties.Hedging cfg = props.getHedging();
+        for (VideoProvider provider : VideoProvider.values()) {
+            states.put(provider, new State(provider, cfg, registry));
+        }
+    }
+
+    /**
+     * Hedges a provider call, e.g. {@code call.transform(hedger.hedged(YOUTUBE))}. The call must be
+     * cold and safe to send twice; calls to providers not opted in are returned unchanged.
+     *
+     * @param provider provider called
+     * @return operator adding a hedge to a call
+     */
+    public <T> Function<Mono<T>, Mono<T>> hedged(VideoProvider provider) {
+        ImportProperties.Hedging cfg = props.getHedging();
+        if (!cfg.getProviders().contains(provider)) {
+            return Function.identity();
+        }
+        State state = states.get(provider);
+        return call -> Mono.defer(() -> {
+            state.requests.increment();
+            state.budget.deposit(cfg.getBudgetRatio(), cfg.getBudgetMaxTokens());
+            Duration delay = state.hedgeDelay(cfg);
+            // copies whose outcome is still open; an error is final only for the last one
+            AtomicInteger pending = new AtomicInteger(1);
+
+            Mono<Answer<T>> primary = timed(call, state, false, pending);
+            if (delay == null) {
+                return primary.flatMap(answer -> Mono.justOrEmpty(answer.value()));
+            }
+            Mono<Answer<T>> hedge = Mono.delay(delay)
+                    .flatMap(tick -> {
+                        if (!state.budget.withdraw()) {
+                            state.skipped.increment();
+                            return Mono.never();
+                        }
+                        state.sent.increment();
+                        pending.incrementAndGet();
+                        return timed(call, state, true, pending);
+                    });
+            return Mono.firstWithSignal(primary, hedge)
+                    .doOnNext(answer -> {
+                        if (answer.hedge()) {
+                            state.won.increment();
+                        }
+                    })
+                    .flatMap(answer -> Mono.justOrEmpty(answer.value()));
+        });
+    }
+
+    /**
+     * One copy of the call: records its latency, tags its answer and holds back its error
+     * while the other copy may still answer.
+     */
+    private static <T> Mono<Answer<T>> timed(Mono<T> call, State state, boolean hedge, AtomicInteger pending) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call
+                    .map(value -> new Answer<>(value, hedge))
+                    .defaultIfEmpty(new Answer<>(null, hedge))
+                    .doOnNext(answer -> state.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .onErrorResume(ex -> pending.decrementAndGet() > 0 ? Mono.never() : Mono.error(ex));
+        });
+    }
+
+    /**
+     * Answer of one copy; {@code value} is null for an empty result.
+     */
+    private record Answer<T>(T value, boolean hedge) { }
+
+    /**
+     * Latency histogram, hedge budget and counters of one provider.
+     */
+    private static final class State {
+        private final Timer latency;
+        private final TokenBudget budget;
+        private final Counter requests;
+        private final Counter sent;
+        private final Counter won;
+        private final Counter skipped;
+
+        private volatile long percentileNanos;
+        private volatile long percentileAt = System.nanoTime() - PERCENTILE_REFRESH_NANOS;
+
+        private State(VideoProvider provider, ImportProperties.Hedging cfg, MeterRegistry registry) {
+            this.latency = Timer.builder(ImportMetrics.TIMER_PROVIDER_LATENCY)
+                    .description("Latency of answered provider calls")
+                    .tag("provider", provider.name())
+                    .publishPercentiles(cfg.getPercentile())
+                    .distributionStatisticExpiry(cfg.getWindow())
+                    .register(registry);
+            this.budget = new TokenBudget(cfg.getBudgetMaxTokens());
+            this.requests = Counter.builder(ImportMetrics.COUNTER_PROVIDER_HEDGE_REQUESTS)
+                    .description("Provider calls eligible for hedging")
+                    .tag("provider", provider.name())
+                    .register(registry);
+            this.sent = hedges(provider, "sent", registry);
+            this.won = hedges(provider, "won", registry);
+            this.skipped = hedges(provider, "budget_exhausted", registry);
+        }
+
+        /**
+         * @return delay before the hedge, or null while too few calls were timed
+         */
+        private Duration hedgeDelay(ImportProperties.Hedging cfg) {
+            if (latency.count() < cfg.getMinSamples()) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (now - percentileAt >= PERCENTILE_REFRESH_NANOS) {
+                percentileAt = now;
+                percentileNanos = 0;
+                for (ValueAtPercentile p : latency.takeSnapshot().percentileValues()) {
+                    if (p.percentile() == cfg.getPercentile()) {
+                        percentileNanos = (long) p.value(TimeUnit.NANOSECONDS);
+                    }
+                }
+            }
+            if (percentileNanos <= 0) {
+                // nothing answered within the window
+                return null;
+            }
+            Duration delay = Duration.ofNanos(percentileNanos);
+            return delay.compareTo(cfg.getMinDelay()) < 0 ? cfg.getMinDelay() : delay;
+        }
+
+        private static Counter hedges(VideoProvider provider, String result, MeterRegistry registry) {
+            return Counter.builder(ImportMetrics.COUNTER_PROVIDER_HEDGES)
+                    .description("Hedged provider calls, by result")
+                    .tag("provider", provider.name())
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * The one retry policy of provider calls, shared by every layer that retries them.
+ *
+ * <p>Retries are drawn from a per‑provider token bucket: each successful call deposits
+ * {@code budget-ratio} tokens (up to {@code budget-max-tokens}), each retry withdraws one, so
+ * during a brown‑out retries add at most that fraction of the successful traffic instead of
+ * multiplying it. A call is retried at most {@code max-attempts} times, after a full‑jitter
+ * exponential backoff ({@code initial-backoff × 2^retry}, capped at {@code max-backoff}) or the
+ * provider's {@code Retry-After} if it sent one. A {@code Retry-After} longer than
+ * {@code max-retry-after} and YouTube's daily quota errors are not retried at all: waiting does
+ * not help within a request. Only 5xx, 408, 429, YouTube's per‑second rate limit, timeouts and
+ * connection failures are retried.</p>
+ *
+ * <p>Retry decisions are counted per provider, layer and outcome; each provider's budget is
+ * exported as a gauge.</p>
+ */
+@Slf4j
+@Component
+public class ProviderRetryPolicy {
+
+    private static final String RETRIED          = "retried";
+    private static final String EXHAUSTED        = "exhausted";
+    private static final String BUDGET_EXHAUSTED = "budget_exhausted";
+    private static final String QUOTA_EXCEEDED   = "quota_exceeded";
+    private static final String RETRY_AFTER_TOO_LONG = "retry_after_too_long";
+
+    private final ImportProperties props;
+    private final MeterRegistry registry;
+    private final Map<VideoProvider, TokenBudget> budgets = new EnumMap<>(VideoProvider.class);
+
+    public ProviderRetryPolicy(ImportProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.registry = registry;
+        double maxTokens = props.getProviderRetry().getBudgetMaxTokens();
+        for (VideoProvider provider : VideoProvider.values()) {
+            TokenBudget budget = new TokenBudget(maxTokens);
+            budgets.put(provider, budget);
+            Gauge.builder(ImportMetrics.GAUGE_PROVIDER_RETRY_BUDGET, budget, TokenBudget::tokens)
+                    .description("Retries a provider's retry budget still allows")
+                    .tag("provider", provider.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Applies the policy to a provider call, e.g. {@code call.transform(policy.withRetry(YOUTUBE, "client"))}.
+     * The call must be cold: every retry re-subscribes to it.
+     *
+     * @param provider provider called
+     * @param layer    layer retrying, used as metric tag
+     * @return operator adding budgeted retries to a call
+     */
+    public <T> Function<Mono<T>, Mono<T>> withRetry(VideoProvider provider, String layer) {
+        ImportProperties.ProviderRetry cfg = props.getProviderRetry();
+        if (!cfg.isEnabled()) {
+            return Function.identity();
+        }
+        TokenBudget budget = budgets.get(provider);
+        return call -> call
+                .doOnSuccess(v -> budget.deposit(cfg.getBudgetRatio(), cfg.getBudgetMaxTokens()))
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    Throwable error = signal.failure();
+                    Duration delay = delay(provider, layer, error, signal.totalRetries(), budget, cfg);
+                    return delay == null ? Mono.error(error) : Mono.delay(delay);
+                })));
+    }
+
+    /**
+     * @return backoff before the next retry, or null if the error is final
+     */
+    private Duration delay(VideoProvider provider,
+                           String layer,
+                           Throwable error,
+                           long retries,
+                           TokenBudget budget,
+                           ImportProperties.ProviderRetry cfg) {
+        if (isQuotaExceeded(error)) {
+            count(provider, layer, QUOTA_EXCEEDED);
+            return null;
+        }
+        if (!isRetryable(error)) {
+            return null;
+        }
+        if (retries >= cfg.getMaxAttempts()) {
+            count(provider, layer, EXHAUSTED);
+            return null;
+        }
+        Duration retryAfter = retryAfter(error);
+        if (retryAfter != null && retryAfter.compareTo(cfg.getMaxRetryAfter()) > 0) {
+            count(provider, layer, RETRY_AFTER_TOO_LONG);
+            return null;
+        }
+        if (!budget.withdraw()) {
+            count(provider, layer, BUDGET_EXHAUSTED);
+            return null;
+        }
+        count(provider, layer, RETRIED);
+        Duration delay = retryAfter != null ? retryAfter : backoff(retries, cfg);
+        log.debug("Retrying {} call ({}) in {} ms after {}", provider, layer, delay.toMillis(), error.toString());
+        return delay;
+    }
+
+    /**
+     * Full jitter: uniform in {@code [0, min(maxBackoff, initialBackoff * 2^retries)]}.
+     */
+    private static Duration backoff(long retries, ImportProperties.ProviderRetry cfg) {
+        long base = cfg.getInitialBackoff().toMillis() << Math.min(retries, 30);
+        long capped = Math.max(1, Math.min(base, cfg.getMaxBackoff().toMillis()));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(capped + 1));
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof TimeoutException || error instanceof WebClientRequestException) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException ex) {
+            return ex.getStatusCode().is5xxServerError()
+                    || ex.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)
+                    || ex.getStatusCode().isSameCodeAs(HttpStatus.REQUEST_TIMEOUT)
+                    || (ex.getStatusCode().isSameCodeAs(HttpStatus.FORBIDDEN) && isRateLimited(ex));
+        }
+        return false;
+    }
+
+    /**
+     * YouTube answers 403 both for its per‑second rate limit and for the spent daily quota;
+     * only the error reason in the body tells them apart.
+     *
+     * @return whether {@code error} reports the daily quota of the key as spent
+     */
+    public static boolean isQuotaExceeded(Throwable error) {
+        if (error instanceof WebClientResponseException ex
+                && ex.getStatusCode().isSameCodeAs(HttpStatus.FORBIDDEN)) {
+            String body = ex.getResponseBodyAsString();
+            return body.contains("quotaExceeded") || body.contains("dailyLimitExceeded");
+        }
+        return false;
+    }
+
+    private static boolean isRateLimited(WebClientResponseException ex) {
+        String body = ex.getResponseBodyAsString();
+        return body.contains("rateLimitExceeded") || body.contains("userRateLimitExceeded");
+    }
+
+    /**
+     * {@code Retry-After} of an error response, as delay-seconds or HTTP-date; null if absent or unreadable.
+     */
+    private static Duration retryAfter(Throwable error) {
+        if (!(error instanceof WebClientResponseException ex)) {
+            return null;
+        }
+        String value = ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                Instant at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration delay = Duration.between(Instant.now(), at);
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException notDate) {
+                return null;
+            }
+        }
+    }
+
+    private void count(VideoProvider provider, String layer, String outcome) {
+        Counter.builder(ImportMetrics.COUNTER_PROVIDER_RETRIES)
+                .description("Retry decisions on failed provider calls, by layer and outcome")
+                .tag("provider", provider.name())
+                .tag("layer", layer)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+}
@@ -1,4 +1,79 @@
 package com.github.dimitryivaniuta.videometadata.imports;
 
+import com.github.dimitryivaniuta.videometadata.config.LockProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Minimal Redis lease: {@code SET NX PX} to acquire, compare‑and‑expire to renew, compare‑and‑delete
+ * to release.
+ * <p>
+ * Keys are prefixed with {@code lock.redis.prefix}. The token identifies the holder, so a
+ * holder whose lease already expired never deletes someone else's lease.
+ */
+@Component
+@RequiredArgsConstructor
 public class RedisDistributedLock {
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> EXTEND = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    private final LockProperties props;
+
+    /**
+     * Tries to take the lease {@code name} for {@code ttl}.
+     *
+     * @return Mono emitting {@code true} if the lease was acquired
+     */
+    public Mono<Boolean> tryAcquire(String name, String token, Duration ttl) {
+        return redis.opsForValue()
+                .setIfAbsent(key(name), token, ttl)
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Resets the lease {@code name} to {@code ttl} if it is still held by {@code token}.
+     *
+     * @return Mono emitting {@code true} if the lease was renewed
+     */
+    public Mono<Boolean> extend(String name, String token, Duration ttl) {
+        return redis.execute(EXTEND, List.of(key(name)), List.of(token, Long.toString(ttl.toMillis())))
+                .next()
+                .map(renewed -> renewed > 0)
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Releases the lease {@code name} if it is still held by {@code token}.
+     *
+     * @return Mono emitting {@code true} if the lease was released
+     */
+    public Mono<Boolean> release(String name, String token) {
+        return redis.execute(RELEASE, List.of(key(name)), List.of(token))
+                .next()
+                .map(deleted -> deleted > 0)
+                .defaultIfEmpty(false);
+    }
+
+    private String key(String name) {
+        return props.getPrefix() + ":" + name;
+    }
 }
@@ -0,0 +1,144 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Admits the external ids of an import submission in a single Redis round trip.
+ *
+ * <p>Replaces the per-id {@code INCR}/{@code EXPIRE} on {@code import:rate:<user>} and
+ * {@code SETNX} on {@code import:dup:<user>:<extId>} with one Lua script call that classifies
+ * every id as admitted, rate-limited or duplicate:</p>
+ * <ul>
+ *   <li>each admitted id consumes one unit of {@code perUser.rateLimitPerUser} within
+ *       {@code perUser.window}; ids beyond the budget are rate-limited;</li>
+ *   <li>a duplicate marker is set per id for {@code perUser.duplicateCacheTtlMs}. An id whose
+ *       marker belongs to another submission is a duplicate when
+ *       {@code throttle.duplicateJobReject} is set, otherwise it is admitted;</li>
+ *   <li>markers hold the submission id, so a re-run of the same submission (e.g. after a lease
+ *       was reclaimed) is not treated as its own duplicate.</li>
+ * </ul>
+ *
+ * LUA returns one status code per id: 0 = admitted, 1 = rate-limited, 2 = duplicate.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RedisImportAdmission {
+
+    private static final long ADMITTED = 0;
+    private static final long RATE_LIMITED = 1;
+
+    private final ReactiveStringRedisTemplate redis;
+    private final ImportProperties props;
+
+    private static final String LUA = """
+        local rate_key   = KEYS[1]
+        local limit      = tonumber(ARGV[1])
+        local window_ms  = tonumber(ARGV[2])
+        local dup_ttl_ms = tonumber(ARGV[3])
+        local reject_dup = ARGV[4] == '1'
+        local owner      = ARGV[5]
+
+        local used     = tonumber(redis.call('GET', rate_key) or '0')
+        local consumed = 0
+        local result   = {}
+
+        for i = 2, #KEYS do
+            if used + consumed >= limit then
+                result[i - 1] = 1
+            else
+                local dup_key = KEYS[i]
+                local fresh = redis.call('SET', dup_key, owner, 'NX', 'PX', dup_ttl_ms)
+                if (not fresh) and redis.call('GET', dup_key) == owner then
+                    fresh = true
+                end
+                if fresh or not reject_dup then
+                    consumed = consumed + 1
+                    result[i - 1] = 0
+                else
+                    result[i - 1] = 2
+                end
+            end
+        end
+
+        if consumed > 0 then
+            redis.call('INCRBY', rate_key, consumed)
+            if redis.call('PTTL', rate_key) < 0 then
+                redis.call('PEXPIRE', rate_key, window_ms)
+            end
+        end
+
+        return result
+        """;
+
+    private static final RedisScript<List> SCRIPT = RedisScript.of(LUA, List.class);
+
+    /**
+     * Classifies the given ids for {@code username} in one script call.
+     *
+     * @param username     submission owner (rate-limit and duplicate scope)
+     * @param submissionId public submission id stored in the duplicate markers
+     * @param externalIds  ids to admit, in processing order
+     * @return Mono with the admitted / rate-limited / duplicate partition
+     */
+    public Mono<Result> admit(String username, String submissionId, Collection<String> externalIds) {
+        Objects.requireNonNull(username, "username must not be null");
+        if (externalIds.isEmpty()) {
+            return Mono.just(new Result(List.of(), List.of(), List.of()));
+        }
+
+        List<String> ids = List.copyOf(externalIds);
+        List<String> keys = new ArrayList<>(ids.size() + 1);
+        keys.add("import:rate:" + username);
+        ids.forEach(id -> keys.add("import:dup:" + username + ":" + id));
+
+        ImportProperties.PerUser perUser = props.getPerUser();
+        return redis.execute(SCRIPT,
+                        keys,
+                        String.valueOf(perUser.getRateLimitPerUser()),
+                        String.valueOf(perUser.getWindow().toMillis()),
+                        String.valueOf(perUser.getDuplicateCacheTtlMs()),
+                        props.getThrottle().isDuplicateJobReject() ? "1" : "0",
+                        submissionId)
+                .single()
+                .map(vals -> {
+                    @SuppressWarnings("unchecked")
+                    List<Number> codes = (List<Number>) vals;
+                    List<String> admitted = new ArrayList<>();
+                    List<String> limited = new ArrayList<>();
+                    List<String> duplicates = new ArrayList<>();
+                    for (int i = 0; i < ids.size(); i++) {
+                        long code = codes.get(i).longValue();
+                        if (code == ADMITTED) {
+                            admitted.add(ids.get(i));
+                        } else if (code == RATE_LIMITED) {
+                            limited.add(ids.get(i));
+                        } else {
+                            duplicates.add(ids.get(i));
+                        }
+                    }
+                    return new Result(admitted, limited, duplicates);
+                })
+                .doOnError(ex -> log.error("Import admission script failed: {}", ex.getMessage(), ex));
+    }
+
+    /**
+     * Outcome of one admission call.
+     *
+     * @param admitted    ids that may be imported now
+     * @param rateLimited ids rejected because the per-user budget is used up
+     * @param duplicates  ids already claimed by another submission of the same user
+     */
+    public record Result(List<String> admitted, List<String> rateLimited, List<String> duplicates) { }
+}
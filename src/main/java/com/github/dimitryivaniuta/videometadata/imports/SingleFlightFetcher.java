@@ -0,0 +1,285 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.service.BatchFetchResult;
+import com.github.dimitryivaniuta.videometadata.service.VideoService;
+import com.github.dimitryivaniuta.videometadata.service.YouTubeExternalVideoClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent provider fetches of the same {@link ImportJobKey}.
+ *
+ * <p>Within the JVM, concurrent callers share one in‑flight {@link Mono}. Across nodes, the first
+ * caller takes a short Redis lease ({@code app.import.single-flight.lease}) on the key and renews it
+ * every third of its length until the fetch ends, so the lease outlives a call that waits long for a
+ * scheduler slot or is retried; only a crashed holder lets it expire. A node that finds the lease
+ * taken waits for it to go away and only fetches if the holder did not store the video in the
+ * meantime, in which case the returned Mono is empty. The wait is bounded by
+ * {@code app.import.single-flight.max-wait}: a holder that keeps its lease longer is assumed stuck
+ * and the video is fetched anyway. If Redis is unavailable the fetch proceeds with in‑JVM
+ * coalescing only.</p>
+ *
+ * <p>{@link #fetchMany} does the same for the ids of a provider multi‑get: every id is coalesced and
+ * leased on its own, and the ids nobody else is fetching share one provider call.</p>
+ *
+ * <p>The shared fetch is reference counted: when every caller of a key has cancelled (e.g. its
+ * import was cancelled), the provider call and its scheduler slot are cancelled too.</p>
+ *
+ * <p>Callers share the emitted {@link Video} instance and must copy it before mutating.</p>
+ */
+@Slf4j
+@Component
+public class SingleFlightFetcher {
+
+    private final RedisDistributedLock lock;
+    private final VideoService videoService;
+    private final ImportProperties props;
+    private final Counter coalesced;
+    private final Counter peerWaits;
+
+    private static final BatchFetchResult<Video> NOTHING = new BatchFetchResult<>(Map.of(), Set.of());
+
+    private final Map<ImportJobKey, Mono<Video>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlightFetcher(RedisDistributedLock lock,
+                               VideoService videoService,
+                               ImportProperties props,
+                               MeterRegistry registry) {
+        this.lock = lock;
+        this.videoService = videoService;
+        this.props = props;
+        this.coalesced = Counter.builder(ImportMetrics.COUNTER_FETCH_COALESCED)
+                .description("Provider fetches joined to an in-flight fetch of the same video")
+                .register(registry);
+        this.peerWaits = Counter.builder(ImportMetrics.COUNTER_FETCH_PEER_WAIT)
+                .description("Provider fetches that waited for another node's lease")
+                .register(registry);
+    }
+
+    /**
+     * Fetches {@code key} with {@code loader}, unless the same key is already being fetched.
+     *
+     * @param key    provider + external id
+     * @param loader the actual provider call
+     * @return Mono with the fetched video; empty if another node already stored it
+     */
+    public Mono<Video> fetch(ImportJobKey key, Supplier<Mono<Video>> loader) {
+        return Mono.defer(() -> {
+            AtomicBoolean created = new AtomicBoolean();
+            Mono<Video> shared = inFlight.computeIfAbsent(key, k -> {
+                created.set(true);
+                // shared while subscribed: the fetch is cancelled once its last caller cancels
+                return leased(k, loader)
+                        .doFinally(sig -> inFlight.remove(k))
+                        .share();
+            });
+            if (!created.get()) {
+                coalesced.increment();
+            }
+            return shared;
+        });
+    }
+
+    /**
+     * Fetches many new ids of one provider, joining fetches already in flight in this JVM and
+     * loading the others together: each takes its own lease, the leased ones are fetched with one
+     * {@code loader} call, and ids whose lease a peer holds are waited for and, unless the peer
+     * stored them, fetched with one more call once its leases are gone.
+     *
+     * @param provider    provider of the ids
+     * @param externalIds new ids, at most one provider multi‑get
+     * @param loader      the actual provider multi‑get
+     * @return Flux with one {@link Fetch} per distinct id
+     */
+    public Flux<Fetch> fetchMany(VideoProvider provider,
+                                 List<String> externalIds,
+                                 Function<List<String>, Mono<BatchFetchResult<Video>>> loader) {
+        return Flux.defer(() -> {
+            // the batch of the ids this call owns; a concurrent joiner may subscribe before it is built
+            Sinks.One<Mono<BatchFetchResult<Video>>> batch = Sinks.one();
+            Map<String, Mono<Video>> byId = new LinkedHashMap<>();
+            List<String> owned = new ArrayList<>();
+            for (String id : externalIds.stream().distinct().toList()) {
+                AtomicBoolean created = new AtomicBoolean();
+                Mono<Video> shared = inFlight.computeIfAbsent(new ImportJobKey(provider, id), k -> {
+                    created.set(true);
+                    return batch.asMono()
+                            .flatMap(call -> call)
+                            .flatMap(result -> outcome(result, k))
+                            .doFinally(sig -> inFlight.remove(k))
+                            .share();
+                });
+                if (created.get()) {
+                    owned.add(id);
+                } else {
+                    coalesced.increment();
+                }
+                byId.put(id, shared);
+            }
+            // shared by the ids it serves: cancelled once none of them is wanted any more
+            batch.tryEmitValue(owned.isEmpty() ? Mono.empty() : leasedBatch(provider, owned, loader).share());
+            return Flux.fromIterable(byId.entrySet())
+                    .flatMap(e -> e.getValue()
+                            .map(video -> new Fetch(e.getKey(), video, null))
+                            .defaultIfEmpty(new Fetch(e.getKey(), null, null))
+                            .onErrorResume(ex -> Mono.just(new Fetch(e.getKey(), null, ex))));
+        });
+    }
+
+    private Mono<Video> leased(ImportJobKey key, Supplier<Mono<Video>> loader) {
+        String name = leaseName(key);
+        String token = UUID.randomUUID().toString();
+        return acquire(name, token).flatMap(acquired -> {
+            if (acquired) {
+                return withLease(List.of(name), token, Mono.defer(loader));
+            }
+            peerWaits.increment();
+            // another node fetches this video: wait until its lease is gone, then take over only if needed
+            return awaitLease(name, token)
+                    .then(videoService.existsByProviderAndExternalIdMono(key.provider(), key.externalId()))
+                    .flatMap(stored -> withLease(List.of(name), token, stored ? Mono.empty() : Mono.defer(loader)));
+        });
+    }
+
+    private Mono<BatchFetchResult<Video>> leasedBatch(VideoProvider provider,
+                                                      List<String> ids,
+                                                      Function<List<String>, Mono<BatchFetchResult<Video>>> loader) {
+        String token = UUID.randomUUID().toString();
+        return Flux.fromIterable(ids)
+                .flatMap(id -> acquire(leaseName(new ImportJobKey(provider, id)), token)
+                        .map(acquired -> Map.entry(id, acquired)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(leases -> {
+                    List<String> leased = ids.stream().filter(leases::get).toList();
+                    List<String> held = ids.stream().filter(id -> !leases.get(id)).toList();
+                    Mono<BatchFetchResult<Video>> own = leased.isEmpty()
+                            ? Mono.just(NOTHING)
+                            : withLease(leaseNames(provider, leased), token, Mono.defer(() -> loader.apply(leased)));
+                    Mono<BatchFetchResult<Video>> afterPeers = held.isEmpty()
+                            ? Mono.just(NOTHING)
+                            : afterPeers(provider, held, token, loader);
+                    return Mono.zip(own, afterPeers)
+                            .map(parts -> BatchFetchResult.merge(List.of(parts.getT1(), parts.getT2())));
+                });
+    }
+
+    /**
+     * Waits for the peer leases of {@code ids} to go away, then fetches those the peers did not store.
+     */
+    private Mono<BatchFetchResult<Video>> afterPeers(VideoProvider provider,
+                                                     List<String> ids,
+                                                     String token,
+                                                     Function<List<String>, Mono<BatchFetchResult<Video>>> loader) {
+        peerWaits.increment(ids.size());
+        return Flux.fromIterable(ids)
+                .flatMap(id -> awaitLease(leaseName(new ImportJobKey(provider, id)), token))
+                .then(videoService.findExistingExternalIds(provider, ids))
+                .flatMap(stored -> {
+                    List<String> missing = ids.stream().filter(id -> !stored.contains(id)).toList();
+                    return withLease(leaseNames(provider, ids), token, missing.isEmpty()
+                            ? Mono.just(NOTHING)
+                            : Mono.defer(() -> loader.apply(missing)));
+                });
+    }
+
+    /**
+     * The video of {@code key} in a batch result: empty if a peer stored it, an error if the provider does not know it.
+     */
+    private static Mono<Video> outcome(BatchFetchResult<Video> result, ImportJobKey key) {
+        Video video = result.found().get(key.externalId());
+        if (video != null) {
+            return Mono.just(video);
+        }
+        if (result.missing().contains(key.externalId())) {
+            return Mono.error(new YouTubeExternalVideoClient.VideoNotFoundException(key.provider().name(), key.externalId()));
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Boolean> acquire(String name, String token) {
+        return lock.tryAcquire(name, token, props.getSingleFlight().getLease())
+                .onErrorResume(ex -> {
+                    log.warn("Single-flight lease {} unavailable: {}", name, ex.toString());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * Polls until the lease is free and takes it; a live holder keeps renewing it, a crashed one
+     * lets it expire after {@code lease}. Gives up after {@code max-wait} and emits {@code false}:
+     * the caller then fetches without the lease.
+     */
+    private Mono<Boolean> awaitLease(String name, String token) {
+        ImportProperties.SingleFlight cfg = props.getSingleFlight();
+        Duration poll = cfg.getPollInterval();
+        return Mono.delay(poll)
+                .then(acquire(name, token))
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(polls -> polls.delayElements(poll))
+                .timeout(cfg.getMaxWait(), Mono.fromSupplier(() -> {
+                    log.warn("Single-flight lease {} still held after {}; fetching anyway", name, cfg.getMaxWait());
+                    return false;
+                }));
+    }
+
+    /**
+     * Runs {@code work} under the leases, renewing them until the work ends and releasing them afterwards.
+     */
+    private <T> Mono<T> withLease(List<String> names, String token, Mono<T> work) {
+        Duration lease = props.getSingleFlight().getLease();
+        return Mono.defer(() -> {
+            Disposable renewal = Flux.interval(lease.dividedBy(3))
+                    .concatMap(tick -> Flux.fromIterable(names)
+                            .flatMap(name -> lock.extend(name, token, lease)
+                                    .onErrorResume(ex -> Mono.just(false))))
+                    .subscribe();
+            return work.doFinally(sig -> {
+                renewal.dispose();
+                Flux.fromIterable(names)
+                        .flatMap(name -> lock.release(name, token)
+                                .onErrorResume(ex -> Mono.just(false)))
+                        .subscribe();
+            });
+        });
+    }
+
+    private static String leaseName(ImportJobKey key) {
+        return "fetch:" + key;
+    }
+
+    private static List<String> leaseNames(VideoProvider provider, List<String> ids) {
+        return ids.stream().map(id -> leaseName(new ImportJobKey(provider, id))).toList();
+    }
+
+    /**
+     * Outcome of one id of {@link #fetchMany}.
+     *
+     * @param externalId requested id
+     * @param video      fetched video, shared with concurrent callers; {@code null} if another node
+     *                   stored it or the fetch failed
+     * @param error      why the fetch failed, {@code null} otherwise; ids the provider does not know
+     *                   fail with a {@link YouTubeExternalVideoClient.VideoNotFoundException}
+     */
+    public record Fetch(String externalId, Video video, Throwable error) { }
+}
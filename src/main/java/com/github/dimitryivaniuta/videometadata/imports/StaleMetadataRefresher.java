@@ -0,0 +1,339 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoRepository;
+import com.github.dimitryivaniuta.videometadata.exception.ProviderQuotaExhaustedException;
+import com.github.dimitryivaniuta.videometadata.resilience.ProviderResilience;
+import com.github.dimitryivaniuta.videometadata.service.ExternalVideoClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Background refresh of stale video metadata.
+ *
+ * <p>Every {@code app.import.refresh.interval} one node (the holder of a Redis lease that is
+ * simply left to expire) walks the videos not updated for {@code stale-after}, oldest first, in
+ * keyset chunks over {@code (updated_at, id)}. Each chunk is split by provider; the calls of a
+ * provider are reserved from its hourly {@link ProviderQuotaBudget} and run through the
+ * {@link FairShareScheduler}, so the sweep competes fairly with user imports. A provider whose
+ * budget is spent is skipped for the rest of the sweep; the walk ends when no provider has
+ * budget left or no stale rows remain.</p>
+ *
+ * <p>Providers with a multi‑get ({@link ExternalVideoClient#maxBatchSize()} above 1, e.g. YouTube)
+ * are refreshed with one {@link ExternalVideoClient#fetchMany} call per batch, which costs the
+ * quota of a single video; a multi‑id response carries no per‑video ETag, so the stored one is
+ * kept. Providers without one are refreshed per video and conditionally ({@code If-None-Match}).
+ * The budget is reserved in calls either way.</p>
+ *
+ * <p>Changed rows are written with one batched
+ * UPDATE per provider and chunk; unchanged rows, rows whose fetch failed and rows the provider no
+ * longer returns only get their {@code updated_at} bumped, so they are checked again after
+ * {@code stale-after} instead of blocking the head of the walk. Calls rejected locally (full backlog
+ * or bulkhead, open circuit) or for spent quota are deferred: the row stays stale. Refreshed rows by
+ * outcome, backlog size, the age of the oldest stale row and sweep duration are exported as metrics.</p>
+ */
+@Slf4j
+@Component
+public class StaleMetadataRefresher implements DisposableBean {
+
+    private static final String SWEEP_LEASE = "refresh:sweep";
+
+    /** Fairness key of the sweep's provider calls in the {@link FairShareScheduler}. */
+    private static final String SCHEDULER_USER = "metadata-refresh";
+
+    private static final String UPDATED   = "updated";
+    private static final String UNCHANGED = "unchanged";
+    private static final String FAILED    = "failed";
+    private static final String DEFERRED  = "deferred";
+
+    private final VideoRepository videoRepo;
+    private final Map<VideoProvider, ExternalVideoClient> clients;
+    private final FairShareScheduler scheduler;
+    private final ProviderQuotaBudget budget;
+    private final RedisDistributedLock lock;
+    private final ImportProperties props;
+    private final MeterRegistry registry;
+    private final Timer sweepTimer;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    private Disposable loop;
+
+    public StaleMetadataRefresher(VideoRepository videoRepo,
+                                  Map<VideoProvider, ExternalVideoClient> clients,
+                                  FairShareScheduler scheduler,
+                                  ProviderQuotaBudget budget,
+                                  RedisDistributedLock lock,
+                                  ImportProperties props,
+                                  MeterRegistry registry) {
+        this.videoRepo = videoRepo;
+        this.clients = clients;
+        this.scheduler = scheduler;
+        this.budget = budget;
+        this.lock = lock;
+        this.props = props;
+        this.registry = registry;
+        this.sweepTimer = Timer.builder(ImportMetrics.TIMER_REFRESH_SWEEP)
+                .description("Duration of stale-metadata sweeps")
+                .register(registry);
+        Gauge.builder(ImportMetrics.GAUGE_REFRESH_BACKLOG, backlog, AtomicLong::get)
+                .description("Videos whose metadata is older than the refresh threshold")
+                .register(registry);
+        Gauge.builder(ImportMetrics.GAUGE_REFRESH_LAG, lagSeconds, AtomicLong::get)
+                .description("Seconds since the oldest stale video was last updated")
+                .register(registry);
+    }
+
+    /**
+     * Starts the sweep loop once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ImportProperties.Refresh cfg = props.getRefresh();
+        if (!cfg.isEnabled()) {
+            log.info("Stale-metadata refresh disabled on this node");
+            return;
+        }
+        loop = Flux.interval(cfg.getInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> sweep(), 1)
+                .subscribe();
+    }
+
+    /**
+     * Runs one sweep if no other node has swept within the current interval.
+     *
+     * @return Mono completing when the sweep is done or skipped
+     */
+    public Mono<Void> sweep() {
+        ImportProperties.Refresh cfg = props.getRefresh();
+        Instant staleBefore = Instant.now().minus(cfg.getStaleAfter());
+        return lock.tryAcquire(SWEEP_LEASE, UUID.randomUUID().toString(), cfg.getInterval())
+                .onErrorResume(ex -> {
+                    log.warn("Refresh sweep lease unavailable: {}", ex.toString());
+                    return Mono.just(false);
+                })
+                .filter(Boolean::booleanValue)
+                .flatMap(acquired -> {
+                    Timer.Sample sample = Timer.start(registry);
+                    return walk(staleBefore)
+                            .doOnNext(checked -> log.info("Refresh sweep checked {} stale video(s)", checked))
+                            .onErrorResume(ex -> {
+                                log.error("Refresh sweep failed: {}", ex.toString());
+                                return Mono.empty();
+                            })
+                            .then(updateBacklog(staleBefore))
+                            .doFinally(sig -> sample.stop(sweepTimer));
+                });
+    }
+
+    private Mono<Integer> walk(Instant staleBefore) {
+        Set<VideoProvider> exhausted = ConcurrentHashMap.newKeySet();
+        return step(staleBefore, new Cursor(Instant.EPOCH, 0L), exhausted)
+                .expand(step -> step.next() == null
+                        ? Mono.empty()
+                        : step(staleBefore, step.next(), exhausted))
+                .map(Step::checked)
+                .reduce(0, Integer::sum);
+    }
+
+    /**
+     * Reads and refreshes one keyset chunk; the returned step carries the cursor of the next one.
+     */
+    private Mono<Step> step(Instant staleBefore, Cursor cursor, Set<VideoProvider> exhausted) {
+        int chunkSize = props.getRefresh().getChunkSize();
+        return videoRepo.findStaleChunk(staleBefore, cursor.updatedAt(), cursor.id(), chunkSize)
+                .collectList()
+                .flatMap(rows -> refreshChunk(rows, exhausted)
+                        .map(checked -> {
+                            boolean done = rows.size() < chunkSize || exhausted.containsAll(clients.keySet());
+                            Video last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+                            return new Step(checked, done ? null : new Cursor(last.getUpdatedAt(), last.getId()));
+                        }));
+    }
+
+    private Mono<Integer> refreshChunk(List<Video> rows, Set<VideoProvider> exhausted) {
+        Map<VideoProvider, List<Video>> byProvider = rows.stream()
+                .filter(v -> clients.containsKey(v.getProvider()) && !exhausted.contains(v.getProvider()))
+                .collect(Collectors.groupingBy(Video::getProvider,
+                        () -> new EnumMap<>(VideoProvider.class), Collectors.toList()));
+
+        return Flux.fromIterable(byProvider.entrySet())
+                .concatMap(e -> {
+                    List<Video> videos = e.getValue();
+                    int batchSize = batchSize(e.getKey());
+                    int calls = (videos.size() + batchSize - 1) / batchSize;
+                    return budget.reserve(e.getKey(), calls)
+                            .flatMap(granted -> {
+                                int covered = Math.min(videos.size(), granted * batchSize);
+                                if (covered < videos.size()) {
+                                    exhausted.add(e.getKey());
+                                    count(e.getKey(), DEFERRED, videos.size() - covered);
+                                }
+                                return refreshProvider(e.getKey(), videos.subList(0, covered));
+                            });
+                })
+                .reduce(0, Integer::sum);
+    }
+
+    private Mono<Integer> refreshProvider(VideoProvider provider, List<Video> videos) {
+        if (videos.isEmpty()) {
+            return Mono.just(0);
+        }
+        ExternalVideoClient client = clients.get(provider);
+        int concurrency = Math.max(1, props.getRefresh().getMaxConcurrent());
+        int batchSize = batchSize(provider);
+        Flux<Outcome> outcomes = batchSize > 1
+                ? Flux.fromIterable(videos)
+                        .buffer(batchSize)
+                        .flatMap(batch -> refreshBatch(provider, client, batch), concurrency)
+                : Flux.fromIterable(videos)
+                        .flatMap(current -> refreshOne(provider, client, current), concurrency);
+        return outcomes.collectList()
+                .flatMap(list -> write(provider, list));
+    }
+
+    /**
+     * Refreshes one batch with a single multi‑get; ids the provider no longer returns count as failed.
+     */
+    private Flux<Outcome> refreshBatch(VideoProvider provider, ExternalVideoClient client, List<Video> batch) {
+        List<String> ids = batch.stream().map(Video::getExternalVideoId).toList();
+        return scheduler.schedule(SCHEDULER_USER, provider, () -> client.fetchMany(ids))
+                .flatMapMany(result -> Flux.fromIterable(batch)
+                        .map(current -> {
+                            Video fresh = result.found().get(current.getExternalVideoId());
+                            if (fresh == null) {
+                                return new Outcome(current.getId(), null, FAILED);
+                            }
+                            if (fresh.hasSameMetadata(current)) {
+                                return new Outcome(current.getId(), null, UNCHANGED);
+                            }
+                            // the multi-id response has no per-video validator; keep the stored one
+                            return new Outcome(current.getId(), fresh.toBuilder()
+                                    .id(current.getId())
+                                    .etag(current.getEtag())
+                                    .build(), UPDATED);
+                        }))
+                .onErrorResume(ex -> {
+                    String result = failure(ex);
+                    if (result.equals(FAILED)) {
+                        log.debug("Refresh of {} {} video(s) failed: {}", batch.size(), provider, ex.toString());
+                    }
+                    return Flux.fromIterable(batch).map(current -> new Outcome(current.getId(), null, result));
+                });
+    }
+
+    /**
+     * Refreshes one video with {@code If-None-Match}.
+     */
+    private Mono<Outcome> refreshOne(VideoProvider provider, ExternalVideoClient client, Video current) {
+        return scheduler.schedule(SCHEDULER_USER, provider,
+                        () -> client.fetchIfNoneMatch(current.getExternalVideoId(), current.getEtag()))
+                // a new ETag alone is worth writing: the next refresh can then get a 304
+                .filter(fresh -> !fresh.hasSameMetadata(current)
+                        || !Objects.equals(fresh.getEtag(), current.getEtag()))
+                .map(fresh -> new Outcome(current.getId(), fresh.toBuilder().id(current.getId()).build(), UPDATED))
+                .defaultIfEmpty(new Outcome(current.getId(), null, UNCHANGED))
+                .onErrorResume(ex -> {
+                    String result = failure(ex);
+                    if (result.equals(FAILED)) {
+                        log.debug("Refresh of {}:{} failed: {}", provider, current.getExternalVideoId(), ex.toString());
+                    }
+                    return Mono.just(new Outcome(current.getId(), null, result));
+                });
+    }
+
+    /**
+     * Outcome of a failed refresh call: deferred if the call was not made or the quota is spent.
+     */
+    private static String failure(Throwable error) {
+        return error instanceof ProviderQuotaExhaustedException || ProviderResilience.isRejectedLocally(error)
+                ? DEFERRED
+                : FAILED;
+    }
+
+    private int batchSize(VideoProvider provider) {
+        return Math.max(1, clients.get(provider).maxBatchSize());
+    }
+
+    private Mono<Integer> write(VideoProvider provider, List<Outcome> outcomes) {
+        List<Video> changed = outcomes.stream()
+                .filter(o -> o.video() != null)
+                .map(Outcome::video)
+                .toList();
+        Long[] checked = outcomes.stream()
+                .filter(o -> o.result().equals(UNCHANGED) || o.result().equals(FAILED))
+                .map(Outcome::id)
+                .toArray(Long[]::new);
+
+        Mono<Long> update = changed.isEmpty() ? Mono.just(0L) : videoRepo.updateMetadataBatch(changed);
+        Mono<Integer> touch = checked.length == 0 ? Mono.just(0) : videoRepo.touchUpdatedAt(checked);
+        return update.then(touch)
+                .then(Mono.fromSupplier(() -> {
+                    outcomes.stream()
+                            .collect(Collectors.groupingBy(Outcome::result, Collectors.counting()))
+                            .forEach((result, n) -> count(provider, result, n));
+                    return changed.size() + checked.length;
+                }));
+    }
+
+    private Mono<Void> updateBacklog(Instant staleBefore) {
+        return videoRepo.staleBacklog(staleBefore)
+                .doOnNext(row -> {
+                    backlog.set(row.getCnt() == null ? 0 : row.getCnt());
+                    lagSeconds.set(row.getLag() == null ? 0 : row.getLag());
+                })
+                .onErrorResume(ex -> {
+                    log.warn("Could not read refresh backlog: {}", ex.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void count(VideoProvider provider, String outcome, long n) {
+        Counter.builder(ImportMetrics.COUNTER_REFRESH_VIDEOS)
+                .description("Stale videos handled by the metadata refresh, by outcome")
+                .tag("provider", provider.name())
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(n);
+    }
+
+    @Override
+    public void destroy() {
+        if (loop != null) {
+            loop.dispose();
+        }
+    }
+
+    private record Cursor(Instant updatedAt, Long id) { }
+
+    /** Videos checked in one chunk and where the next chunk starts; {@code next} is null at the end. */
+    private record Step(int checked, Cursor next) { }
+
+    private record Outcome(Long id, Video video, String result) { }
+}
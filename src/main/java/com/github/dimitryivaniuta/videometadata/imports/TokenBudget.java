@@ -0,0 +1,34 @@
+package com.github.dimitryivaniuta.videometadata.imports;
+
+/**
+ * Token bucket capping extra provider calls (retries, hedges) as a fraction of normal ones:
+ * normal calls {@link #deposit} a fraction of a token, each extra call {@link #withdraw}s a whole one.
+ * Guarded by its own monitor.
+ */
+final class TokenBudget {
+
+    private double tokens;
+
+    TokenBudget(double initial) {
+        this.tokens = initial;
+    }
+
+    synchronized void deposit(double amount, double max) {
+        tokens = Math.min(max, tokens + amount);
+    }
+
+    /**
+     * @return whether a token was available and taken
+     */
+    synchronized boolean withdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    synchronized double tokens() {
+        return tokens;
+    }
+}
@@ -1,4 +1,25 @@
 package com.github.dimitryivaniuta.videometadata.resilience;
 
-public class ExternalClientRetryNames {
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+
+import java.util.Locale;
+
+/**
+ * Names of the per‑provider Resilience4j instances (circuit breaker, bulkhead, rate limiter),
+ * configured under {@code resilience4j.<module>.instances.<name>}. Retries are not among them:
+ * they are budgeted by {@code ProviderRetryPolicy}.
+ */
+public final class ExternalClientRetryNames {
+
+    public static final String YOUTUBE = "youtube";
+    public static final String VIMEO   = "vimeo";
+
+    private ExternalClientRetryNames() { }
+
+    /**
+     * @return instance name of {@code provider}: its lower‑case enum name
+     */
+    public static String of(VideoProvider provider) {
+        return provider.name().toLowerCase(Locale.ROOT);
+    }
 }
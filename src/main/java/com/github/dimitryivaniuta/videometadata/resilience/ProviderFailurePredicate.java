@@ -0,0 +1,45 @@
+package com.github.dimitryivaniuta.videometadata.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Errors a provider's circuit breaker records as failures: 5xx and 429 responses, timeouts and
+ * I/O errors. Everything else, e.g. a missing video, a spent YouTube quota (403) or another 4xx,
+ * says nothing about the provider's health and is ignored; it is configured as the
+ * {@code ignore-exception-predicate} in its negation, {@link Ignored}.
+ */
+public class ProviderFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof IOException || t instanceof WebClientRequestException) {
+                return true;
+            }
+            if (t instanceof WebClientResponseException ex) {
+                return ex.getStatusCode().is5xxServerError()
+                        || ex.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Errors the circuit breaker neither records as failures nor as successes.
+     */
+    public static class Ignored implements Predicate<Throwable> {
+
+        private final ProviderFailurePredicate failure = new ProviderFailurePredicate();
+
+        @Override
+        public boolean test(Throwable error) {
+            return !failure.test(error);
+        }
+    }
+}
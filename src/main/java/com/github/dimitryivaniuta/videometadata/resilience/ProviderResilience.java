@@ -0,0 +1,107 @@
+package com.github.dimitryivaniuta.videometadata.resilience;
+
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.exception.ImportBacklogFullException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Per‑provider isolation of provider calls: a semaphore bulkhead, a rate limiter and a circuit
+ * breaker per {@link VideoProvider}, named by {@link ExternalClientRetryNames#of}, so an outage of
+ * one provider neither opens the breaker nor fills the bulkhead of another.
+ *
+ * <p>A call first takes a bulkhead permit (rejected at once when none is free), then waits for a
+ * rate‑limiter permission (up to the limiter's timeout), then passes the circuit breaker. The
+ * breaker is innermost, so it records only real provider outcomes, not local rejections; of those
+ * it records only the ones that tell about the provider's health ({@link ProviderFailurePredicate}).</p>
+ *
+ * <p>A call rejected locally ({@link #isRejectedLocally}) never reached the provider. Background
+ * work defers it like a full import backlog instead of counting it as a failed attempt.</p>
+ */
+@Component
+public class ProviderResilience {
+
+    private final Map<VideoProvider, Instances> instances = new EnumMap<>(VideoProvider.class);
+
+    public ProviderResilience(CircuitBreakerRegistry circuitBreakers,
+                              BulkheadRegistry bulkheads,
+                              RateLimiterRegistry rateLimiters) {
+        for (VideoProvider provider : VideoProvider.values()) {
+            String name = ExternalClientRetryNames.of(provider);
+            instances.put(provider, new Instances(
+                    circuitBreakers.circuitBreaker(name),
+                    bulkheads.bulkhead(name),
+                    rateLimiters.rateLimiter(name)));
+        }
+    }
+
+    /**
+     * Isolates one provider call, e.g. {@code call.transform(resilience.protect(YOUTUBE))}.
+     * Apply it per attempt, inside retries and hedging, so every request is accounted for.
+     *
+     * @param provider provider called
+     * @return operator guarding a call with the provider's instances
+     */
+    public <T> Function<Mono<T>, Mono<T>> protect(VideoProvider provider) {
+        Instances i = instances.get(provider);
+        return call -> call
+                .transformDeferred(CircuitBreakerOperator.of(i.circuitBreaker()))
+                .transformDeferred(RateLimiterOperator.of(i.rateLimiter()))
+                .transformDeferred(BulkheadOperator.of(i.bulkhead()));
+    }
+
+    /**
+     * @return whether {@code error} was caused by a full bulkhead, a rate limiter timeout, an open
+     *         circuit or a full import backlog, i.e. the call was not made
+     */
+    public static boolean isRejectedLocally(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof BulkheadFullException
+                    || t instanceof RequestNotPermitted
+                    || t instanceof CallNotPermittedException
+                    || t instanceof ImportBacklogFullException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return circuit breaker of {@code provider}
+     */
+    public CircuitBreaker circuitBreaker(VideoProvider provider) {
+        return instances.get(provider).circuitBreaker();
+    }
+
+    /**
+     * @return bulkhead of {@code provider}
+     */
+    public Bulkhead bulkhead(VideoProvider provider) {
+        return instances.get(provider).bulkhead();
+    }
+
+    /**
+     * @return rate limiter of {@code provider}
+     */
+    public RateLimiter rateLimiter(VideoProvider provider) {
+        return instances.get(provider).rateLimiter();
+    }
+
+    private record Instances(CircuitBreaker circuitBreaker, Bulkhead bulkhead, RateLimiter rateLimiter) { }
+}
@@ -1,4 +1,68 @@
 package com.github.dimitryivaniuta.videometadata.resilience;
 
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.boot.actuate.health.CompositeReactiveHealthContributor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Health of the per‑provider {@link ProviderResilience} instances.
+ *
+ * <p>{@code /actuator/health/providers/<name>} reports one provider: {@code UP} while its circuit
+ * breaker is closed, {@link #CIRCUIT_OPEN} or {@link #CIRCUIT_HALF_OPEN} otherwise, with failure
+ * and slow‑call rates, free bulkhead permits and rate‑limiter permissions as details. Both statuses
+ * rank between {@code OUT_OF_SERVICE} and {@code UP} ({@code management.endpoint.health.status.order}),
+ * so one failing provider is visible without failing the readiness of the whole application.
+ * Circuit states, calls and rejections are exported per instance by the Resilience4j Micrometer
+ * binders ({@code resilience4j.circuitbreaker.state{name=youtube}} etc.).</p>
+ */
+@Configuration
 public class ResilienceConfig {
+
+    public static final Status CIRCUIT_OPEN      = new Status("CIRCUIT_OPEN", "Provider calls are short-circuited");
+    public static final Status CIRCUIT_HALF_OPEN = new Status("CIRCUIT_HALF_OPEN", "Provider calls are being probed");
+
+    /** Providers with an API client of their own. */
+    private static final Set<VideoProvider> CALLED_PROVIDERS = EnumSet.of(VideoProvider.YOUTUBE, VideoProvider.VIMEO);
+
+    @Bean
+    public CompositeReactiveHealthContributor providersHealthContributor(ProviderResilience resilience) {
+        Map<String, ReactiveHealthIndicator> indicators = new LinkedHashMap<>();
+        for (VideoProvider provider : CALLED_PROVIDERS) {
+            indicators.put(ExternalClientRetryNames.of(provider), () -> Mono.fromSupplier(() -> health(resilience, provider)));
+        }
+        return CompositeReactiveHealthContributor.fromMap(indicators);
+    }
+
+    private static Health health(ProviderResilience resilience, VideoProvider provider) {
+        CircuitBreaker cb = resilience.circuitBreaker(provider);
+        CircuitBreaker.Metrics metrics = cb.getMetrics();
+        Status status = switch (cb.getState()) {
+            case CLOSED -> Status.UP;
+            case HALF_OPEN -> CIRCUIT_HALF_OPEN;
+            case OPEN, FORCED_OPEN -> CIRCUIT_OPEN;
+            case DISABLED, METRICS_ONLY -> Status.UNKNOWN;
+        };
+        return Health.status(status)
+                .withDetail("state", cb.getState())
+                .withDetail("failureRate", metrics.getFailureRate() + "%")
+                .withDetail("slowCallRate", metrics.getSlowCallRate() + "%")
+                .withDetail("bufferedCalls", metrics.getNumberOfBufferedCalls())
+                .withDetail("notPermittedCalls", metrics.getNumberOfNotPermittedCalls())
+                .withDetail("bulkheadAvailablePermits",
+                        resilience.bulkhead(provider).getMetrics().getAvailableConcurrentCalls())
+                .withDetail("rateLimiterAvailablePermissions",
+                        resilience.rateLimiter(provider).getMetrics().getAvailablePermissions())
+                .build();
+    }
 }
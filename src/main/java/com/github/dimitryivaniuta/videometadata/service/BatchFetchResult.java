@@ -0,0 +1,52 @@
+package com.github.dimitryivaniuta.videometadata.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of a multi‑id provider fetch: what was found, keyed by the requested id, and which
+ * requested ids the provider did not return.
+ *
+ * @param found   fetched items by external id, in request order
+ * @param missing requested ids the provider does not know (deleted, private or never existed)
+ * @param <T>     item type of the client
+ */
+public record BatchFetchResult<T>(Map<String, T> found, Set<String> missing) {
+
+    /**
+     * Builds the result of one or more provider responses for {@code requested}.
+     *
+     * @param requested ids asked for
+     * @param found     items the provider returned, by id; ids not requested are ignored
+     */
+    public static <T> BatchFetchResult<T> of(Collection<String> requested, Map<String, T> found) {
+        Map<String, T> byId = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : requested) {
+            T item = found.get(id);
+            if (item != null) {
+                byId.put(id, item);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BatchFetchResult<>(byId, missing);
+    }
+
+    /**
+     * Merges the results of several chunks of one request.
+     */
+    public static <T> BatchFetchResult<T> merge(List<BatchFetchResult<T>> parts) {
+        Map<String, T> found = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (BatchFetchResult<T> part : parts) {
+            found.putAll(part.found());
+            missing.addAll(part.missing());
+        }
+        return new BatchFetchResult<>(found, missing);
+    }
+}
@@ -1,9 +1,13 @@
 package com.github.dimitryivaniuta.videometadata.service;
 
 import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Abstraction for fetching video metadata from an external provider.
  * Implementations must handle provider‑specific API calls, error mapping,
@@ -24,4 +28,66 @@ public interface ExternalVideoClient {
      * @return a {@link Mono} emitting the fetched {@link Video} or an error
      */
     Mono<Video> fetchVideoMetadata(String externalId);
+
+    /**
+     * Conditionally fetches metadata for a video we already store.
+     * <p>
+     * Providers that support HTTP validators send {@code etag} as {@code If-None-Match} and
+     * complete empty when the provider answers {@code 304 Not Modified}. The default performs
+     * an unconditional fetch.
+     *
+     * @param externalId the provider‑specific ID of the video to fetch
+     * @param etag       ETag stored with the video, may be {@code null}
+     * @return a {@link Mono} emitting the fetched {@link Video}, empty if not modified, or an error
+     */
+    default Mono<Video> fetchIfNoneMatch(String externalId, String etag) {
+        return fetchVideoMetadata(externalId);
+    }
+
+    /**
+     * Largest number of ids the provider accepts in one metadata request; {@code 1} if it has no
+     * multi‑get.
+     */
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Fetches metadata of many videos, in as few provider requests as the provider allows.
+     * <p>
+     * Ids are de‑duplicated and sent in chunks of {@link #maxBatchSize()}. Ids the provider
+     * reports as unknown end up in {@link BatchFetchResult#missing()}; any other failure of a
+     * request fails the whole call. The default fetches chunk by chunk with
+     * {@link #fetchVideoMetadata(String)}, treating a {@code 404} or a
+     * {@link YouTubeExternalVideoClient.VideoNotFoundException} as missing.
+     *
+     * @param externalIds provider‑specific ids to fetch
+     * @return a {@link Mono} emitting the videos by id and the ids not found
+     */
+    default Mono<BatchFetchResult<Video>> fetchMany(Collection<String> externalIds) {
+        List<String> ids = externalIds.stream().distinct().toList();
+        return Flux.fromIterable(ids)
+                .buffer(Math.max(1, maxBatchSize()))
+                .concatMap(chunk -> Flux.fromIterable(chunk)
+                        .flatMap(id -> fetchVideoMetadata(id)
+                                .onErrorResume(ExternalVideoClient::isNotFound, ex -> Mono.empty()))
+                        .collectMap(Video::getExternalVideoId)
+                        .map(found -> BatchFetchResult.of(chunk, found)))
+                .collectList()
+                .map(BatchFetchResult::merge);
+    }
+
+    /**
+     * @return whether {@code error} means the provider does not know the requested video
+     */
+    static boolean isNotFound(Throwable error) {
+        // retries wrap the last error, so look through the cause chain
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof YouTubeExternalVideoClient.VideoNotFoundException
+                    || t instanceof WebClientResponseException.NotFound) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,342 @@
+package com.github.dimitryivaniuta.videometadata.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.dimitryivaniuta.videometadata.config.VideoProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two‑tier cache of provider metadata: a bounded in‑process L1 in front of a Redis L2 shared by all nodes.
+ *
+ * <p>Entries are served as is while younger than {@code video.metadata-cache.fresh-for}; for a
+ * further {@code stale-while-revalidate} they are still served, and the first read of a stale entry
+ * refreshes it in the background (from L2 if another node already did, else from the provider).
+ * A provider "not found" (an empty result or a 404) is cached for {@code negative-ttl}. L1 is
+ * evicted by size ({@code l1-max-size}) and by the remaining life of each entry; L2 keys
+ * {@code ext-video:meta:<PROVIDER>:<id>} hold the serialized entry and expire with it.</p>
+ *
+ * <p>{@link #getMany} answers what it can from both tiers and loads all remaining misses with one
+ * batch loader call, so a multi‑get provider is asked once per chunk rather than once per id.</p>
+ *
+ * <p>Concurrent misses of a key share one load within the JVM. If Redis is unavailable the cache
+ * degrades to L1 only. Lookups are counted per tier and result, with the hit ratio of each tier
+ * exported as a gauge.</p>
+ */
+@Slf4j
+@Component
+public class ExternalVideoMetadataCache {
+
+    private static final String KEY_PREFIX = "ext-video:meta:";
+
+    private static final String METRIC_GETS  = "video.metadata.cache.gets";
+    private static final String METRIC_RATIO = "video.metadata.cache.hit.ratio";
+    private static final String METRIC_SIZE  = "video.metadata.cache.size";
+
+    private static final String L1 = "l1";
+    private static final String L2 = "l2";
+
+    /** Plain mapper; the application one carries Redis default typing. */
+    private static final ObjectMapper JSON = JsonMapper.builder().findAndAddModules().build();
+
+    private final ReactiveStringRedisTemplate redis;
+    private final VideoProperties props;
+    private final Cache<String, Entry> l1;
+
+    private final Map<String, Mono<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    private final Tier l1Stats;
+    private final Tier l2Stats;
+
+    public ExternalVideoMetadataCache(ReactiveStringRedisTemplate redis,
+                                      VideoProperties props,
+                                      MeterRegistry registry) {
+        this.redis = redis;
+        this.props = props;
+        this.l1 = Caffeine.newBuilder()
+                .maximumSize(props.getMetadataCache().getL1MaxSize())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return remainingLife(entry).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return remainingLife(entry).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.l1Stats = new Tier(L1, registry);
+        this.l2Stats = new Tier(L2, registry);
+        Gauge.builder(METRIC_SIZE, l1, Cache::estimatedSize)
+                .description("Entries in the in-process metadata cache")
+                .register(registry);
+    }
+
+    /**
+     * Returns the cached metadata of a video, loading it with {@code loader} on a miss.
+     *
+     * @param provider   provider of the video
+     * @param externalId provider‑specific id
+     * @param loader     provider call; empty or a not‑found error means the video does not exist
+     * @return Mono with the metadata, empty if the provider does not know the video
+     */
+    public Mono<ExternalVideoMetadata> get(VideoProvider provider,
+                                           String externalId,
+                                           Supplier<Mono<ExternalVideoMetadata>> loader) {
+        String key = provider.name() + ":" + externalId;
+        return Mono.defer(() -> {
+            Entry local = l1.getIfPresent(key);
+            if (local != null) {
+                l1Stats.record(local);
+                revalidateIfStale(key, local, loader);
+                return Mono.justOrEmpty(local.value());
+            }
+            l1Stats.miss.increment();
+            return shared(key, loader).flatMap(entry -> Mono.justOrEmpty(entry.value()));
+        });
+    }
+
+    /**
+     * Returns the cached metadata of many videos of one provider; the ids missing from both tiers are
+     * loaded with a single {@code loader} call. Ids the loader reports missing are cached as not found.
+     * Misses of this call are not coalesced with concurrent {@link #get} loads of the same key.
+     *
+     * @param provider    provider of the videos
+     * @param externalIds provider‑specific ids
+     * @param loader      provider multi‑get of the ids not cached
+     * @return Flux with the metadata of the videos the provider knows, in no particular order
+     */
+    public Flux<ExternalVideoMetadata> getMany(VideoProvider provider,
+                                               Collection<String> externalIds,
+                                               Function<List<String>, Mono<BatchFetchResult<ExternalVideoMetadata>>> loader) {
+        return Flux.defer(() -> {
+            List<Entry> fromL1 = new ArrayList<>();
+            List<String> l1Misses = new ArrayList<>();
+            for (String id : externalIds.stream().distinct().toList()) {
+                String key = provider.name() + ":" + id;
+                Entry local = l1.getIfPresent(key);
+                if (local != null) {
+                    l1Stats.record(local);
+                    revalidateIfStale(key, local, single(loader, id));
+                    fromL1.add(local);
+                } else {
+                    l1Stats.miss.increment();
+                    l1Misses.add(id);
+                }
+            }
+            return Flux.fromIterable(l1Misses)
+                    .flatMap(id -> readL2(provider.name() + ":" + id).map(entry -> Map.entry(id, entry)))
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                    .flatMapMany(fromL2 -> {
+                        List<String> misses = new ArrayList<>();
+                        for (String id : l1Misses) {
+                            String key = provider.name() + ":" + id;
+                            Entry entry = fromL2.get(id);
+                            if (entry == null) {
+                                l2Stats.miss.increment();
+                                misses.add(id);
+                                continue;
+                            }
+                            l2Stats.record(entry);
+                            l1.put(key, entry);
+                            revalidateIfStale(key, entry, single(loader, id));
+                        }
+                        Flux<Entry> loaded = misses.isEmpty() ? Flux.empty() : Mono.defer(() -> loader.apply(misses))
+                                .flatMapMany(result -> {
+                                    long fetchedAt = System.currentTimeMillis();
+                                    return Flux.fromIterable(misses)
+                                            .concatMap(id -> store(provider.name() + ":" + id,
+                                                    new Entry(result.found().get(id), fetchedAt)));
+                                });
+                        return Flux.fromIterable(fromL2.values()).concatWith(loaded);
+                    })
+                    .startWith(fromL1)
+                    .flatMap(entry -> Mono.justOrEmpty(entry.value()));
+        });
+    }
+
+    /**
+     * The batch loader of {@link #getMany} narrowed to one id, for background revalidation.
+     */
+    private static Supplier<Mono<ExternalVideoMetadata>> single(
+            Function<List<String>, Mono<BatchFetchResult<ExternalVideoMetadata>>> loader, String id) {
+        return () -> loader.apply(List.of(id)).flatMap(result -> Mono.justOrEmpty(result.found().get(id)));
+    }
+
+    /**
+     * Looks the key up in L2, then at the provider; concurrent misses of a key share one load.
+     */
+    private Mono<Entry> shared(String key, Supplier<Mono<ExternalVideoMetadata>> loader) {
+        return inFlight.computeIfAbsent(key, k -> readL2(k)
+                .doOnNext(entry -> {
+                    l2Stats.record(entry);
+                    l1.put(k, entry);
+                    revalidateIfStale(k, entry, loader);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    l2Stats.miss.increment();
+                    return load(k, loader);
+                }))
+                .doFinally(sig -> inFlight.remove(k))
+                .cache());
+    }
+
+    /**
+     * Refreshes a stale entry in the background, once per key at a time; failures keep the stale entry.
+     */
+    private void revalidateIfStale(String key, Entry entry, Supplier<Mono<ExternalVideoMetadata>> loader) {
+        if (!isStale(entry) || !revalidating.add(key)) {
+            return;
+        }
+        readL2(key)
+                // another node may have refreshed it already
+                .filter(fromL2 -> !isStale(fromL2) && fromL2.fetchedAt() > entry.fetchedAt())
+                .doOnNext(fromL2 -> l1.put(key, fromL2))
+                .switchIfEmpty(Mono.defer(() -> load(key, loader)))
+                .doFinally(sig -> revalidating.remove(key))
+                .subscribe(null, ex -> log.debug("Revalidation of {} failed: {}", key, ex.toString()));
+    }
+
+    /**
+     * Calls the provider and stores the result, or the fact that the video does not exist, in both tiers.
+     */
+    private Mono<Entry> load(String key, Supplier<Mono<ExternalVideoMetadata>> loader) {
+        return Mono.defer(loader)
+                .map(value -> new Entry(value, System.currentTimeMillis()))
+                .switchIfEmpty(Mono.fromSupplier(() -> new Entry(null, System.currentTimeMillis())))
+                .onErrorResume(ExternalVideoClient::isNotFound,
+                        ex -> Mono.just(new Entry(null, System.currentTimeMillis())))
+                .flatMap(entry -> store(key, entry));
+    }
+
+    /**
+     * Puts an entry into both tiers.
+     */
+    private Mono<Entry> store(String key, Entry entry) {
+        l1.put(key, entry);
+        return writeL2(key, entry).thenReturn(entry);
+    }
+
+    private Mono<Entry> readL2(String key) {
+        return redis.opsForValue().get(KEY_PREFIX + key)
+                .flatMap(json -> {
+                    try {
+                        return Mono.just(JSON.readValue(json, Entry.class));
+                    } catch (JsonProcessingException ex) {
+                        log.warn("Dropping unreadable cached metadata {}: {}", key, ex.getOriginalMessage());
+                        return Mono.empty();
+                    }
+                })
+                .filter(entry -> !remainingLife(entry).isZero())
+                .onErrorResume(ex -> {
+                    log.debug("Metadata cache L2 unavailable for {}: {}", key, ex.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> writeL2(String key, Entry entry) {
+        Duration ttl = remainingLife(entry);
+        if (ttl.isZero()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> JSON.writeValueAsString(entry))
+                .flatMap(json -> redis.opsForValue().set(KEY_PREFIX + key, json, ttl))
+                .onErrorResume(ex -> {
+                    log.debug("Could not write cached metadata {}: {}", key, ex.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private boolean isStale(Entry entry) {
+        return entry.value() != null
+                && System.currentTimeMillis() - entry.fetchedAt() > props.getMetadataCache().getFreshFor().toMillis();
+    }
+
+    /**
+     * Time an entry may still be served: fresh plus stale window for metadata, the negative TTL for "not found".
+     */
+    private Duration remainingLife(Entry entry) {
+        VideoProperties.MetadataCache cfg = props.getMetadataCache();
+        Duration life = entry.value() == null
+                ? cfg.getNegativeTtl()
+                : cfg.getFreshFor().plus(cfg.getStaleWhileRevalidate());
+        long left = life.toMillis() - (System.currentTimeMillis() - entry.fetchedAt());
+        return left <= 0 ? Duration.ZERO : Duration.ofMillis(left);
+    }
+
+    /**
+     * Cached metadata, or {@code null} for a video the provider does not know.
+     *
+     * @param value     metadata, {@code null} for "not found"
+     * @param fetchedAt epoch millis of the provider call
+     */
+    record Entry(ExternalVideoMetadata value, long fetchedAt) { }
+
+    /**
+     * Lookup counters of one tier.
+     */
+    private final class Tier {
+        private final Counter hit;
+        private final Counter stale;
+        private final Counter miss;
+
+        private Tier(String tier, MeterRegistry registry) {
+            this.hit = lookups(tier, "hit", registry);
+            this.stale = lookups(tier, "stale", registry);
+            this.miss = lookups(tier, "miss", registry);
+            Gauge.builder(METRIC_RATIO, this, Tier::hitRatio)
+                    .description("Share of metadata cache lookups answered by a tier")
+                    .tag("tier", tier)
+                    .register(registry);
+        }
+
+        private void record(Entry entry) {
+            (isStale(entry) ? stale : hit).increment();
+        }
+
+        private double hitRatio() {
+            double hits = hit.count() + stale.count();
+            double total = hits + miss.count();
+            return total == 0 ? 0 : hits / total;
+        }
+    }
+
+    private static Counter lookups(String tier, String result, MeterRegistry registry) {
+        return Counter.builder(METRIC_GETS)
+                .description("Metadata cache lookups, by tier and result")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+}
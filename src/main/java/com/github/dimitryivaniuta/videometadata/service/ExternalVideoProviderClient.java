@@ -2,8 +2,11 @@ package com.github.dimitryivaniuta.videometadata.service;
 
 import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 /**
  * Reactive client for a single external video provider (YouTube, Vimeo, etc.).
  */
@@ -17,6 +20,34 @@ public interface ExternalVideoProviderClient {
      */
     Mono<ExternalVideoMetadata> fetchById(String externalId);
 
+    /**
+     * @return largest number of ids the provider accepts in one request; {@code 1} without multi‑get
+     */
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Fetches metadata of many videos in chunks of {@link #maxBatchSize()} ids.
+     * The default calls {@link #fetchById(String)} per id, treating an empty result, a {@code 404}
+     * or a {@link YouTubeExternalVideoClient.VideoNotFoundException} as missing; clients of providers
+     * with a multi‑get override it with one request per chunk.
+     *
+     * @param externalIds provider-specific video ids
+     * @return mono with metadata by id and the ids not found
+     */
+    default Mono<BatchFetchResult<ExternalVideoMetadata>> fetchMany(Collection<String> externalIds) {
+        return Flux.fromIterable(externalIds.stream().distinct().toList())
+                .buffer(Math.max(1, maxBatchSize()))
+                .concatMap(chunk -> Flux.fromIterable(chunk)
+                        .flatMap(id -> fetchById(id)
+                                .onErrorResume(ExternalVideoClient::isNotFound, ex -> Mono.empty()))
+                        .collectMap(ExternalVideoMetadata::externalId)
+                        .map(found -> BatchFetchResult.of(chunk, found)))
+                .collectList()
+                .map(BatchFetchResult::merge);
+    }
+
     /**
      * @return which provider this client represents.
      */
@@ -0,0 +1,27 @@
+package com.github.dimitryivaniuta.videometadata.service;
+
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import reactor.core.publisher.Flux;
+
+/**
+ * Expands a provider playlist into the ids of the videos it contains.
+ * <p>
+ * Implementations page through the provider API on demand: the next page is only
+ * requested once downstream consumed the previous one, so playlists of any size stream
+ * through in constant memory.
+ */
+public interface PlaylistExpander {
+
+    /**
+     * Streams the external video ids of a playlist in playlist order.
+     *
+     * @param playlistId provider-specific playlist id
+     * @return cold {@link Flux} of external video ids
+     */
+    Flux<String> expand(String playlistId);
+
+    /**
+     * @return which provider this expander represents.
+     */
+    VideoProvider provider();
+}
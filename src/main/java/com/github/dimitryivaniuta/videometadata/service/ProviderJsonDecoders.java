@@ -0,0 +1,201 @@
+package com.github.dimitryivaniuta.videometadata.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.util.function.ThrowingFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token‑level decoders of the provider video responses.
+ *
+ * <p>The clients request only the fields listed here ({@link #YOUTUBE_FIELDS},
+ * {@link #VIMEO_FIELDS}) and read them with a single pass of a streaming {@link JsonParser}
+ * straight into {@link ExternalVideoMetadata}: no intermediate DTO graph, no tree, and anything
+ * else in the payload is skipped without being materialized.</p>
+ */
+public final class ProviderJsonDecoders {
+
+    /** {@code part} of {@code videos.list}; {@code fields} below trims it to what we map. */
+    public static final String YOUTUBE_PART = "snippet,contentDetails";
+
+    /** Partial response of {@code videos.list}. */
+    public static final String YOUTUBE_FIELDS =
+            "etag,items(id,snippet(title,description,publishedAt,channelTitle,thumbnails/default/url),contentDetails/duration)";
+
+    /** Partial response of Vimeo {@code /videos/{id}}. */
+    public static final String VIMEO_FIELDS =
+            "name,description,duration,created_time,user.name,pictures.base_link";
+
+    /** Thread‑safe and meant to be shared. */
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private ProviderJsonDecoders() { }
+
+    /**
+     * Decoded {@code videos.list} response.
+     *
+     * @param etag  ETag of the whole response
+     * @param items one entry per video returned, in response order
+     */
+    public record YouTubeVideos(String etag, List<ExternalVideoMetadata> items) { }
+
+    /**
+     * Joins a response body and decodes it; the buffer is released when decoding ends.
+     *
+     * @param body    response body
+     * @param decoder one of the decoders of this class
+     * @return Mono with the decoded value
+     */
+    public static <T> Mono<T> decode(Flux<DataBuffer> body, ThrowingFunction<InputStream, T> decoder) {
+        return DataBufferUtils.join(body)
+                .map(buffer -> decoder.apply(buffer.asInputStream(true)));
+    }
+
+    /**
+     * Decodes a {@code videos.list} response requested with {@link #YOUTUBE_FIELDS}.
+     */
+    public static YouTubeVideos youtubeVideos(InputStream in) throws IOException {
+        try (JsonParser p = JSON.createParser(in)) {
+            expectObject(p.nextToken());
+            String etag = null;
+            List<ExternalVideoMetadata> items = new ArrayList<>();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if (field.equals("etag")) {
+                    etag = p.getValueAsString();
+                } else if (field.equals("items") && value == JsonToken.START_ARRAY) {
+                    while (p.nextToken() == JsonToken.START_OBJECT) {
+                        items.add(youtubeItem(p));
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return new YouTubeVideos(etag, items);
+        }
+    }
+
+    /**
+     * Decodes a Vimeo {@code /videos/{id}} response requested with {@link #VIMEO_FIELDS}.
+     *
+     * @param externalId id the video was requested by; Vimeo does not echo it with these fields
+     */
+    public static ExternalVideoMetadata vimeoVideo(InputStream in, String externalId) throws IOException {
+        try (JsonParser p = JSON.createParser(in)) {
+            expectObject(p.nextToken());
+            ExternalVideoMetadata.ExternalVideoMetadataBuilder b = ExternalVideoMetadata.builder()
+                    .externalId(externalId)
+                    .provider(VideoProvider.VIMEO);
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "name" -> b.title(p.getValueAsString());
+                    case "description" -> b.description(p.getValueAsString());
+                    // seconds
+                    case "duration" -> b.duration(Duration.ofSeconds(p.getValueAsLong()));
+                    case "created_time" -> b.publishedAt(instant(p.getValueAsString()));
+                    case "user" -> b.channelName(child(p, value, "name"));
+                    case "pictures" -> b.thumbnailUrl(child(p, value, "base_link"));
+                    default -> p.skipChildren();
+                }
+            }
+            return b.build();
+        }
+    }
+
+    private static ExternalVideoMetadata youtubeItem(JsonParser p) throws IOException {
+        ExternalVideoMetadata.ExternalVideoMetadataBuilder b = ExternalVideoMetadata.builder()
+                .provider(VideoProvider.YOUTUBE);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (field.equals("id")) {
+                b.externalId(p.getValueAsString());
+            } else if (field.equals("snippet") && value == JsonToken.START_OBJECT) {
+                youtubeSnippet(p, b);
+            } else if (field.equals("contentDetails") && value == JsonToken.START_OBJECT) {
+                String duration = child(p, value, "duration");
+                // ISO‑8601 durations like PT1H2M10S
+                b.duration(duration == null ? Duration.ZERO : Duration.parse(duration));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return b.build();
+    }
+
+    private static void youtubeSnippet(JsonParser p, ExternalVideoMetadata.ExternalVideoMetadataBuilder b) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "title" -> b.title(p.getValueAsString());
+                case "description" -> b.description(p.getValueAsString());
+                case "publishedAt" -> b.publishedAt(instant(p.getValueAsString()));
+                case "channelTitle" -> b.channelName(p.getValueAsString());
+                case "thumbnails" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String size = p.currentName();
+                            JsonToken thumb = p.nextToken();
+                            if (size.equals("default")) {
+                                b.thumbnailUrl(child(p, thumb, "url"));
+                            } else {
+                                p.skipChildren();
+                            }
+                        }
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the scalar {@code name} of the object the parser is on and leaves the parser at its end.
+     */
+    private static String child(JsonParser p, JsonToken current, String name) throws IOException {
+        if (current != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        String result = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if (field.equals(name)) {
+                result = p.getValueAsString();
+            } else {
+                p.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private static Instant instant(String value) {
+        // RFC 3339 with either "Z" or a numeric offset
+        return value == null ? null : OffsetDateTime.parse(value).toInstant();
+    }
+
+    private static void expectObject(JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object but got " + token);
+        }
+    }
+}
@@ -1,23 +1,28 @@
 package com.github.dimitryivaniuta.videometadata.service;
 
 import com.github.dimitryivaniuta.videometadata.event.VideoImportRequestedEvent;
+import com.github.dimitryivaniuta.videometadata.imports.ImportJobWorker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 /**
- * Listens for import requests and delegates to the processor.
+ * Listens for import requests and wakes the durable queue worker.
+ * <p>
+ * The submission row is already persisted as QUEUED; processing happens on whichever
+ * node claims it, so this listener only shortens the pickup latency on the local node.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class VideoImportEventListener {
 
-    private final VideoImportProcessor processor;
+    private final ImportJobWorker worker;
 
     @EventListener
     public void onVideoImportRequested(VideoImportRequestedEvent ev) {
-        processor.processImport(ev.getUsername(), ev.getRequest());
+        log.debug("Import {} queued, waking worker", ev.getSubmissionId());
+        worker.wakeUp();
     }
-}
\ No newline at end of file
+}
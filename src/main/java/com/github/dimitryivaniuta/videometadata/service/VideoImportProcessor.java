@@ -4,25 +4,55 @@ package com.github.dimitryivaniuta.videometadata.service;
 import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
 import com.github.dimitryivaniuta.videometadata.domain.entity.User;
 import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
 import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
-import com.github.dimitryivaniuta.videometadata.event.AsyncErrorEvent;
+import com.github.dimitryivaniuta.videometadata.imports.FairShareScheduler;
+import com.github.dimitryivaniuta.videometadata.imports.ImportJobKey;
+import com.github.dimitryivaniuta.videometadata.imports.ImportProgressTracker;
+import com.github.dimitryivaniuta.videometadata.imports.ImportRetryQueue;
+import com.github.dimitryivaniuta.videometadata.imports.RedisImportAdmission;
+import com.github.dimitryivaniuta.videometadata.imports.SingleFlightFetcher;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportRequest;
-import io.github.resilience4j.retry.Retry;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
-import reactor.util.retry.RetryBackoffSpec;
+import reactor.core.publisher.Mono;
 
-import java.lang.reflect.Method;
-import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Performs the actual import logic (rate‑limiting, duplication, fetch & persist).
+ * <p>
+ * Requested ids and, if given, the playlist ids streamed by the provider's {@link PlaylistExpander}
+ * are processed in windows of {@code app.import.batch.size}: per window, already stored ids are
+ * dropped with one query and rate limiting / duplicate suppression are decided at once by
+ * {@link RedisImportAdmission}; rejected ids are counted, the rest continue. Windows are pulled
+ * on demand, so large playlists are never materialized.
+ * <p>
+ * New ids are fetched in multi‑get batches of the client's {@link ExternalVideoClient#maxBatchSize()}
+ * (50 for YouTube), one provider call and one scheduler slot per batch; ids the provider does not
+ * return count as failed. Batches and single ids both go through the {@link SingleFlightFetcher},
+ * so an id is fetched once across submissions and nodes whichever path asks for it.
+ * <p>
+ * Provider calls run through the node‑wide {@link FairShareScheduler}; they are retried once, inside
+ * the clients, under the provider's retry budget. Errors are isolated per call:
+ * new ids whose fetch or insert fails (including a call rejected because the backlog is full)
+ * count as failed and is handed to the persisted {@link ImportRetryQueue}, except ids the provider
+ * does not know, which are only counted; the rest of the submission carries on. Ids that hit a spent provider quota are deferred there until the quota resets.
+ * <p>
+ * Forced imports refresh stored ids instead of skipping them: the provider is asked with the
+ * stored ETag as {@code If-None-Match}, and a {@code 304} or unchanged content under the same ETag
+ * causes no write.
+ * <p>
+ * Fetched videos are written in windows ({@code app.import.batch}) through one multi‑row
+ * {@code INSERT ... ON CONFLICT DO NOTHING} plus, for refreshed rows, one batched UPDATE
+ * per window; inserted vs skipped counts of every
+ * window go to the in‑memory counters of {@link ImportProgressTracker}, which coalesces them
+ * into periodic statistics updates and live progress frames.
  */
 @Component
 @RequiredArgsConstructor
@@ -31,93 +61,263 @@ public class VideoImportProcessor {
 
     private final VideoService                  videoService;
     private final UserService                   userService;
-    private final ReactiveRedisTemplate<String,Object> redis;
+    private final RedisImportAdmission          admission;
     private final ImportProperties              props;
     private final Map<VideoProvider,ExternalVideoClient> clients;
-    private final ApplicationEventPublisher     publisher;
-
-    private RetryBackoffSpec retrySpec;
-    private Method            asyncMethod;
-
-    @PostConstruct
-    public void init() throws NoSuchMethodException {
-        retrySpec = Retry.fixedDelay(
-                props.getThrottle().getServiceRetry().getMaxAttempts(),
-                props.getThrottle().getServiceRetry().getBackoff()
-        ).toRetryBackoffSpec();
-        asyncMethod = this.getClass()
-                .getMethod("processImport", String.class, VideoImportRequest.class);
-    }
+    private final ImportProgressTracker         progress;
+    private final FairShareScheduler            scheduler;
+    private final SingleFlightFetcher           singleFlight;
+    private final List<PlaylistExpander>        playlistExpanders;
+    private final ImportRetryQueue              retries;
 
     /**
-     * Invoked asynchronously when an import is requested.
+     * Runs one import submission to completion.
+     * <p>
+     * Invoked by {@link com.github.dimitryivaniuta.videometadata.imports.ImportJobWorker} for every
+     * claimed submission; the returned {@link Mono} completes when all ids were handled and errors
+     * if the submission must be marked FAILED.
+     *
+     * @param submission claimed submission row (owner, statistics target)
+     * @param request    provider, external ids, force flag
+     * @return Mono completing when the import is done
      */
-    @org.springframework.scheduling.annotation.Async("taskExecutor")
-    public void processImport(String username,
-                              VideoImportRequest request) {
-        var client = clients.get(request.getProvider());
+    public Mono<Void> processImport(VideoImportSubmission submission,
+                                    VideoImportRequest request) {
+        var client = clients.get(request.provider());
         if (client == null) {
-            log.error("No ExternalVideoClient for {}", request.getProvider());
-            return;
+            return Mono.error(new IllegalStateException("No ExternalVideoClient for " + request.provider()));
         }
+        String username = submission.getUsername();
+        ImportProperties.Batch batch = props.getBatch();
+        Mono<Long> ownerId = userService.getByUsername(username)
+                .map(User::getId)
+                .switchIfEmpty(Mono.error(new IllegalStateException("Unknown import owner " + username)))
+                .cache();
 
-        Flux.fromIterable(request.getExternalIds())
-                // per‑user rate limit
-                .flatMap(extId -> {
-                    String key = "import:rate:" + username;
-                    return redis.opsForValue().increment(key,1)
-                            .flatMap(count -> {
-                                if (count == 1) {
-                                    return redis.expire(key, props.getPerUser().getWindow())
-                                            .thenReturn(count);
-                                }
-                                return Flux.just(count).single();
+        ImportProgressTracker.Counters counters = progress.open(submission);
+        int fetchBatchSize = Math.max(1, client.maxBatchSize());
+
+        // explicit ids first, then the playlist, streamed page by page
+        return Flux.fromIterable(request.safeExternalIds())
+                .concatWith(expandPlaylist(request))
+                .buffer(batch.getSize())
+                .concatMap(window -> admitWindow(submission, request, window, fetchBatchSize, counters), 1)
+                // new ids are fetched in provider multi-gets, forced refreshes conditionally one by one;
+                // node-wide slots are shared fairly with other users' imports
+                .flatMap(item -> item.current() == null
+                                ? fetchNew(submission, request.provider(), client, item.externalIds(), counters)
+                                : refresh(username, request.provider(), client, item.current(), counters).flux()
+                        // the scheduler's adaptive per-provider limit decides how many actually run
+                        , scheduler.maxConcurrent(request.provider()))
+                // persist in windows of batch.size or batch.maxWait, whichever comes first
+                .bufferTimeout(batch.getSize(), batch.getMaxWait())
+                .concatMap(fetched -> persist(submission, request.provider(), fetched, ownerId, counters))
+                .doOnError(err -> log.error("Import {} of {} failed: {}",
+                        submission.getSubmissionId(), username, err.toString()))
+                .then();
+    }
+
+    /**
+     * Runs the existence pre-check and Redis admission for one window of ids.
+     * Stored ids are dropped unless the import is forced, in which case they are refreshed;
+     * new ids are grouped into batches of {@code fetchBatchSize}.
+     */
+    private Flux<ImportItem> admitWindow(VideoImportSubmission submission,
+                                         VideoImportRequest request,
+                                         List<String> window,
+                                         int fetchBatchSize,
+                                         ImportProgressTracker.Counters counters) {
+        counters.requested(window.size());
+        boolean forced = request.forced();
+        // one set-based query before spending Redis, quota or HTTP on stored ids
+        return videoService.findExistingExternalIds(request.provider(), window)
+                .flatMapMany(existing -> {
+                    List<String> candidates = forced
+                            ? window
+                            : window.stream().filter(extId -> !existing.contains(extId)).toList();
+                    // per‑user rate limit + duplicate suppression, one Redis round trip
+                    return admission.admit(submission.getUsername(), submission.getSubmissionId(), candidates)
+                            .onErrorResume(ex -> {
+                                // admission unavailable: nothing of this window is fetched now
+                                log.warn("Import {}: admission of {} id(s) failed: {}",
+                                        submission.getSubmissionId(), candidates.size(), ex.toString());
+                                counters.failed(candidates.size());
+                                return Flux.fromIterable(candidates)
+                                        .concatMap(extId -> retries.enqueue(submission, request.provider(), extId, ex))
+                                        .then(Mono.empty());
                             })
-                            .flatMap(count -> {
-                                if (count > props.getPerUser().getRateLimitPerUser()) {
-                                    return Flux.<Video>error(
-                                                    new RuntimeException("Rate limit exceeded"))
-                                            .single();
+                            .flatMapMany(res -> {
+                                if (!res.rateLimited().isEmpty() || !res.duplicates().isEmpty()) {
+                                    log.warn("Import {}: {} id(s) rate limited, {} duplicate(s) rejected",
+                                            submission.getSubmissionId(),
+                                            res.rateLimited().size(), res.duplicates().size());
                                 }
-                                return Flux.just(extId).single();
+                                counters.accepted(res.admitted().size());
+                                counters.skipped((forced ? 0 : existing.size()) + res.duplicates().size());
+                                counters.failed(res.rateLimited().size());
+
+                                List<String> refreshIds = res.admitted().stream()
+                                        .filter(existing::contains)
+                                        .toList();
+                                return videoService.findByProviderAndExternalIds(request.provider(), refreshIds)
+                                        .collectMap(Video::getExternalVideoId)
+                                        .flatMapMany(stored -> Flux.fromIterable(res.admitted())
+                                                .filter(extId -> !stored.containsKey(extId))
+                                                .buffer(fetchBatchSize)
+                                                .map(extIds -> new ImportItem(extIds, null))
+                                                .concatWith(Flux.fromIterable(stored.values())
+                                                        .map(v -> new ImportItem(List.of(v.getExternalVideoId()), v))));
                             });
+                });
+    }
+
+    /**
+     * Fetches a batch of new ids through the {@link SingleFlightFetcher}: ids in flight elsewhere are
+     * joined, the others are fetched with one provider multi-get. Ids the provider does not return
+     * count as failed; ids of a failed call count as failed and are queued for retry.
+     */
+    private Flux<Fetched> fetchNew(VideoImportSubmission submission,
+                                   VideoProvider provider,
+                                   ExternalVideoClient client,
+                                   List<String> extIds,
+                                   ImportProgressTracker.Counters counters) {
+        if (extIds.size() == 1) {
+            return fetchNew(submission, provider, client, extIds.get(0), counters).flux();
+        }
+        return singleFlight.fetchMany(provider, extIds,
+                        ids -> scheduler.schedule(submission.getUsername(), provider, () -> client.fetchMany(ids)))
+                .concatMap(fetch -> {
+                    if (fetch.video() != null) {
+                        // the instance may be shared with a concurrent submission
+                        return Mono.just(new Fetched(fetch.video().toBuilder().build(), false));
+                    }
+                    if (fetch.error() == null) {
+                        counters.skipped(1);
+                        return Mono.empty();
+                    }
+                    counters.failed(1);
+                    if (ExternalVideoClient.isNotFound(fetch.error())) {
+                        log.warn("Import {}: {} id {} not found", submission.getSubmissionId(), provider, fetch.externalId());
+                        return Mono.empty();
+                    }
+                    return retries.enqueue(submission, provider, fetch.externalId(), fetch.error())
+                            .then(Mono.<Fetched>empty());
+                });
+    }
+
+    /**
+     * Fetches one new id, once per (provider, id) across submissions and nodes. Like the batch path,
+     * an id the provider does not know counts as failed without being queued for retry.
+     */
+    private Mono<Fetched> fetchNew(VideoImportSubmission submission,
+                                   VideoProvider provider,
+                                   ExternalVideoClient client,
+                                   String extId,
+                                   ImportProgressTracker.Counters counters) {
+        return singleFlight.fetch(new ImportJobKey(provider, extId),
+                        () -> scheduler.schedule(submission.getUsername(), provider,
+                                () -> client.fetchVideoMetadata(extId)))
+                // the instance may be shared with a concurrent submission
+                .map(video -> new Fetched(video.toBuilder().build(), false))
+                .switchIfEmpty(Mono.fromRunnable(() -> counters.skipped(1)))
+                .onErrorResume(ex -> {
+                    counters.failed(1);
+                    if (ExternalVideoClient.isNotFound(ex)) {
+                        log.warn("Import {}: {} id {} not found", submission.getSubmissionId(), provider, extId);
+                        return Mono.empty();
+                    }
+                    return retries.enqueue(submission, provider, extId, ex).then(Mono.empty());
+                });
+    }
+
+    /**
+     * Re-fetches a stored video with {@code If-None-Match}; a 304 or unchanged content under the same
+     * ETag ends here without a write, changed metadata or a new ETag is handed on for the batched UPDATE.
+     */
+    private Mono<Fetched> refresh(String username,
+                                  VideoProvider provider,
+                                  ExternalVideoClient client,
+                                  Video current,
+                                  ImportProgressTracker.Counters counters) {
+        return scheduler.schedule(username, provider,
+                        () -> client.fetchIfNoneMatch(current.getExternalVideoId(), current.getEtag()))
+                // a new ETag alone is worth writing: the next refresh can then get a 304
+                .filter(fresh -> !fresh.hasSameMetadata(current)
+                        || !Objects.equals(fresh.getEtag(), current.getEtag()))
+                .map(fresh -> new Fetched(fresh.toBuilder().id(current.getId()).build(), true))
+                .switchIfEmpty(Mono.fromRunnable(() -> counters.skipped(1)))
+                .onErrorResume(ex -> {
+                    // the stored row stays as is; the stale-metadata refresh picks it up later
+                    log.debug("Refresh of {}:{} failed: {}", provider, current.getExternalVideoId(), ex.toString());
+                    counters.failed(1);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Writes one window: new videos with one multi-row INSERT, refreshed ones with one batched UPDATE.
+     * A failed INSERT hands its ids to the retry queue; a failed UPDATE counts its rows as failed.
+     */
+    private Mono<Void> persist(VideoImportSubmission submission,
+                               VideoProvider provider,
+                               List<Fetched> fetched,
+                               Mono<Long> ownerId,
+                               ImportProgressTracker.Counters counters) {
+        List<Video> inserts = fetched.stream().filter(f -> !f.update()).map(Fetched::video).toList();
+        List<Video> updates = fetched.stream().filter(Fetched::update).map(Fetched::video).toList();
+
+        Mono<Void> insert = inserts.isEmpty() ? Mono.empty() : ownerId
+                .map(owner -> {
+                    inserts.forEach(v -> v.setCreatedByUserId(owner));
+                    return inserts;
                 })
-                // duplicate suppression
-                .flatMap(extId -> {
-                    String dupKey = "import:dup:" + username + ":" + extId;
-                    return redis.opsForValue()
-                            .setIfAbsent(dupKey, "1",
-                                    Duration.ofMillis(props.getPerUser().getDuplicateCacheTtlMs()))
-                            .flatMap(set -> set
-                                    ? Flux.<String>just(extId).single()
-                                    : props.getThrottle().isDuplicateJobReject()
-                                    ? Flux.<String>error(
-                                            new RuntimeException("Duplicate import " + extId))
-                                    .single()
-                                    : Flux.<String>just(extId).single()
-                            );
+                .flatMap(videoService::insertIgnoringDuplicates)
+                .doOnNext(inserted -> {
+                    counters.succeeded(inserted);
+                    counters.skipped(inserts.size() - inserted);
                 })
-                // fetch & persist
-                .flatMap(extId ->
-                                videoService.existsByProviderAndExternalIdMono(
-                                        request.getProvider(), extId
-                                ).flatMap(exists -> {
-                                    if (exists) return Flux.<Video>empty().single();
-                                    return client.fetchVideoMetadata(extId)
-                                            .retryWhen(retrySpec)
-                                            .flatMap(v -> userService
-                                                    .findByUsernameMono(username)
-                                                    .map((User u) -> { v.setCreatedBy(u); return v; }))
-                                            .flatMap(videoService::saveMono);
-                                })
-                        , props.getThrottle().getMaxConcurrent())
-                .doOnError(err -> {
-                    log.error("Async import error for {}: {}", username, err.toString());
-                    publisher.publishEvent(
-                            new AsyncErrorEvent(this, err, asyncMethod,
-                                    new Object[]{username, request})
-                    );
+                .then()
+                .onErrorResume(ex -> {
+                    log.warn("Import {}: insert of {} video(s) failed: {}",
+                            submission.getSubmissionId(), inserts.size(), ex.toString());
+                    counters.failed(inserts.size());
+                    return Flux.fromIterable(inserts)
+                            .concatMap(v -> retries.enqueue(submission, provider, v.getExternalVideoId(), ex))
+                            .then();
+                });
+        Mono<Void> update = updates.isEmpty() ? Mono.empty() : videoService.updateMetadataBatch(updates)
+                .doOnNext(updated -> {
+                    counters.succeeded(updated);
+                    counters.skipped(updates.size() - updated);
                 })
-                .subscribe();
+                .then()
+                .onErrorResume(ex -> {
+                    log.warn("Import {}: update of {} video(s) failed: {}",
+                            submission.getSubmissionId(), updates.size(), ex.toString());
+                    counters.failed(updates.size());
+                    return Mono.empty();
+                });
+        return insert.then(update);
+    }
+
+    /**
+     * Streams the ids of the requested playlist, or nothing if the request has none.
+     */
+    private Flux<String> expandPlaylist(VideoImportRequest request) {
+        if (!StringUtils.hasText(request.externalPlaylistId())) {
+            return Flux.empty();
+        }
+        return playlistExpanders.stream()
+                .filter(expander -> expander.provider() == request.provider())
+                .findFirst()
+                .map(expander -> expander.expand(request.externalPlaylistId()))
+                .orElseGet(() -> Flux.error(new IllegalStateException(
+                        "Playlist import not supported for " + request.provider())));
     }
+
+    /** Admitted new ids fetched together, or one id with its stored row ({@code current}) to refresh. */
+    private record ImportItem(List<String> externalIds, Video current) { }
+
+    /** A fetched video and whether it updates a stored row or is inserted. */
+    private record Fetched(Video video, boolean update) { }
 }
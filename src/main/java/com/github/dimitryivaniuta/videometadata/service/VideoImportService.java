@@ -1,8 +1,10 @@
 package com.github.dimitryivaniuta.videometadata.service;
 
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportProgressResponse;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportRequest;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportSubmissionResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -28,6 +30,17 @@ public interface VideoImportService {
      */
     Mono<VideoImportSubmissionResponse> startImport(String username, VideoImportRequest request);
 
+    /**
+     * Schedules an import at most once per {@code idempotencyKey}: a repeated key returns the
+     * response of the first request without creating another submission.
+     *
+     * @param username       current user's username
+     * @param request        provider, external ids/playlist, force flag etc.
+     * @param idempotencyKey client‑chosen key, {@code null} to behave like {@link #startImport(String, VideoImportRequest)}
+     * @return Mono emitting the queued (or originally queued) submission descriptor
+     */
+    Mono<VideoImportSubmissionResponse> startImport(String username, VideoImportRequest request, String idempotencyKey);
+
     /**
      * Returns current progress / status by submission id.
      *
@@ -35,4 +48,24 @@ public interface VideoImportService {
      * @return Mono with current progress snapshot, or empty if unknown id
      */
     Mono<VideoImportProgressResponse> getProgress(String submissionId);
-}
\ No newline at end of file
+
+    /**
+     * Streams live progress of a submission: the stored state first, then every counter flush,
+     * completing after the terminal frame.
+     *
+     * @param submissionId unique id returned by {@link #startImport(String, VideoImportRequest)}
+     * @return Flux of progress snapshots, empty if unknown id
+     */
+    Flux<ImportProgressSnapshot> streamProgress(String submissionId);
+
+    /**
+     * Cancels a queued or running import and, for a chunked one, all of its open chunks.
+     * Work already done is kept and counted in the statistics; ids still waiting in the retry
+     * queue are dropped. Cancelling a submission that already ended changes nothing.
+     *
+     * @param submissionId unique id returned by {@link #startImport(String, VideoImportRequest)}
+     * @param username     user cancelling the import
+     * @return Mono with the resulting progress snapshot, or empty if unknown id
+     */
+    Mono<ImportProgressSnapshot> cancelImport(String submissionId, String username);
+}
@@ -7,8 +7,10 @@ import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoRequest;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Reactive API for managing video metadata entities.
@@ -46,12 +48,30 @@ public interface VideoService {
 
     /**
      * Refreshes metadata for an existing video from the external provider and updates the stored entity.
+     * Nothing is written when the provider returns the metadata already stored.
      *
      * @param videoId internal video ID
-     * @return Mono emitting the updated {@link Video}
+     * @return Mono emitting the updated (or unchanged) {@link Video}
      */
     Mono<Video> updateMetadata(Long videoId);
 
+    /**
+     * Persists a batch of videos with a single multi-row INSERT, skipping rows that already
+     * exist for the same (provider, external id).
+     *
+     * @param videos videos to insert
+     * @return Mono emitting how many rows were actually inserted
+     */
+    Mono<Integer> insertIgnoringDuplicates(List<Video> videos);
+
+    /**
+     * Writes refreshed provider metadata of many videos with a single batched UPDATE.
+     *
+     * @param videos refreshed videos carrying their internal id
+     * @return Mono emitting how many rows were updated
+     */
+    Mono<Integer> updateMetadataBatch(List<Video> videos);
+
     /**
      * Deletes a video by its ID.
      *
@@ -94,4 +114,25 @@ public interface VideoService {
      */
     Mono<Boolean> existsByProviderAndExternalIdMono(VideoProvider provider,
                                                     String externalVideoId);
+
+    /**
+     * Returns which of the given external ids are already stored for the provider,
+     * using a single query instead of one existence check per id.
+     *
+     * @param provider    the video source
+     * @param externalIds external IDs to check
+     * @return a {@link Mono} emitting the subset of {@code externalIds} that already exists
+     */
+    Mono<Set<String>> findExistingExternalIds(VideoProvider provider,
+                                              Collection<String> externalIds);
+
+    /**
+     * Loads the stored videos for the given external ids of a provider with a single query.
+     *
+     * @param provider    the video source
+     * @param externalIds external IDs to load
+     * @return a {@link Flux} of the stored videos
+     */
+    Flux<Video> findByProviderAndExternalIds(VideoProvider provider,
+                                             Collection<String> externalIds);
 }
@@ -1,50 +1,62 @@
 package com.github.dimitryivaniuta.videometadata.service;
 
-import com.github.dimitryivaniuta.videometadata.config.ProvidersProperties;
 import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
 import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
-import com.github.dimitryivaniuta.videometadata.web.dto.provider.vimeo.VimeoVideoResponse;
-import lombok.RequiredArgsConstructor;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRequestHedger;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRetryPolicy;
+import com.github.dimitryivaniuta.videometadata.resilience.ProviderResilience;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
 import java.time.Duration;
 
 /**
  * Fetches video metadata from Vimeo’s API.
+ * Only the mapped fields are requested ({@code fields=}) and decoded token by token by
+ * {@link ProviderJsonDecoders}. All calls share the pooled, pre‑authenticated {@code vimeoWebClient}
+ * and are retried by the shared {@link ProviderRetryPolicy}; they may be hedged by the
+ * {@link ProviderRequestHedger}. Each request passes Vimeo's own bulkhead, rate limiter and circuit
+ * breaker ({@link ProviderResilience}), so a Vimeo outage does not hold back other providers.
  */
 @Component
-@RequiredArgsConstructor
 public class VimeoExternalVideoClient implements ExternalVideoClient {
 
-    private final ProvidersProperties props;
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
+    private final ProviderRetryPolicy retryPolicy;
+    private final ProviderRequestHedger hedger;
+    private final ProviderResilience resilience;
+
+    public VimeoExternalVideoClient(@Qualifier("vimeoWebClient") WebClient webClient,
+                                    ProviderRetryPolicy retryPolicy,
+                                    ProviderRequestHedger hedger,
+                                    ProviderResilience resilience) {
+        this.webClient = webClient;
+        this.retryPolicy = retryPolicy;
+        this.hedger = hedger;
+        this.resilience = resilience;
+    }
 
     /**
      * {@inheritDoc}
      */
     @Override
     public Mono<Video> fetchVideoMetadata(String externalId) {
-        return webClientBuilder
-                .baseUrl(props.getVimeo().getBaseUrl())
-                .build()
+        return webClient
                 .get()
-                .uri("/videos/{id}", externalId)
-                .headers(h -> h.setBearerAuth(props.getVimeo().getAccessToken()))
+                .uri(uri -> uri
+                        .path("/videos/{id}")
+                        .queryParam("fields", ProviderJsonDecoders.VIMEO_FIELDS)
+                        .build(externalId))
                 .retrieve()
-                .bodyToMono(VimeoVideoResponse.class)
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> ProviderJsonDecoders.decode(body, in -> ProviderJsonDecoders.vimeoVideo(in, externalId)))
                 .timeout(Duration.ofSeconds(5))
-                .retryWhen(Retry.fixedDelay(3, Duration.ofSeconds(1)))
-                .map(resp -> Video.builder()
-                        .externalId(externalId)
-                        .provider(VideoProvider.VIMEO)
-                        .title(resp.name())
-                        // Vimeo returns duration in seconds; convert to ms
-                        .durationMillis(resp.duration() * 1_000L)
-                        .uploadDateTime(resp.createdTime())
-                        .build()
-                );
+                .transform(resilience.protect(VideoProvider.VIMEO))
+                .transform(hedger.hedged(VideoProvider.VIMEO))
+                .transform(retryPolicy.withRetry(VideoProvider.VIMEO, "client"))
+                .map(meta -> meta.toImportedVideo(null));
     }
 }
@@ -0,0 +1,53 @@
+package com.github.dimitryivaniuta.videometadata.service;
+
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Vimeo metadata for {@link ExternalVideoAggregationService}.
+ * <p>
+ * Plain {@code /videos/{id}} calls on the pooled, pre‑authenticated {@code vimeoWebClient},
+ * trimmed to the mapped fields like {@link VimeoExternalVideoClient}. Vimeo has no multi‑get, so
+ * {@link #fetchMany} is the default one call per id; a {@code 404} completes empty. Timeouts,
+ * resilience, hedging and retries are applied per request by the aggregation service.
+ */
+@Component
+public class VimeoVideoProviderClient implements ExternalVideoProviderClient {
+
+    private final WebClient webClient;
+
+    public VimeoVideoProviderClient(@Qualifier("vimeoWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<ExternalVideoMetadata> fetchById(String externalId) {
+        return webClient
+                .get()
+                .uri(uri -> uri
+                        .path("/videos/{id}")
+                        .queryParam("fields", ProviderJsonDecoders.VIMEO_FIELDS)
+                        .build(externalId))
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> ProviderJsonDecoders.decode(body, in -> ProviderJsonDecoders.vimeoVideo(in, externalId)))
+                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.empty());
+    }
+
+    /**
+     * @return {@link VideoProvider#VIMEO}
+     */
+    @Override
+    public VideoProvider provider() {
+        return VideoProvider.VIMEO;
+    }
+}
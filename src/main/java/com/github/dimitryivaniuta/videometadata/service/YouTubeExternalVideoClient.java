@@ -1,68 +1,183 @@
 package com.github.dimitryivaniuta.videometadata.service;
 
-import com.github.dimitryivaniuta.videometadata.config.ProvidersProperties;
 import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
 import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
-import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.ContentDetails;
-import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.PlaylistItem;
-import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.YouTubePlaylistResponse;
-import lombok.RequiredArgsConstructor;
+import com.github.dimitryivaniuta.videometadata.imports.AdaptiveConcurrencyLimiter;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderQuotaLedger;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRequestHedger;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRetryPolicy;
+import com.github.dimitryivaniuta.videometadata.resilience.ProviderResilience;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
+import java.net.URI;
 import java.time.Duration;
-import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Fetches video metadata from YouTube via the Data API v3.
+ * <p>
+ * The response ETag is stored with the video; refreshes send it back as
+ * {@code If-None-Match}, and a {@code 304} costs neither body parsing nor a DB write.
+ * Only the mapped fields are requested ({@code fields=}) and decoded token by token by
+ * {@link ProviderJsonDecoders}. All calls share the pooled {@code youtubeWebClient}. {@link #fetchMany} asks for up to
+ * {@value #MAX_IDS_PER_REQUEST} ids per request, which costs the same quota as a single id.
+ * Failed requests are retried by the shared {@link ProviderRetryPolicy}, never after a spent quota.
+ * Every request is charged {@value #VIDEOS_LIST_COST} unit to a key of the pool picked by the
+ * {@link ProviderQuotaLedger}; a key YouTube reports as spent is taken out of rotation for the day
+ * and the request is sent once more with a fresh key, or deferred if none is left.
+ * Single‑video requests may be hedged by the {@link ProviderRequestHedger} (each copy is charged).
+ * Every request, including each retry and hedge, passes YouTube's own bulkhead, rate limiter and
+ * circuit breaker ({@link ProviderResilience}); a key is only charged once they let it through.
  */
 @Component
-@RequiredArgsConstructor
 public class YouTubeExternalVideoClient implements ExternalVideoClient {
 
-    private final ProvidersProperties props;
-    private final WebClient.Builder webClientBuilder;
+    /** Upper bound of comma-separated ids accepted by {@code videos.list}. */
+    public static final int MAX_IDS_PER_REQUEST = 50;
+
+    /** Quota units charged for one {@code videos.list} call, whatever the number of ids. */
+    public static final int VIDEOS_LIST_COST = 1;
+
+    private final WebClient webClient;
+    private final ProviderRetryPolicy retryPolicy;
+    private final ProviderQuotaLedger quota;
+    private final ProviderRequestHedger hedger;
+    private final ProviderResilience resilience;
+
+    public YouTubeExternalVideoClient(@Qualifier("youtubeWebClient") WebClient webClient,
+                                      ProviderRetryPolicy retryPolicy,
+                                      ProviderQuotaLedger quota,
+                                      ProviderRequestHedger hedger,
+                                      ProviderResilience resilience) {
+        this.webClient = webClient;
+        this.retryPolicy = retryPolicy;
+        this.quota = quota;
+        this.hedger = hedger;
+        this.resilience = resilience;
+    }
 
     /**
      * {@inheritDoc}
      */
     @Override
     public Mono<Video> fetchVideoMetadata(String externalId) {
-        return webClientBuilder
-                .baseUrl(props.getYoutube().getBaseUrl())
-                .build()
-                .get()
-                .uri(uri -> uri
-                        .path("/youtube/v3/videos")
-                        .queryParam("part", "snippet,contentDetails")
-                        .queryParam("id", externalId)
-                        .queryParam("key", props.getYoutube().getApiKey())
-                        .build())
-                .retrieve()
-                .bodyToMono(YouTubePlaylistResponse.class)
+        return fetchIfNoneMatch(externalId, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Video> fetchIfNoneMatch(String externalId, String etag) {
+        return quota.withKey(VideoProvider.YOUTUBE, VIDEOS_LIST_COST, apiKey -> fetchOne(externalId, etag, apiKey))
                 .timeout(Duration.ofSeconds(5))
-                .retryWhen(Retry.fixedDelay(3, Duration.ofSeconds(1)))
-                .flatMap(resp -> {
-                    if (resp.getItems().isEmpty()) {
-                        return Mono.error(
-                                new VideoNotFoundException("YouTube", externalId));
+                .transform(resilience.protect(VideoProvider.YOUTUBE))
+                .transform(hedger.hedged(VideoProvider.YOUTUBE))
+                .transform(retryPolicy.withRetry(VideoProvider.YOUTUBE, "client"));
+    }
+
+    private Mono<Video> fetchOne(String externalId, String etag, String apiKey) {
+        return webClient
+                .get()
+                .uri(uri -> videosUri(uri, externalId, apiKey))
+                .headers(h -> {
+                    if (etag != null) {
+                        h.setIfNoneMatch(etag);
+                    }
+                })
+                .exchangeToMono(resp -> {
+                    if (resp.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return resp.releaseBody().then(Mono.<Video>empty());
                     }
-                    PlaylistItem item = resp.getItems().get(0);
-                    ContentDetails cd = item.getContentDetails();
-                    Video v = Video.builder()
-                            .externalId(externalId)
-                            .provider(VideoProvider.YOUTUBE)
-                            .title(item.getSnippet().getTitle())
-                            // Duration.parse handles ISO‑8601 durations like PT1H2M10S
-                            .durationMillis(Duration.parse(cd.getDuration()).toMillis())
-                            .uploadDateTime(item.getSnippet().getPublishedAt())
-                            .build();
-                    return Mono.just(v);
+                    if (resp.statusCode().isError()) {
+                        return resp.createError();
+                    }
+                    String headerEtag = resp.headers().asHttpHeaders().getETag();
+                    return ProviderJsonDecoders.decode(resp.bodyToFlux(DataBuffer.class), ProviderJsonDecoders::youtubeVideos)
+                            .flatMap(body -> {
+                                if (body.items().isEmpty()) {
+                                    return Mono.error(new VideoNotFoundException("YouTube", externalId));
+                                }
+                                return Mono.just(body.items().get(0)
+                                        .toImportedVideo(headerEtag != null ? headerEtag : body.etag()));
+                            });
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int maxBatchSize() {
+        return MAX_IDS_PER_REQUEST;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * One {@code videos.list} request per {@value #MAX_IDS_PER_REQUEST} ids; ids absent from
+     * {@code items} are reported missing. Videos carry no ETag: the validator of a multi‑id
+     * response does not match a single‑id refresh, which stores its own on the first run.
+     */
+    @Override
+    public Mono<BatchFetchResult<Video>> fetchMany(Collection<String> externalIds) {
+        return Flux.fromIterable(externalIds.stream().distinct().toList())
+                .buffer(MAX_IDS_PER_REQUEST)
+                .concatMap(this::fetchChunk)
+                .collectList()
+                .map(BatchFetchResult::merge);
+    }
+
+    private Mono<BatchFetchResult<Video>> fetchChunk(List<String> ids) {
+        return quota.withKey(VideoProvider.YOUTUBE, VIDEOS_LIST_COST, apiKey -> webClient
+                        .get()
+                        .uri(uri -> videosUri(uri, String.join(",", ids), apiKey))
+                        .attribute(AdaptiveConcurrencyLimiter.LATENCY_CLASS, latencyClass(ids))
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class)
+                        .as(body -> ProviderJsonDecoders.decode(body, ProviderJsonDecoders::youtubeVideos)))
+                .timeout(Duration.ofSeconds(5))
+                .transform(resilience.protect(VideoProvider.YOUTUBE))
+                .transform(retryPolicy.withRetry(VideoProvider.YOUTUBE, "client"))
+                .map(body -> {
+                    Map<String, Video> found = new HashMap<>();
+                    body.items().stream()
+                            .filter(item -> item.externalId() != null)
+                            .forEach(item -> found.put(item.externalId(), item.toImportedVideo(null)));
+                    return BatchFetchResult.of(ids, found);
                 });
     }
 
+    /**
+     * @return RTT baseline of a {@code videos.list} request for {@code ids}
+     */
+    static String latencyClass(List<String> ids) {
+        return ids.size() > 1 ? AdaptiveConcurrencyLimiter.BATCH : AdaptiveConcurrencyLimiter.SINGLE;
+    }
+
+    /**
+     * {@code videos.list} for one or more comma‑separated ids, trimmed to the mapped fields.
+     */
+    static URI videosUri(UriBuilder uri, String ids, String apiKey) {
+        return uri
+                .path("/videos")
+                .queryParam("part", ProviderJsonDecoders.YOUTUBE_PART)
+                .queryParam("fields", ProviderJsonDecoders.YOUTUBE_FIELDS)
+                .queryParam("id", ids)
+                .queryParam("key", apiKey)
+                .build();
+    }
+
     /** Thrown when the external provider returns no data for the given ID. */
     public static class VideoNotFoundException extends RuntimeException {
         public VideoNotFoundException(String provider, String id) {
@@ -0,0 +1,113 @@
+package com.github.dimitryivaniuta.videometadata.service;
+
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.imports.AdaptiveConcurrencyLimiter;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderQuotaLedger;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRetryPolicy;
+import com.github.dimitryivaniuta.videometadata.resilience.ProviderResilience;
+import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.ContentDetails;
+import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.PlaylistItem;
+import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.YouTubePlaylistResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Expands YouTube playlists via {@code playlistItems.list}, following {@code nextPageToken}.
+ * <p>
+ * Pages of {@value #PAGE_SIZE} items are fetched one at a time as downstream demand arrives;
+ * only the video ids are requested ({@code fields=}) to keep pages small. Each page is charged
+ * {@value #PAGE_COST} quota unit to a key picked by the {@link ProviderQuotaLedger} and shares
+ * YouTube's bulkhead, rate limiter and circuit breaker with the video requests. A failed page is
+ * retried on its own by the shared {@link ProviderRetryPolicy}, so a transient error deep into a
+ * large playlist neither fails the submission nor restarts the walk from the first page.
+ */
+@Component
+public class YouTubePlaylistExpander implements PlaylistExpander {
+
+    /** Maximum page size allowed by the YouTube Data API. */
+    static final int PAGE_SIZE = 50;
+
+    /** Quota units charged for one {@code playlistItems.list} call. */
+    static final int PAGE_COST = 1;
+
+    private static final String FIELDS = "nextPageToken,items/contentDetails/videoId";
+
+    /** RTT baseline of playlist pages, apart from the video requests. */
+    private static final String LATENCY_CLASS = "playlist";
+
+    private final WebClient webClient;
+    private final ProviderQuotaLedger quota;
+    private final ProviderResilience resilience;
+    private final ProviderRetryPolicy retryPolicy;
+
+    public YouTubePlaylistExpander(@Qualifier("youtubeWebClient") WebClient webClient,
+                                   ProviderQuotaLedger quota,
+                                   ProviderResilience resilience,
+                                   ProviderRetryPolicy retryPolicy) {
+        this.webClient = webClient;
+        this.quota = quota;
+        this.resilience = resilience;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<String> expand(String playlistId) {
+        return fetchPage(playlistId, null)
+                .expand(page -> page.nextPageToken() == null
+                        ? Mono.empty()
+                        : fetchPage(playlistId, page.nextPageToken()))
+                // prefetch 1: the next page is requested only after this one was drained
+                .concatMapIterable(YouTubePlaylistExpander::videoIds, 1);
+    }
+
+    @Override
+    public VideoProvider provider() {
+        return VideoProvider.YOUTUBE;
+    }
+
+    private Mono<YouTubePlaylistResponse> fetchPage(String playlistId, String pageToken) {
+        return quota.withKey(VideoProvider.YOUTUBE, PAGE_COST, apiKey -> fetchPage(playlistId, pageToken, apiKey))
+                .transform(resilience.protect(VideoProvider.YOUTUBE))
+                .transform(retryPolicy.withRetry(VideoProvider.YOUTUBE, "playlist"));
+    }
+
+    private Mono<YouTubePlaylistResponse> fetchPage(String playlistId, String pageToken, String apiKey) {
+        return webClient.get()
+                .uri(uri -> uri
+                        .path("/playlistItems")
+                        .queryParam("part", "contentDetails")
+                        .queryParam("playlistId", playlistId)
+                        .queryParam("maxResults", PAGE_SIZE)
+                        .queryParam("fields", FIELDS)
+                        .queryParamIfPresent("pageToken", Optional.ofNullable(pageToken))
+                        .queryParam("key", apiKey)
+                        .build())
+                .attribute(AdaptiveConcurrencyLimiter.LATENCY_CLASS, LATENCY_CLASS)
+                .retrieve()
+                .bodyToMono(YouTubePlaylistResponse.class)
+                .timeout(Duration.ofSeconds(5));
+    }
+
+    private static List<String> videoIds(YouTubePlaylistResponse page) {
+        if (page.items() == null) {
+            return List.of();
+        }
+        return page.items().stream()
+                .map(PlaylistItem::contentDetails)
+                .filter(Objects::nonNull)
+                .map(ContentDetails::videoId)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.dimitryivaniuta.videometadata.service;
+
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.imports.AdaptiveConcurrencyLimiter;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderQuotaLedger;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * YouTube metadata for {@link ExternalVideoAggregationService}.
+ * <p>
+ * Plain {@code videos.list} calls on the pooled {@code youtubeWebClient}, trimmed to the mapped
+ * fields like {@link YouTubeExternalVideoClient}; {@link #fetchMany} asks for up to
+ * {@value YouTubeExternalVideoClient#MAX_IDS_PER_REQUEST} ids per request, for the quota of one.
+ * Every request is charged to a key of the {@link ProviderQuotaLedger}, and sent once more with a
+ * fresh key if YouTube reports the first one as spent. Timeouts, resilience,
+ * hedging and retries are applied per request by the aggregation service.
+ */
+@Component
+public class YouTubeVideoProviderClient implements ExternalVideoProviderClient {
+
+    private final WebClient webClient;
+    private final ProviderQuotaLedger quota;
+
+    public YouTubeVideoProviderClient(@Qualifier("youtubeWebClient") WebClient webClient,
+                                      ProviderQuotaLedger quota) {
+        this.webClient = webClient;
+        this.quota = quota;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<ExternalVideoMetadata> fetchById(String externalId) {
+        return videos(List.of(externalId))
+                .flatMap(items -> Mono.justOrEmpty(items.get(externalId)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int maxBatchSize() {
+        return YouTubeExternalVideoClient.MAX_IDS_PER_REQUEST;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * One {@code videos.list} request per chunk; ids absent from {@code items} are reported missing.
+     */
+    @Override
+    public Mono<BatchFetchResult<ExternalVideoMetadata>> fetchMany(Collection<String> externalIds) {
+        return Flux.fromIterable(externalIds.stream().distinct().toList())
+                .buffer(maxBatchSize())
+                .concatMap(chunk -> videos(chunk).map(found -> BatchFetchResult.of(chunk, found)))
+                .collectList()
+                .map(BatchFetchResult::merge);
+    }
+
+    /**
+     * @return {@link VideoProvider#YOUTUBE}
+     */
+    @Override
+    public VideoProvider provider() {
+        return VideoProvider.YOUTUBE;
+    }
+
+    /**
+     * One {@code videos.list} request for up to {@value YouTubeExternalVideoClient#MAX_IDS_PER_REQUEST} ids.
+     */
+    private Mono<Map<String, ExternalVideoMetadata>> videos(List<String> ids) {
+        return quota.withKey(VideoProvider.YOUTUBE, YouTubeExternalVideoClient.VIDEOS_LIST_COST, apiKey -> webClient
+                        .get()
+                        .uri(uri -> YouTubeExternalVideoClient.videosUri(uri, String.join(",", ids), apiKey))
+                        .attribute(AdaptiveConcurrencyLimiter.LATENCY_CLASS, YouTubeExternalVideoClient.latencyClass(ids))
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class)
+                        .as(body -> ProviderJsonDecoders.decode(body, ProviderJsonDecoders::youtubeVideos)))
+                .map(body -> body.items().stream()
+                        .filter(item -> item.externalId() != null)
+                        .collect(Collectors.toMap(ExternalVideoMetadata::externalId, Function.identity(), (a, b) -> a)));
+    }
+}
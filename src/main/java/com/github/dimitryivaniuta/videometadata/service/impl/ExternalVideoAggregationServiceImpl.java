@@ -1,23 +1,25 @@
 package com.github.dimitryivaniuta.videometadata.service.impl;
 
 import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRequestHedger;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRetryPolicy;
+import com.github.dimitryivaniuta.videometadata.resilience.ProviderResilience;
+import com.github.dimitryivaniuta.videometadata.service.BatchFetchResult;
 import com.github.dimitryivaniuta.videometadata.service.ExternalVideoAggregationService;
+import com.github.dimitryivaniuta.videometadata.service.ExternalVideoMetadataCache;
 import com.github.dimitryivaniuta.videometadata.service.ExternalVideoProviderClient;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
-import io.github.resilience4j.bulkhead.annotation.Bulkhead;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
-import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Default reactive implementation that fans out to provider clients, with optional resilience & caching.
@@ -30,38 +32,79 @@ public class ExternalVideoAggregationServiceImpl implements ExternalVideoAggrega
     /** All registered provider clients, keyed by source enum. */
     private final Map<VideoProvider, ExternalVideoProviderClient> clients;
 
+    /** Budgeted retries, shared with the import clients. */
+    private final ProviderRetryPolicy retryPolicy;
+
+    /** In‑process and Redis tiers in front of the providers. */
+    private final ExternalVideoMetadataCache cache;
+
+    /** Opt‑in hedging of slow provider calls. */
+    private final ProviderRequestHedger hedger;
+
+    /** Per‑provider bulkhead, rate limiter and circuit breaker. */
+    private final ProviderResilience resilience;
+
     /**
-     * Fetch one video metadata.
+     * Fetch one video metadata through the {@link ExternalVideoMetadataCache}; slow provider calls
+     * may be hedged by the {@link ProviderRequestHedger}, failed ones are retried by the
+     * {@link ProviderRetryPolicy}. Each copy has its own 5s timeout and passes the provider's
+     * {@link ProviderResilience} instances, so the circuit breaker sees timeouts too.
      */
     @Override
-    @Cacheable(cacheNames = "extVideoMeta", key = "#source.name() + ':' + #externalId")
-    @CircuitBreaker(name = "extVideo", fallbackMethod = "fallbackMono")
-    @Retry(name = "extVideo")
-    @RateLimiter(name = "extVideo")
-    @Bulkhead(name = "extVideo")
     public Mono<ExternalVideoMetadata> getOne(VideoProvider source, String externalId) {
         ExternalVideoProviderClient client = clients.get(source);
         if (client == null) {
             return Mono.error(new IllegalArgumentException("No client for source " + source));
         }
-        return client.fetchById(externalId)
-                .timeout(Duration.ofSeconds(5))
+        return cache.get(source, externalId, () -> call(source, client.fetchById(externalId)))
                 .switchIfEmpty(Mono.error(new IllegalStateException("Video not found: " + source + ":" + externalId)));
     }
 
     /**
-     * Fetch many concurrently. Uses same cache/resilience under the hood.
+     * Fetch many through the same cache and per‑request pipeline as {@link #getOne}, concurrently
+     * across providers. The ids of a provider not cached are fetched with one multi‑get per chunk of
+     * its {@code maxBatchSize} ids, with as many chunks in flight as the provider's bulkhead allows
+     * (a batch size of 1 thus still fetches concurrently); ids a provider does not know are logged
+     * and skipped.
      */
     @Override
     public Flux<ExternalVideoMetadata> getMany(List<VideoRequest> requests) {
-        return Flux.fromIterable(requests)
-                .flatMap(req -> getOne(req.provider(), req.externalId()));
+        Map<VideoProvider, List<String>> byProvider = requests.stream()
+                .collect(Collectors.groupingBy(VideoRequest::provider,
+                        () -> new EnumMap<>(VideoProvider.class),
+                        Collectors.mapping(VideoRequest::externalId, Collectors.toList())));
+        return Flux.fromIterable(byProvider.entrySet())
+                .flatMap(e -> {
+                    VideoProvider source = e.getKey();
+                    ExternalVideoProviderClient client = clients.get(source);
+                    if (client == null) {
+                        return Flux.error(new IllegalArgumentException("No client for source " + source));
+                    }
+                    // chunks in parallel, at most as many as the provider's bulkhead admits
+                    int concurrency = Math.max(1,
+                            resilience.bulkhead(source).getBulkheadConfig().getMaxConcurrentCalls());
+                    return cache.getMany(source, e.getValue(), misses -> Flux.fromIterable(misses)
+                            .buffer(Math.max(1, client.maxBatchSize()))
+                            .flatMap(chunk -> call(source, client.fetchMany(chunk)), concurrency)
+                            .collectList()
+                            .map(BatchFetchResult::merge)
+                            .doOnNext(result -> {
+                                if (!result.missing().isEmpty()) {
+                                    log.warn("{} video(s) not found at {}: {}",
+                                            result.missing().size(), source, result.missing());
+                                }
+                            }));
+                });
     }
 
-    /* ------------------- Resilience fallbacks ------------------- */
-
-    private Mono<ExternalVideoMetadata> fallbackMono(VideoProvider source, String externalId, Throwable ex) {
-        log.warn("Fallback for {}:{} due to {}", source, externalId, ex.toString());
-        return Mono.error(ex); // or return a stub
+    /**
+     * One provider request with its 5s timeout, resilience, hedging and retries.
+     */
+    private <T> Mono<T> call(VideoProvider source, Mono<T> request) {
+        return request
+                .timeout(Duration.ofSeconds(5))
+                .transform(resilience.protect(source))
+                .transform(hedger.hedged(source))
+                .transform(retryPolicy.withRetry(source, "aggregation"));
     }
 }
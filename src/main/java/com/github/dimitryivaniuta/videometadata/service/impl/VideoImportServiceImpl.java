@@ -4,12 +4,17 @@ import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
 import com.github.dimitryivaniuta.videometadata.config.RateLimiterProperties;
 import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
 import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportRetryRepository;
 import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportSubmissionRepository;
 import com.github.dimitryivaniuta.videometadata.event.VideoImportRequestedEvent;
 import com.github.dimitryivaniuta.videometadata.exception.RateLimitedException;
+import com.github.dimitryivaniuta.videometadata.imports.ImportIdempotencyCache;
+import com.github.dimitryivaniuta.videometadata.imports.ImportJobWorker;
+import com.github.dimitryivaniuta.videometadata.imports.ImportProgressTracker;
 import com.github.dimitryivaniuta.videometadata.ratelimit.ReactiveRateLimiter;
 import com.github.dimitryivaniuta.videometadata.service.VideoImportService;
 import com.github.dimitryivaniuta.videometadata.util.SubmissionIdGenerator;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportProgressResponse;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportRequest;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportSubmissionResponse;
@@ -17,14 +22,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 /**
  * Default implementation of {@link VideoImportService}.
@@ -47,6 +53,11 @@ public class VideoImportServiceImpl implements VideoImportService {
     private final SubmissionIdGenerator submissionIdGenerator;
     private final VideoImportSubmissionRepository submissionRepo;
     private final ReactiveRateLimiter rateLimiter;
+    private final ImportProgressTracker progressTracker;
+    private final VideoImportRetryRepository retryRepo;
+    private final ImportJobWorker worker;
+    private final ImportIdempotencyCache idempotencyCache;
+    private final TransactionalOperator tx;
 
     @Override
     public Mono<VideoImportSubmissionResponse> startImport(final String username,
@@ -72,16 +83,26 @@ public class VideoImportServiceImpl implements VideoImportService {
                             .submissionId(submissionId)
                             .username(username)
                             .provider(request.provider())
-                            .externalIds(Set.copyOf(request.externalIds()))
+                            .externalIds(List.copyOf(request.safeExternalIds()))
                             .externalPlaylistId(request.externalPlaylistId())
                             .forced(Boolean.TRUE.equals(request.force()))
                             .queuedAt(now)
                             .status(SubmissionStatus.QUEUED)
                             .build();
 
-                    return Mono.fromCallable(() -> submissionRepo.save(entity))      // blocking JPA
-                            .subscribeOn(Schedulers.boundedElastic())             // move to worker pool
-                            .map(VideoImportServiceImpl::buildResponse)                   // replace thenReturn(...)
+                    List<VideoImportSubmission> chunks = chunk(entity);
+                    entity.setChunkCount(chunks.size());
+
+                    // one INSERT, ids included; large submissions add one row per chunk, atomically
+                    return submissionRepo.save(entity)
+                            .flatMap(parent -> chunks.isEmpty()
+                                    ? Mono.just(parent)
+                                    : Flux.fromIterable(chunks)
+                                            .doOnNext(c -> c.setParentFk(parent.getId()))
+                                            .as(submissionRepo::saveAll)
+                                            .then(Mono.just(parent)))
+                            .as(tx::transactional)
+                            .map(VideoImportServiceImpl::buildResponse)
                             .doOnSuccess(resp -> {
                                 publisher.publishEvent(
                                         new VideoImportRequestedEvent(this, submissionId, username, request)
@@ -91,17 +112,95 @@ public class VideoImportServiceImpl implements VideoImportService {
                 });
     }
 
+    @Override
+    public Mono<VideoImportSubmissionResponse> startImport(final String username,
+                                                           final VideoImportRequest request,
+                                                           final String idempotencyKey) {
+        Objects.requireNonNull(username, "username must not be null");
+        return idempotencyCache.execute(username, idempotencyKey, request, () -> startImport(username, request));
+    }
+
     @Override
     public Mono<VideoImportProgressResponse> getProgress(String submissionId) {
-        return Mono.fromCallable(() -> submissionRepo.findBySubmissionId(submissionId))   // blocking
-                .subscribeOn(Schedulers.boundedElastic())                              // run off event-loop
-                .flatMap(opt -> opt.map(VideoImportServiceImpl::toProgressResponse)
-                        .map(Mono::just)
-                        .orElseGet(Mono::empty));
+        return submissionRepo.findBySubmissionId(submissionId)
+                .map(VideoImportProgressResponse::fromEntity);
+    }
+
+    @Override
+    public Flux<ImportProgressSnapshot> streamProgress(String submissionId) {
+        Mono<ImportProgressSnapshot> stored = submissionRepo.findBySubmissionId(submissionId)
+                .map(ImportProgressSnapshot::from);
+        return stored.flatMapMany(initial -> {
+            if (initial.isTerminal()) {
+                return Flux.just(initial);
+            }
+            // the periodic re-read covers frames published before the channel subscription was active
+            Flux<ImportProgressSnapshot> keepAlive = Flux.interval(importProps.getProgress().getStreamKeepAlive())
+                    .concatMap(tick -> stored);
+            return Flux.merge(progressTracker.listen(submissionId), Flux.just(initial), keepAlive)
+                    .distinctUntilChanged()
+                    .takeUntil(ImportProgressSnapshot::isTerminal);
+        });
+    }
+
+    @Override
+    public Mono<ImportProgressSnapshot> cancelImport(String submissionId, String username) {
+        Objects.requireNonNull(username, "username must not be null");
+
+        return submissionRepo.findBySubmissionId(submissionId)
+                .flatMap(target -> submissionRepo.cancel(target.getId(), username)
+                        .collectList()
+                        .flatMap(cancelled -> {
+                            if (cancelled.isEmpty()) {
+                                // already terminal: nothing to do
+                                return Mono.just(ImportProgressSnapshot.from(target));
+                            }
+                            log.info("Import cancelled id={} by={} rows={}", submissionId, username, cancelled.size());
+                            Long[] ids = cancelled.stream().map(VideoImportSubmission::getId).toArray(Long[]::new);
+                            VideoImportSubmission top = cancelled.stream()
+                                    .filter(s -> s.getId().equals(target.getId()))
+                                    .findFirst()
+                                    .orElse(target);
+                            ImportProgressSnapshot snapshot = ImportProgressSnapshot.from(top);
+                            // rows with a lease owner were running: their node publishes the final frame
+                            boolean running = cancelled.stream().anyMatch(s -> s.getLeaseOwner() != null);
+                            return retryRepo.deleteBySubmissions(ids)
+                                    .then(worker.broadcastCancel(List.of(ids)))
+                                    .then(running ? Mono.empty() : progressTracker.publishTerminal(snapshot))
+                                    .thenReturn(snapshot);
+                        }));
     }
 
     // ----------------------- Helpers -----------------------
 
+    /**
+     * Splits a submission with more than {@code app.import.chunk-size} ids into QUEUED chunks
+     * that any node can claim; the playlist, if any, goes with the first chunk.
+     *
+     * @return the chunks, empty if the submission runs as a whole
+     */
+    private List<VideoImportSubmission> chunk(VideoImportSubmission parent) {
+        List<String> ids = parent.getExternalIds();
+        int size = Math.max(1, importProps.getChunkSize());
+        if (ids.size() <= size) {
+            return List.of();
+        }
+        List<VideoImportSubmission> chunks = new ArrayList<>();
+        for (int from = 0, n = 0; from < ids.size(); from += size, n++) {
+            chunks.add(VideoImportSubmission.builder()
+                    .submissionId(parent.getSubmissionId() + "-" + n)
+                    .username(parent.getUsername())
+                    .provider(parent.getProvider())
+                    .externalIds(List.copyOf(ids.subList(from, Math.min(from + size, ids.size()))))
+                    .externalPlaylistId(n == 0 ? parent.getExternalPlaylistId() : null)
+                    .forced(parent.isForced())
+                    .queuedAt(parent.getQueuedAt())
+                    .status(SubmissionStatus.QUEUED)
+                    .build());
+        }
+        return chunks;
+    }
+
     private static VideoImportSubmissionResponse buildResponse(VideoImportSubmission s) {
         return VideoImportSubmissionResponse.builder()
                 .externalPlaylist(s.getExternalPlaylistId())
@@ -113,21 +212,4 @@ public class VideoImportServiceImpl implements VideoImportService {
                 .build();
     }
 
-    private static VideoImportProgressResponse toProgressResponse(VideoImportSubmission s) {
-        return VideoImportProgressResponse.builder()
-                .submissionId(s.getSubmissionId())
-                .username(s.getUsername())
-                .provider(s.getProvider())
-                .forced(s.isForced())
-                .externalIds(List.copyOf(s.getExternalIds()))
-                .status(s.getStatus())
-                .errorMessage(s.getErrorMessage())
-                .queuedAt(s.getQueuedAt())
-                .startedAt(s.getStartedAt())
-                .finishedAt(s.getFinishedAt())
-                .updatedAt(s.getUpdatedAt())
-                .statistics(ImportStatisticsDto.from(s.getStatistics()))
-                .build();
-    }
-
 }
@@ -19,9 +19,11 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -83,12 +85,34 @@ public class VideoServiceImpl implements VideoService {
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("Video not found: " + videoId)))
                 .flatMap(existing -> externalService.getOne(VideoProvider.valueOf(existing.getProvider().name()), existing.getExternalId())
                         .flatMap(meta -> {
+                            if (meta.toImportedVideo(existing.getEtag()).hasSameMetadata(existing)) {
+                                return Mono.just(existing);
+                            }
                             meta.applyMetadata(existing);
                             return videoRepository.save(existing);
                         }))
                 .as(tx::transactional);
     }
 
+    @Override
+    public Mono<Integer> insertIgnoringDuplicates(List<Video> videos) {
+        if (videos == null || videos.isEmpty()) {
+            return Mono.just(0);
+        }
+        return videoRepository.insertIgnoringDuplicates(videos)
+                .count()
+                .map(Long::intValue);
+    }
+
+    @Override
+    public Mono<Integer> updateMetadataBatch(List<Video> videos) {
+        if (videos == null || videos.isEmpty()) {
+            return Mono.just(0);
+        }
+        return videoRepository.updateMetadataBatch(videos)
+                .map(Long::intValue);
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         Objects.requireNonNull(id, "id");
@@ -123,4 +147,26 @@ public class VideoServiceImpl implements VideoService {
                 );
     }
 
+    @Override
+    public Mono<Boolean> existsByProviderAndExternalIdMono(VideoProvider provider, String externalVideoId) {
+        return videoRepository.existsByProviderAndExternalVideoId(provider, externalVideoId);
+    }
+
+    @Override
+    public Mono<Set<String>> findExistingExternalIds(VideoProvider provider, Collection<String> externalIds) {
+        if (externalIds == null || externalIds.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return videoRepository.findExistingExternalVideoIds(provider, externalIds.toArray(String[]::new))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Flux<Video> findByProviderAndExternalIds(VideoProvider provider, Collection<String> externalIds) {
+        if (externalIds == null || externalIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return videoRepository.findByProviderAndExternalVideoIds(provider, externalIds.toArray(String[]::new));
+    }
+
 }
@@ -1,16 +1,20 @@
 package com.github.dimitryivaniuta.videometadata.web.controller;
 
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportRequest;
 import com.github.dimitryivaniuta.videometadata.service.VideoImportService;
 import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportSubmissionResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.net.URI;
@@ -39,19 +43,24 @@ public class VideoImportController {
      * Schedules import of metadata for the given external video IDs.
      * Returns 202 Accepted immediately; actual work happens asynchronously.
      *
-     * @param request   provider + list of external video IDs to import
+     * A repeated {@code Idempotency-Key} returns the original response instead of scheduling
+     * the import again.
+     *
+     * @param request        provider + list of external video IDs to import
+     * @param idempotencyKey optional client key making retries of this request safe
      * @return 202 Accepted when import is scheduled
      */
     @PostMapping("/import")
     @PreAuthorize("hasRole('ADMIN')")
     public Mono<ResponseEntity<VideoImportSubmissionResponse>> importVideos(
             @Valid @RequestBody VideoImportRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             ServerHttpRequest httpRequest) {
 
         return ReactiveSecurityContextHolder.getContext()
                 .map(ctx -> ctx.getAuthentication().getName())
                 .switchIfEmpty(Mono.error(new IllegalStateException("No authenticated principal found")))
-                .flatMap(username -> importService.startImport(username, request))
+                .flatMap(username -> importService.startImport(username, request, idempotencyKey))
                 .map(submission -> {
                     URI location = URI.create(httpRequest.getPath().contextPath().value()
                             + "/videos/import/" + submission.submissionId());
@@ -61,4 +70,44 @@ public class VideoImportController {
                             .body(submission);
                 });
     }
+
+    /**
+     * Streams live progress of an import as server‑sent events.
+     * GET /api/videos/import/{submissionId}/events
+     * <p>
+     * Emits the stored state first, then one {@code progress} event per counter flush, and
+     * completes after the terminal {@code finished} / {@code failed} / {@code cancelled} event.
+     *
+     * @param submissionId id returned by {@code POST /import}
+     * @return SSE stream of progress snapshots
+     */
+    @GetMapping(path = "/import/{submissionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Flux<ServerSentEvent<ImportProgressSnapshot>> importEvents(@PathVariable String submissionId) {
+        return importService.streamProgress(submissionId)
+                .map(snapshot -> ServerSentEvent.builder(snapshot)
+                        .event(snapshot.isTerminal() ? snapshot.status().name().toLowerCase() : "progress")
+                        .build());
+    }
+
+    /**
+     * Cancels a queued or running import. Only ADMINs may call it.
+     * DELETE /api/videos/import/{submissionId}
+     * <p>
+     * Running work stops cooperatively; videos already imported are kept and the partial
+     * statistics are recorded. Cancelling an import that already ended returns its final state.
+     *
+     * @param submissionId id returned by {@code POST /import}
+     * @return 200 with the resulting progress snapshot, 404 if the id is unknown
+     */
+    @DeleteMapping("/import/{submissionId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ImportProgressSnapshot>> cancelImport(@PathVariable String submissionId) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(ctx -> ctx.getAuthentication().getName())
+                .switchIfEmpty(Mono.error(new IllegalStateException("No authenticated principal found")))
+                .flatMap(username -> importService.cancelImport(submissionId, username))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
 }
@@ -11,8 +11,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record ContentDetails(
-        @JsonProperty("video_id") String videoId,
-        @JsonProperty("video_published_at") String videoPublishedAt,
+        @JsonProperty("videoId") String videoId,
+        @JsonProperty("videoPublishedAt") String videoPublishedAt,
         // ISO-8601 duration (if you call videos.list with part=contentDetails).
         @JsonProperty("duration") String duration
 ) {
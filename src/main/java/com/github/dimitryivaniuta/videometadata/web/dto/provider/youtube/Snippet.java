@@ -15,8 +15,8 @@ import java.util.Map;
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record Snippet(
-        @JsonProperty("published_at") String publishedAt,
-        @JsonProperty("channel_id") String channelId,
+        @JsonProperty("publishedAt") String publishedAt,
+        @JsonProperty("channelId") String channelId,
         @JsonProperty("title") String title,
         @JsonProperty("description") String description,
         /**
@@ -31,6 +31,6 @@ public record Snippet(
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record ResourceId(
             @JsonProperty("kind") String kind,
-            @JsonProperty("video_id") String videoId
+            @JsonProperty("videoId") String videoId
     ) {}
 }
\ No newline at end of file
@@ -13,14 +13,14 @@ public record YouTubePlaylistResponse(
         @JsonProperty("kind") String kind,
         @JsonProperty("etag") String etag,
         @JsonProperty("items") List<PlaylistItem> items,
-        @JsonProperty("next_page_token") String nextPageToken,
-        @JsonProperty("prev_page_token") String prevPageToken,
-        @JsonProperty("page_info") PageInfo pageInfo
+        @JsonProperty("nextPageToken") String nextPageToken,
+        @JsonProperty("prevPageToken") String prevPageToken,
+        @JsonProperty("pageInfo") PageInfo pageInfo
 ) {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record PageInfo(
-            @JsonProperty("total_results") int totalResults,
-            @JsonProperty("results_per_page") int resultsPerPage
+            @JsonProperty("totalResults") int totalResults,
+            @JsonProperty("resultsPerPage") int resultsPerPage
     ) {
     }
 }
\ No newline at end of file
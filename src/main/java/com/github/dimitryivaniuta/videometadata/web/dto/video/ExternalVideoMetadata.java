@@ -7,6 +7,7 @@ import lombok.extern.jackson.Jacksonized;
 import lombok.Builder;
 
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.Objects;
@@ -77,6 +78,26 @@ public record ExternalVideoMetadata(
         return v;
     }
 
+    /**
+     * Maps freshly fetched metadata to an unsaved Video for the import pipeline, which assigns
+     * the owner itself.
+     *
+     * @param etag provider validator to store with the video, may be {@code null}
+     * @return populated Video without id, owner or category
+     */
+    public Video toImportedVideo(String etag) {
+        return Video.builder()
+                .externalId(this.externalId())
+                .externalVideoId(this.externalId())
+                .provider(this.provider())
+                .title(this.title())
+                .description(this.description())
+                .durationMillis(this.duration() == null ? 0L : this.duration().toMillis())
+                .uploadDateTime(this.publishedAt() == null ? null : ZonedDateTime.ofInstant(this.publishedAt(), ZoneOffset.UTC))
+                .etag(etag)
+                .build();
+    }
+
     /**
      * Applies fresh external metadata onto an existing Video entity.
      *
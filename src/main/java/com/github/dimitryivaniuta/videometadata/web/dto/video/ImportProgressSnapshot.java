@@ -0,0 +1,53 @@
+package com.github.dimitryivaniuta.videometadata.web.dto.video;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
+import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
+
+/**
+ * Lightweight progress frame of an import submission, pushed on every counter flush
+ * and streamed to clients as server‑sent events.
+ *
+ * @param submissionId      public submission id
+ * @param status            current status
+ * @param requested         ids requested
+ * @param accepted          ids admitted for import
+ * @param skippedDuplicates ids skipped as duplicates
+ * @param succeeded         videos inserted
+ * @param failed            ids that could not be imported
+ * @param errorMessage      failure or cancellation reason (terminal FAILED / CANCELLED frames only)
+ */
+public record ImportProgressSnapshot(
+        @JsonProperty("submission_id") String submissionId,
+        @JsonProperty("status") SubmissionStatus status,
+        @JsonProperty("requested") int requested,
+        @JsonProperty("accepted") int accepted,
+        @JsonProperty("skipped_duplicates") int skippedDuplicates,
+        @JsonProperty("succeeded") int succeeded,
+        @JsonProperty("failed") int failed,
+        @JsonProperty("error_message") String errorMessage
+) {
+
+    public static ImportProgressSnapshot from(VideoImportSubmission s) {
+        return new ImportProgressSnapshot(
+                s.getSubmissionId(),
+                s.getStatus(),
+                s.getRequestedCount(),
+                s.getAcceptedCount(),
+                s.getSkippedDuplicates(),
+                s.getSucceededCount(),
+                s.getFailedCount(),
+                s.getErrorMessage());
+    }
+
+    /**
+     * @return {@code true} once the submission reached a final status
+     */
+    @JsonIgnore
+    public boolean isTerminal() {
+        return status == SubmissionStatus.FINISHED
+                || status == SubmissionStatus.FAILED
+                || status == SubmissionStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.dimitryivaniuta.videometadata.web.dto.video;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
+import lombok.Builder;
+
+/**
+ * Counters of an import submission as exposed by the progress endpoint.
+ *
+ * @param totalRequested    ids requested
+ * @param acceptedCount     ids admitted for import
+ * @param skippedDuplicates ids skipped as duplicates
+ * @param succeededCount    videos stored
+ * @param failedCount       ids that could not be imported
+ */
+@Builder
+public record ImportStatisticsDto(
+        @JsonProperty("total_requested") int totalRequested,
+        @JsonProperty("accepted_count") int acceptedCount,
+        @JsonProperty("skipped_duplicates") int skippedDuplicates,
+        @JsonProperty("succeeded_count") int succeededCount,
+        @JsonProperty("failed_count") int failedCount
+) {
+
+    public static ImportStatisticsDto from(VideoImportSubmission s) {
+        return new ImportStatisticsDto(
+                s.getRequestedCount(),
+                s.getAcceptedCount(),
+                s.getSkippedDuplicates(),
+                s.getSucceededCount(),
+                s.getFailedCount());
+    }
+}
@@ -58,12 +58,6 @@ public record VideoImportProgressResponse(
      */
     public static VideoImportProgressResponse fromEntity(final VideoImportSubmission s) {
         Objects.requireNonNull(s, "VideoImportSubmission must not be null");
-        ImportStatisticsDto stats = ImportStatisticsDto.builder()
-                .totalRequested(s.getStatistics() == null ? 0 : s.getStatistics().getTotalRequested())
-                .acceptedCount(s.getStatistics() == null ? 0 : s.getStatistics().getAcceptedCount())
-                .skippedDuplicates(s.getStatistics() == null ? 0 : s.getStatistics().getSkippedDuplicates())
-                .succeededCount(s.getStatistics() == null ? 0 : s.getStatistics().getSucceededCount())
-                .failedCount(s.getStatistics() == null ? 0 : s.getStatistics().getFailedCount()).build();
         return new VideoImportProgressResponse(
                 s.getSubmissionId(),
                 s.getUsername(),
@@ -73,11 +67,10 @@ public record VideoImportProgressResponse(
                 s.getStatus(),
                 s.getErrorMessage(),
                 s.getQueuedAt(),
-                // If you store startedAt separately, use it. Otherwise null/queuedAt depending on status.
-                null,
+                s.getStartedAt(),
                 s.getFinishedAt(),
                 s.getUpdatedAt(),
-                ImportStatisticsDto.from(s.getStatistics())
+                ImportStatisticsDto.from(s)
         );
     }
 
@@ -0,0 +1,16 @@
+-- Lease bookkeeping so any node can claim QUEUED submissions (SELECT ... FOR UPDATE SKIP LOCKED)
+ALTER TABLE video_import_submissions
+    ADD COLUMN IF NOT EXISTS lease_owner      VARCHAR(128),
+    ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP WITH TIME ZONE,
+    ADD COLUMN IF NOT EXISTS heartbeat_at     TIMESTAMP WITH TIME ZONE,
+    ADD COLUMN IF NOT EXISTS attempts         INT NOT NULL DEFAULT 0;
+
+-- Claim order for the queue head (status 0 = QUEUED)
+CREATE INDEX IF NOT EXISTS idx_video_import_submissions_queued
+    ON video_import_submissions (queued_at)
+    WHERE status = 0;
+
+-- Expired-lease sweep (status 1 = RUNNING)
+CREATE INDEX IF NOT EXISTS idx_video_import_submissions_lease
+    ON video_import_submissions (lease_expires_at)
+    WHERE status = 1;
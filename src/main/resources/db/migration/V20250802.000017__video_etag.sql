@@ -0,0 +1,3 @@
+-- Provider ETag of the last fetched metadata; sent as If-None-Match on forced refreshes
+ALTER TABLE videos
+    ADD COLUMN IF NOT EXISTS etag VARCHAR(128);
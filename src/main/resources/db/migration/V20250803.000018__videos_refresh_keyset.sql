@@ -0,0 +1,8 @@
+-- Rows without updated_at would never be picked up by the stale-metadata sweep
+UPDATE videos
+   SET updated_at = COALESCE(imported_at, created_at, TIMESTAMPTZ 'epoch')
+ WHERE updated_at IS NULL;
+
+-- Keyset order of the sweep: (updated_at, id)
+CREATE INDEX IF NOT EXISTS idx_videos_updated_at_id
+    ON videos (updated_at, id);
@@ -0,0 +1,25 @@
+-- Persisted retry queue for ids whose fetch or insert failed during an import
+CREATE TABLE IF NOT EXISTS video_import_retries
+(
+    id                BIGINT                   NOT NULL PRIMARY KEY DEFAULT nextval('VM_UNIQUE_ID'),
+    submission_fk     BIGINT                   NOT NULL REFERENCES video_import_submissions (id) ON DELETE CASCADE,
+    username          VARCHAR(150)             NOT NULL,
+    provider          SMALLINT                 NOT NULL,
+    external_video_id VARCHAR(255)             NOT NULL,
+    attempts          INT                      NOT NULL DEFAULT 1,
+    next_attempt_at   TIMESTAMP WITH TIME ZONE,            -- NULL once the id was given up
+    last_error        TEXT,
+    created_at        TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at        TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT uq_video_import_retries_item UNIQUE (submission_fk, provider, external_video_id)
+);
+
+-- Drain order of due retries
+CREATE INDEX IF NOT EXISTS idx_video_import_retries_due
+    ON video_import_retries (next_attempt_at)
+    WHERE next_attempt_at IS NOT NULL;
+
+CREATE TRIGGER trg_video_import_retries_updated
+    BEFORE UPDATE ON video_import_retries
+    FOR EACH ROW EXECUTE FUNCTION set_updated_at();
@@ -0,0 +1,12 @@
+-- Requested ids live with their submission: one row written per submission instead of one per id
+ALTER TABLE video_import_submissions
+    ADD COLUMN IF NOT EXISTS external_ids TEXT[] NOT NULL DEFAULT '{}';
+
+UPDATE video_import_submissions s
+   SET external_ids = ids.arr
+  FROM (SELECT submission_fk, array_agg(external_id ORDER BY ord) AS arr
+          FROM video_import_submission_external_ids
+      GROUP BY submission_fk) ids
+ WHERE ids.submission_fk = s.id;
+
+DROP TABLE IF EXISTS video_import_submission_external_ids;
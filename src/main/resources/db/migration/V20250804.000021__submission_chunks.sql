@@ -0,0 +1,15 @@
+-- Large submissions are split into chunk rows that are claimed, leased and run like any submission.
+-- The parent keeps the full id list, is never claimed itself (chunk_count > 0) and aggregates its chunks.
+ALTER TABLE video_import_submissions
+    ADD COLUMN IF NOT EXISTS parent_fk   BIGINT REFERENCES video_import_submissions (id) ON DELETE CASCADE,
+    ADD COLUMN IF NOT EXISTS chunk_count INT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_video_import_submissions_parent
+    ON video_import_submissions (parent_fk)
+    WHERE parent_fk IS NOT NULL;
+
+-- Claim order for the queue head: only leaf rows (status 0 = QUEUED)
+DROP INDEX IF EXISTS idx_video_import_submissions_queued;
+CREATE INDEX IF NOT EXISTS idx_video_import_submissions_queued
+    ON video_import_submissions (queued_at)
+    WHERE status = 0 AND chunk_count = 0;
@@ -0,0 +1,4 @@
+-- Open chunked parents (status 0 = QUEUED, 1 = RUNNING), scanned by every worker poll to complete them
+CREATE INDEX IF NOT EXISTS idx_video_import_submissions_open_parents
+    ON video_import_submissions (id)
+    WHERE chunk_count > 0 AND status IN (0, 1);
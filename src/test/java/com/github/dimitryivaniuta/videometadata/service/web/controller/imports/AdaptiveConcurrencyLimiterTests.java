@@ -0,0 +1,223 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.imports.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AIMD behaviour of {@link AdaptiveConcurrencyLimiter}: additive growth while the limit is used and
+ * the RTT stays flat, multiplicative decrease on overload, one decrease per burst, separate RTT
+ * baselines per request class, and the WebClient probe feeding it per exchange.
+ */
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final VideoProvider YT = VideoProvider.YOUTUBE;
+
+    /** RTT of a healthy call; long enough that timer jitter does not look like a gradient. */
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private ImportProperties props;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        props = new ImportProperties();
+        props.getScheduler().setProviderMaxConcurrent(Map.of(YT, 6));
+        props.getScheduler().getAdaptive().setInitialLimit(2);
+        props.getScheduler().getAdaptive().setMinLimit(1);
+        props.getScheduler().getAdaptive().setBackoffRatio(0.5);
+        limiter = new AdaptiveConcurrencyLimiter(props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void growsByAboutOnePerLimitOfSuccessfulCalls() {
+        assertThat(limiter.limit(YT)).isEqualTo(2);
+
+        // 2 -> 2.5 -> 2.9 -> 3.24
+        succeed(2, 2);
+        assertThat(limiter.limit(YT)).isEqualTo(2);
+        succeed(1, 2);
+        assertThat(limiter.limit(YT)).isEqualTo(3);
+    }
+
+    @Test
+    void growthIsCappedAtTheProviderMaximum() {
+        succeed(100, 6);
+
+        assertThat(limiter.limit(YT)).isEqualTo(6);
+        assertThat(limiter.maxLimit(YT)).isEqualTo(6);
+    }
+
+    @Test
+    void doesNotGrowWhileTheLimitIsNotUsed() {
+        succeed(50, 0);
+
+        assertThat(limiter.limit(YT)).isEqualTo(2);
+    }
+
+    @Test
+    void halvesOnTooManyRequestsOncePerBurst() {
+        succeed(100, 6);
+        long burstStart = System.nanoTime();
+
+        limiter.onError(YT, burstStart, status(429));
+        assertThat(limiter.limit(YT)).isEqualTo(3);
+
+        // started before the decrease: same burst, no second decrease
+        limiter.onError(YT, burstStart, status(503));
+        assertThat(limiter.limit(YT)).isEqualTo(3);
+
+        // started after it: a new overload signal
+        limiter.onError(YT, System.nanoTime(), new TimeoutException());
+        assertThat(limiter.limit(YT)).isEqualTo(1);
+    }
+
+    @Test
+    void neverDropsBelowTheMinimum() {
+        for (int i = 0; i < 10; i++) {
+            limiter.onError(YT, System.nanoTime(), status(503));
+        }
+
+        assertThat(limiter.limit(YT)).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresErrorsThatAreNotOverload() {
+        succeed(100, 6);
+
+        limiter.onError(YT, System.nanoTime(), status(404));
+        limiter.onError(YT, System.nanoTime(), new IllegalStateException("boom"));
+
+        assertThat(limiter.limit(YT)).isEqualTo(6);
+    }
+
+    @Test
+    void shrinksWhenTheRttRisesAboveTheTolerance() {
+        succeed(100, 6);
+
+        // smoothed RTT 10ms + 0.2 * (200ms - 10ms) = 48ms > 2 x 10ms
+        limiter.onLatency(YT, AdaptiveConcurrencyLimiter.SINGLE, System.nanoTime() - 20 * RTT);
+
+        assertThat(limiter.limit(YT)).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotGrowWhileTheRttIsAboveTheTolerance() {
+        succeed(100, 6);
+        limiter.onLatency(YT, AdaptiveConcurrencyLimiter.SINGLE, System.nanoTime() - 20 * RTT);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSuccess(YT, 6);
+        }
+
+        assertThat(limiter.limit(YT)).isEqualTo(3);
+    }
+
+    @Test
+    void batchRequestsAreComparedWithTheirOwnBaseline() {
+        succeed(100, 6);
+
+        // a 50-id request is slower than a single one, but not slower than other batches
+        for (int i = 0; i < 20; i++) {
+            limiter.onLatency(YT, AdaptiveConcurrencyLimiter.BATCH, System.nanoTime() - 20 * RTT);
+        }
+
+        assertThat(limiter.limit(YT)).isEqualTo(6);
+    }
+
+    @Test
+    void probeReportsAnOverloadedResponseEvenIfARetryLaterSucceeds() {
+        succeed(100, 6);
+        ExchangeFilterFunction probe = limiter.latencyProbe(YT);
+        Mono<ClientResponse> tooManyRequests = Mono.just(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).build());
+
+        StepVerifier.create(probe.filter(request(null), req -> tooManyRequests))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(limiter.limit(YT)).isEqualTo(3);
+    }
+
+    @Test
+    void probeTimesEachExchangeAgainstTheBaselineOfItsClass() {
+        succeed(100, 6);
+        ExchangeFilterFunction probe = limiter.latencyProbe(YT);
+        // answers after 200ms of wall clock
+        Mono<ClientResponse> slow = Mono.fromSupplier(() -> {
+            sleep(20 * RTT);
+            return ClientResponse.create(HttpStatus.OK).build();
+        });
+
+        StepVerifier.create(probe.filter(request(AdaptiveConcurrencyLimiter.BATCH), req -> slow))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(limiter.limit(YT)).isEqualTo(6);
+
+        StepVerifier.create(probe.filter(request(null), req -> slow))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(limiter.limit(YT)).isEqualTo(3);
+    }
+
+    @Test
+    void limitsAreKeptPerProvider() {
+        limiter.onError(YT, System.nanoTime(), status(429));
+
+        assertThat(limiter.limit(YT)).isEqualTo(1);
+        assertThat(limiter.limit(VideoProvider.VIMEO)).isEqualTo(2);
+    }
+
+    @Test
+    void disabledLimiterAllowsTheMaximum() {
+        props.getScheduler().getAdaptive().setEnabled(false);
+        limiter.onError(YT, System.nanoTime(), status(429));
+
+        assertThat(limiter.limit(YT)).isEqualTo(6);
+    }
+
+    private void succeed(int calls, int inFlight) {
+        for (int i = 0; i < calls; i++) {
+            limiter.onLatency(YT, AdaptiveConcurrencyLimiter.SINGLE, System.nanoTime() - RTT);
+            limiter.onSuccess(YT, inFlight);
+        }
+    }
+
+    private static ClientRequest request(String latencyClass) {
+        ClientRequest.Builder request = ClientRequest.create(HttpMethod.GET, URI.create("https://provider.test/videos"));
+        if (latencyClass != null) {
+            request.attribute(AdaptiveConcurrencyLimiter.LATENCY_CLASS, latencyClass);
+        }
+        return request.build();
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static WebClientResponseException status(int status) {
+        return WebClientResponseException.create(status, "status " + status, HttpHeaders.EMPTY, new byte[0], null);
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.exception.ImportBacklogFullException;
+import com.github.dimitryivaniuta.videometadata.imports.AdaptiveConcurrencyLimiter;
+import com.github.dimitryivaniuta.videometadata.imports.FairShareScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deficit round‑robin of {@link FairShareScheduler}: slots alternate between (user, provider)
+ * flows, a provider at its limit does not block other providers, and the backlog is bounded.
+ */
+class FairShareSchedulerTests {
+
+    private ImportProperties props;
+    private FairShareScheduler scheduler;
+
+    /** Calls in the order they were started. */
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        props = new ImportProperties();
+        props.getScheduler().setMaxConcurrent(1);
+        props.getScheduler().setQuantum(1);
+        props.getScheduler().setProviderMaxConcurrent(Map.of(VideoProvider.YOUTUBE, 1, VideoProvider.VIMEO, 1));
+        props.getScheduler().getAdaptive().setEnabled(false);
+        props.getThrottle().setMaxQueued(10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        scheduler = new FairShareScheduler(props, new AdaptiveConcurrencyLimiter(props, registry), registry);
+    }
+
+    @Test
+    void alternatesBetweenUsers() {
+        Sinks.Empty<Void> blocker = occupySlot(VideoProvider.YOUTUBE);
+        schedule("alice", VideoProvider.YOUTUBE, "a1");
+        schedule("alice", VideoProvider.YOUTUBE, "a2");
+        schedule("alice", VideoProvider.YOUTUBE, "a3");
+        schedule("bob", VideoProvider.YOUTUBE, "b1");
+        schedule("bob", VideoProvider.YOUTUBE, "b2");
+        assertThat(scheduler.queuedCount()).isEqualTo(5);
+
+        blocker.tryEmitEmpty();
+
+        // alice queued first, but bob gets every other slot
+        assertThat(started).containsExactly("blocker", "a1", "b1", "a2", "b2", "a3");
+        assertThat(scheduler.queuedCount()).isEqualTo(0);
+        assertThat(scheduler.activeCount()).isEqualTo(0);
+    }
+
+    @Test
+    void quantumLetsAFlowStartSeveralCallsPerTurn() {
+        props.getScheduler().setQuantum(2);
+        Sinks.Empty<Void> blocker = occupySlot(VideoProvider.YOUTUBE);
+        schedule("alice", VideoProvider.YOUTUBE, "a1");
+        schedule("alice", VideoProvider.YOUTUBE, "a2");
+        schedule("alice", VideoProvider.YOUTUBE, "a3");
+        schedule("bob", VideoProvider.YOUTUBE, "b1");
+
+        blocker.tryEmitEmpty();
+
+        assertThat(started).containsExactly("blocker", "a1", "a2", "b1", "a3");
+    }
+
+    @Test
+    void providerAtItsLimitDoesNotBlockAnotherProvider() {
+        props.getScheduler().setMaxConcurrent(2);
+        Sinks.Empty<Void> youtube = occupySlot(VideoProvider.YOUTUBE);
+        schedule("alice", VideoProvider.YOUTUBE, "yt");
+        schedule("alice", VideoProvider.VIMEO, "vimeo");
+
+        // YouTube's single slot is taken; the Vimeo call starts at once
+        assertThat(started).containsExactly("blocker", "vimeo");
+
+        youtube.tryEmitEmpty();
+        assertThat(started).containsExactly("blocker", "vimeo", "yt");
+    }
+
+    @Test
+    void cancelledWaitingCallIsNeverStarted() {
+        Sinks.Empty<Void> blocker = occupySlot(VideoProvider.YOUTUBE);
+        Disposable waiting = schedule("alice", VideoProvider.YOUTUBE, "a1");
+        schedule("bob", VideoProvider.YOUTUBE, "b1");
+
+        waiting.dispose();
+        assertThat(scheduler.queuedCount()).isEqualTo(1);
+        blocker.tryEmitEmpty();
+
+        assertThat(started).containsExactly("blocker", "b1");
+    }
+
+    @Test
+    void rejectsCallsBeyondTheBacklog() {
+        props.getThrottle().setMaxQueued(1);
+        occupySlot(VideoProvider.YOUTUBE);
+        schedule("alice", VideoProvider.YOUTUBE, "a1");
+
+        StepVerifier.create(scheduler.schedule("bob", VideoProvider.YOUTUBE, () -> Mono.just("b1")))
+                .expectError(ImportBacklogFullException.class)
+                .verify();
+    }
+
+    @Test
+    void passesResultsAndErrorsThrough() {
+        StepVerifier.create(scheduler.schedule("alice", VideoProvider.YOUTUBE, () -> Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+        StepVerifier.create(scheduler.schedule("alice", VideoProvider.YOUTUBE,
+                        () -> Mono.<String>error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertThat(scheduler.activeCount()).isEqualTo(0);
+    }
+
+    /**
+     * Starts a call that holds its slot until the returned sink completes.
+     */
+    private Sinks.Empty<Void> occupySlot(VideoProvider provider) {
+        Sinks.Empty<Void> done = Sinks.empty();
+        scheduler.schedule("carol", provider, () -> {
+            started.add("blocker");
+            return done.asMono();
+        }).subscribe();
+        return done;
+    }
+
+    private Disposable schedule(String user, VideoProvider provider, String name) {
+        return scheduler.schedule(user, provider, () -> {
+            started.add(name);
+            return Mono.just(name);
+        }).subscribe();
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.imports.ImportDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ImportDispatcher}: bounded concurrency, cancelling a buffered job, and shutdown skipping
+ * the buffered jobs while the running ones finish.
+ */
+class ImportDispatcherTests {
+
+    private final Set<Long> started = ConcurrentHashMap.newKeySet();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+
+    private ImportDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        ImportProperties props = new ImportProperties();
+        props.setConcurrencyLimit(2);
+        dispatcher = new ImportDispatcher(props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void startsNoMoreJobsThanTheConcurrencyLimit() {
+        for (long id = 1; id <= 4; id++) {
+            assertThat(dispatcher.submit(id, job(id))).isTrue();
+        }
+
+        assertThat(started).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(dispatcher.activeCount()).isEqualTo(2);
+        assertThat(dispatcher.queuedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void aCancelledBufferedJobNeverStarts() {
+        for (long id = 1; id <= 3; id++) {
+            dispatcher.submit(id, job(id));
+        }
+
+        assertThat(dispatcher.cancel(3L)).isTrue();
+        release.tryEmitEmpty();
+
+        assertThat(started).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void stopSkipsTheBufferedJobsAndLeavesTheRunningOnes() {
+        for (long id = 1; id <= 4; id++) {
+            dispatcher.submit(id, job(id));
+        }
+
+        assertThat(dispatcher.stop()).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(dispatcher.activeCount()).isEqualTo(2);
+        assertThat(dispatcher.submit(5L, job(5L))).isFalse();
+
+        release.tryEmitEmpty();
+        dispatcher.shutdown(Duration.ofSeconds(1));
+
+        assertThat(started).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(dispatcher.activeCount()).isZero();
+    }
+
+    /** A job that records its start and runs until {@link #release} completes. */
+    private Mono<Void> job(long id) {
+        return Mono.defer(() -> {
+            started.add(id);
+            return release.asMono();
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.exception.IdempotencyKeyConflictException;
+import com.github.dimitryivaniuta.videometadata.imports.ImportIdempotencyCache;
+import com.github.dimitryivaniuta.videometadata.imports.RedisDistributedLock;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportRequest;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.VideoImportSubmissionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ImportIdempotencyCache}: one submission per key, replayed responses, conflicting reuse,
+ * and waiting on a peer node's lease (in virtual time).
+ */
+class ImportIdempotencyCacheTests {
+
+    private static final VideoImportRequest REQUEST = request("a", "b");
+
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    private final RedisDistributedLock lock = mock(RedisDistributedLock.class);
+
+    /** Redis values by key. */
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+    private final AtomicInteger submissions = new AtomicInteger();
+
+    private ImportIdempotencyCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReactiveValueOperations<String, String> values = mock(ReactiveValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.get(any())).thenAnswer(inv -> Mono.fromSupplier(() -> store.get(inv.<String>getArgument(0))));
+        when(values.set(anyString(), anyString(), any(Duration.class))).thenAnswer(inv -> {
+            store.put(inv.getArgument(0), inv.getArgument(1));
+            return Mono.just(true);
+        });
+        when(lock.tryAcquire(anyString(), anyString(), any())).thenReturn(Mono.just(true));
+        when(lock.release(anyString(), anyString())).thenReturn(Mono.just(true));
+
+        ImportProperties props = new ImportProperties();
+        props.getIdempotency().setLease(Duration.ofSeconds(30));
+        props.getIdempotency().setPollInterval(Duration.ofMillis(250));
+        cache = new ImportIdempotencyCache(redis, lock, props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void runsEverySubmissionWithoutAKey() {
+        StepVerifier.create(cache.execute("alice", null, REQUEST, this::submit)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.execute("alice", " ", REQUEST, this::submit)).expectNextCount(1).verifyComplete();
+
+        assertThat(submissions.get()).isEqualTo(2);
+        assertThat(store).isEmpty();
+    }
+
+    @Test
+    void replaysTheFirstResponseForARepeatedKey() {
+        List<String> ids = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(cache.execute("alice", "key-1", request("b", "a"), this::submit))
+                    .assertNext(response -> ids.add(response.submissionId()))
+                    .verifyComplete();
+        }
+
+        assertThat(submissions.get()).isEqualTo(1);
+        assertThat(ids).containsExactly("sub-1", "sub-1", "sub-1");
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        StepVerifier.create(cache.execute("alice", "key-1", REQUEST, this::submit)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.execute("bob", "key-1", REQUEST, this::submit)).expectNextCount(1).verifyComplete();
+
+        assertThat(submissions.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequest() {
+        StepVerifier.create(cache.execute("alice", "key-1", REQUEST, this::submit)).expectNextCount(1).verifyComplete();
+
+        StepVerifier.create(cache.execute("alice", "key-1", request("c"), this::submit))
+                .expectError(IdempotencyKeyConflictException.class)
+                .verify();
+        assertThat(submissions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneSubmission() {
+        Sinks.One<VideoImportSubmissionResponse> pending = Sinks.one();
+        List<String> ids = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            cache.execute("alice", "key-1", REQUEST, () -> {
+                submissions.incrementAndGet();
+                return pending.asMono();
+            }).subscribe(response -> ids.add(response.submissionId()));
+        }
+
+        pending.tryEmitValue(response("sub-1"));
+
+        assertThat(submissions.get()).isEqualTo(1);
+        assertThat(ids).containsExactly("sub-1", "sub-1", "sub-1");
+    }
+
+    @Test
+    void failedSubmissionCanBeRetriedWithTheSameKey() {
+        StepVerifier.create(cache.execute("alice", "key-1", REQUEST,
+                        () -> Mono.<VideoImportSubmissionResponse>error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertThat(store).isEmpty();
+
+        StepVerifier.create(cache.execute("alice", "key-1", REQUEST, this::submit)).expectNextCount(1).verifyComplete();
+        assertThat(submissions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void runsWithoutCrossNodeProtectionWhenTheLeaseIsUnavailable() {
+        when(lock.tryAcquire(anyString(), anyString(), any())).thenReturn(Mono.error(new IllegalStateException("redis down")));
+
+        StepVerifier.create(cache.execute("alice", "key-1", REQUEST, this::submit)).expectNextCount(1).verifyComplete();
+        assertThat(submissions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void waitsForThePeerHoldingTheLease() {
+        // what the peer node will store under the key
+        StepVerifier.create(cache.execute("alice", "key-1", REQUEST, this::submit)).expectNextCount(1).verifyComplete();
+        Map<String, String> peerResponse = Map.copyOf(store);
+        store.clear();
+        when(lock.tryAcquire(anyString(), anyString(), any())).thenReturn(Mono.just(false));
+
+        StepVerifier.withVirtualTime(() -> cache.execute("alice", "key-1", REQUEST, this::submit))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(5))
+                .then(() -> store.putAll(peerResponse))
+                .thenAwait(Duration.ofMillis(250))
+                .assertNext(response -> assertThat(response.submissionId()).isEqualTo("sub-1"))
+                .verifyComplete();
+        assertThat(submissions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givesUpOnceThePeerLeaseWouldHaveExpired() {
+        when(lock.tryAcquire(anyString(), anyString(), any())).thenReturn(Mono.just(false));
+
+        StepVerifier.withVirtualTime(() -> cache.execute("alice", "key-1", REQUEST, this::submit))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(29))
+                .thenAwait(Duration.ofSeconds(2))
+                .expectError(IdempotencyKeyConflictException.class)
+                .verify();
+        assertThat(submissions.get()).isEqualTo(0);
+    }
+
+    private VideoImportSubmissionResponse submitted() {
+        return response("sub-" + submissions.incrementAndGet());
+    }
+
+    private Mono<VideoImportSubmissionResponse> submit() {
+        return Mono.fromSupplier(this::submitted);
+    }
+
+    private static VideoImportSubmissionResponse response(String submissionId) {
+        return VideoImportSubmissionResponse.builder()
+                .submissionId(submissionId)
+                .provider(VideoProvider.YOUTUBE)
+                .build();
+    }
+
+    private static VideoImportRequest request(String... ids) {
+        return VideoImportRequest.builder()
+                .provider(VideoProvider.YOUTUBE)
+                .externalIds(Set.of(ids))
+                .build();
+    }
+}
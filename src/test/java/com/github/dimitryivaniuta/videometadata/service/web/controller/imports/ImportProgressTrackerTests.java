@@ -0,0 +1,71 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportSubmissionRepository;
+import com.github.dimitryivaniuta.videometadata.event.VideoImportCancelledEvent;
+import com.github.dimitryivaniuta.videometadata.event.VideoImportCompletedEvent;
+import com.github.dimitryivaniuta.videometadata.event.VideoImportFailedEvent;
+import com.github.dimitryivaniuta.videometadata.imports.ImportProgressTracker;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ImportProgressSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ImportProgressTracker#publishTerminal(ImportProgressSnapshot)}: the event fired for each
+ * terminal status.
+ */
+class ImportProgressTrackerTests {
+
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    private ImportProgressTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+        tracker = new ImportProgressTracker(mock(VideoImportSubmissionRepository.class), redis, events::add,
+                new ImportProperties());
+    }
+
+    @Test
+    void firesACompletedEventForAFinishedImport() {
+        StepVerifier.create(tracker.publishTerminal(snapshot(SubmissionStatus.FINISHED, null))).verifyComplete();
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0)).isInstanceOf(VideoImportCompletedEvent.class);
+    }
+
+    @Test
+    void firesAFailedEventForAFailedImport() {
+        StepVerifier.create(tracker.publishTerminal(snapshot(SubmissionStatus.FAILED, "boom"))).verifyComplete();
+
+        assertThat(events).hasSize(1);
+        assertThat(((VideoImportFailedEvent) events.get(0)).getErrorMessage()).isEqualTo("boom");
+    }
+
+    @Test
+    void firesACancelledEventRatherThanACompletedOneForACancelledImport() {
+        StepVerifier.create(tracker.publishTerminal(snapshot(SubmissionStatus.CANCELLED, "Cancelled by user")))
+                .verifyComplete();
+
+        assertThat(events).hasSize(1);
+        assertThat(((VideoImportCancelledEvent) events.get(0)).getReason()).isEqualTo("Cancelled by user");
+    }
+
+    private static ImportProgressSnapshot snapshot(SubmissionStatus status, String errorMessage) {
+        return new ImportProgressSnapshot("sub-1", status, 3, 3, 0, 2, 1, errorMessage);
+    }
+}
@@ -0,0 +1,236 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.entity.User;
+import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportRetry;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportRetryRepository;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportSubmissionRepository;
+import com.github.dimitryivaniuta.videometadata.exception.ProviderQuotaExhaustedException;
+import com.github.dimitryivaniuta.videometadata.imports.AdaptiveConcurrencyLimiter;
+import com.github.dimitryivaniuta.videometadata.imports.FairShareScheduler;
+import com.github.dimitryivaniuta.videometadata.imports.ImportRetryQueue;
+import com.github.dimitryivaniuta.videometadata.imports.SingleFlightFetcher;
+import com.github.dimitryivaniuta.videometadata.service.ExternalVideoClient;
+import com.github.dimitryivaniuta.videometadata.service.UserService;
+import com.github.dimitryivaniuta.videometadata.service.VideoService;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ImportRetryQueue}: exponential backoff with a bounded number of attempts, giving up ids the
+ * provider does not know, deferral to the quota reset for spent quota, and deferral without an
+ * attempt for calls rejected locally.
+ */
+class ImportRetryQueueTests {
+
+    private static final long SUBMISSION = 11L;
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    private final VideoImportRetryRepository retryRepo = mock(VideoImportRetryRepository.class);
+    private final VideoImportSubmissionRepository submissionRepo = mock(VideoImportSubmissionRepository.class);
+    private final SingleFlightFetcher singleFlight = mock(SingleFlightFetcher.class);
+    private final VideoService videoService = mock(VideoService.class);
+    private final UserService userService = mock(UserService.class);
+
+    /** What the provider answers, by external id. */
+    private final Map<String, Supplier<Mono<Video>>> provider = new HashMap<>();
+
+    private ImportRetryQueue queue;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ImportProperties props = new ImportProperties();
+        props.getRetryQueue().setInitialBackoff(Duration.ofMinutes(1));
+        props.getRetryQueue().setMaxBackoff(Duration.ofHours(1));
+        props.getRetryQueue().setMaxAttempts(5);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FairShareScheduler scheduler = new FairShareScheduler(props, new AdaptiveConcurrencyLimiter(props, registry), registry);
+        ExternalVideoClient client = id -> provider.get(id).get();
+        queue = new ImportRetryQueue(retryRepo, submissionRepo, Map.of(VideoProvider.YOUTUBE, client),
+                singleFlight, scheduler, videoService, userService, props, registry);
+
+        when(singleFlight.fetch(any(), any()))
+                .thenAnswer(inv -> ((Supplier<Mono<Video>>) inv.getArgument(1)).get());
+        when(videoService.existsByProviderAndExternalIdMono(any(), anyString())).thenReturn(Mono.just(false));
+        when(videoService.insertIgnoringDuplicates(any())).thenAnswer(inv -> Mono.just(((List<?>) inv.getArgument(0)).size()));
+        User owner = new User();
+        owner.setId(7L);
+        when(userService.getByUsername(anyString())).thenReturn(Mono.just(owner));
+        when(retryRepo.enqueue(any(), anyString(), any(), anyString(), anyLong(), anyString())).thenReturn(Mono.just(1));
+        when(retryRepo.reschedule(any(), any(), anyString())).thenReturn(Mono.just(1));
+        when(retryRepo.defer(any(), anyLong(), anyString())).thenReturn(Mono.just(1));
+        when(retryRepo.deleteByIds(any())).thenReturn(Mono.just(1));
+        when(submissionRepo.addStatistics(any(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(Mono.just(1));
+        when(submissionRepo.findById(any(Long.class)))
+                .thenReturn(Mono.just(VideoImportSubmission.builder().id(SUBMISSION).build()));
+    }
+
+    @Test
+    void enqueuesAFailedIdAfterTheFirstBackoff() {
+        StepVerifier.create(queue.enqueue(submission(), VideoProvider.YOUTUBE, "a", status(503)))
+                .verifyComplete();
+
+        // equal jitter: between half and all of the initial backoff
+        verify(retryRepo).enqueue(eq(SUBMISSION), eq("alice"), eq(VideoProvider.YOUTUBE), eq("a"),
+                longThat(delay -> delay >= MINUTE / 2 && delay <= MINUTE), anyString());
+    }
+
+    @Test
+    void enqueuesAnIdFailedForSpentQuotaUntilTheReset() {
+        Instant reset = Instant.now().plus(Duration.ofHours(3));
+
+        StepVerifier.create(queue.enqueue(submission(), VideoProvider.YOUTUBE, "a",
+                        new ProviderQuotaExhaustedException(VideoProvider.YOUTUBE, reset)))
+                .verifyComplete();
+
+        verify(retryRepo).enqueue(eq(SUBMISSION), eq("alice"), eq(VideoProvider.YOUTUBE), eq("a"),
+                longThat(delay -> isShortlyAfter(delay, reset)), anyString());
+    }
+
+    @Test
+    void importsFetchedIdsAndMovesThemToSucceeded() {
+        provider.put("a", () -> Mono.just(video("a")));
+        when(retryRepo.claimDue(any(Duration.class), anyInt())).thenReturn(Flux.just(row(1L, "a", 0)));
+
+        StepVerifier.create(queue.drain()).verifyComplete();
+
+        verify(videoService).insertIgnoringDuplicates(argThat(videos -> videos.size() == 1
+                && videos.get(0).getCreatedByUserId().equals(7L)));
+        verify(retryRepo).deleteByIds(argThat(ids -> ids.length == 1 && ids[0] == 1L));
+        verify(submissionRepo).addStatistics(SUBMISSION, 0, 0, 1, 0, -1);
+        verify(retryRepo, never()).reschedule(any(), any(), anyString());
+    }
+
+    @Test
+    void reschedulesFailuresWithExponentialBackoff() {
+        provider.put("a", () -> Mono.error(status(503)));
+        when(retryRepo.claimDue(any(Duration.class), anyInt())).thenReturn(Flux.just(row(1L, "a", 2)));
+
+        StepVerifier.create(queue.drain()).verifyComplete();
+
+        // third attempt: 1 min x 2^2, upper half jittered
+        verify(retryRepo).reschedule(eq(1L), argThat(delay -> delay >= 2 * MINUTE && delay <= 4 * MINUTE), anyString());
+        verify(retryRepo, never()).deleteByIds(any());
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        provider.put("a", () -> Mono.error(status(503)));
+        when(retryRepo.claimDue(any(Duration.class), anyInt())).thenReturn(Flux.just(row(1L, "a", 4)));
+
+        StepVerifier.create(queue.drain()).verifyComplete();
+
+        verify(retryRepo).reschedule(eq(1L), isNull(), anyString());
+    }
+
+    @Test
+    void givesUpAnIdTheProviderDoesNotKnowAtOnce() {
+        provider.put("a", () -> Mono.error(status(404)));
+        when(retryRepo.claimDue(any(Duration.class), anyInt())).thenReturn(Flux.just(row(1L, "a", 0)));
+
+        StepVerifier.create(queue.drain()).verifyComplete();
+
+        verify(retryRepo).reschedule(eq(1L), isNull(), anyString());
+    }
+
+    @Test
+    void defersSpentQuotaWithoutCountingAnAttempt() {
+        Instant reset = Instant.now().plus(Duration.ofHours(5));
+        provider.put("a", () -> Mono.error(new ProviderQuotaExhaustedException(VideoProvider.YOUTUBE, reset)));
+        when(retryRepo.claimDue(any(Duration.class), anyInt())).thenReturn(Flux.just(row(1L, "a", 4)));
+
+        StepVerifier.create(queue.drain()).verifyComplete();
+
+        verify(retryRepo).defer(eq(1L), longThat(delay -> isShortlyAfter(delay, reset)), anyString());
+        verify(retryRepo, never()).reschedule(any(), any(), anyString());
+    }
+
+    @Test
+    void defersCallsRejectedLocallyWithoutCountingAnAttempt() {
+        BulkheadFullException full = BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("youtube"));
+        provider.put("a", () -> Mono.error(full));
+        when(retryRepo.claimDue(any(Duration.class), anyInt())).thenReturn(Flux.just(row(1L, "a", 4)));
+
+        StepVerifier.create(queue.drain()).verifyComplete();
+
+        verify(retryRepo).defer(eq(1L), longThat(delay -> delay >= MINUTE / 2 && delay <= MINUTE), anyString());
+        verify(retryRepo, never()).reschedule(any(), any(), anyString());
+    }
+
+    @Test
+    void skipsTheFetchOfIdsStoredInTheMeantime() {
+        when(videoService.existsByProviderAndExternalIdMono(any(), anyString())).thenReturn(Mono.just(true));
+        when(retryRepo.claimDue(any(Duration.class), anyInt())).thenReturn(Flux.just(row(1L, "a", 1)));
+
+        StepVerifier.create(queue.drain()).verifyComplete();
+
+        verify(singleFlight, never()).fetch(any(), any());
+        verify(retryRepo).deleteByIds(any());
+        verify(submissionRepo).addStatistics(SUBMISSION, 0, 0, 1, 0, -1);
+    }
+
+    private static boolean isShortlyAfter(long delayMs, Instant reset) {
+        long untilReset = Duration.between(Instant.now(), reset).toMillis();
+        return delayMs >= untilReset - MINUTE && delayMs <= untilReset + 6 * MINUTE;
+    }
+
+    private static VideoImportSubmission submission() {
+        return VideoImportSubmission.builder().id(SUBMISSION).submissionId("sub-1").username("alice").build();
+    }
+
+    private static VideoImportRetry row(long id, String externalId, int attempts) {
+        return VideoImportRetry.builder()
+                .id(id)
+                .submissionFk(SUBMISSION)
+                .username("alice")
+                .provider(VideoProvider.YOUTUBE)
+                .externalVideoId(externalId)
+                .attempts(attempts)
+                .build();
+    }
+
+    private static Video video(String externalId) {
+        return Video.builder()
+                .provider(VideoProvider.YOUTUBE)
+                .externalId(externalId)
+                .externalVideoId(externalId)
+                .title("Video " + externalId)
+                .build();
+    }
+
+    private static WebClientResponseException status(int status) {
+        return WebClientResponseException.create(status, "status " + status, HttpHeaders.EMPTY, new byte[0], null);
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ProvidersProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.exception.ProviderQuotaExhaustedException;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderQuotaLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ProviderQuotaLedger}: round‑robin over the key pool, skipping spent keys, deferral once the
+ * whole pool is spent, and the retry with the next key when YouTube reports a key as spent. Redis
+ * is replaced by an in‑memory version of the ledger scripts.
+ */
+class ProviderQuotaLedgerTests {
+
+    private static final VideoProvider YT = VideoProvider.YOUTUBE;
+    private static final ZoneId QUOTA_ZONE = ZoneId.of("America/Los_Angeles");
+
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+
+    /** Units used by ledger key. */
+    private final Map<String, Long> used = new ConcurrentHashMap<>();
+
+    private ProviderQuotaLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), anyList())).thenAnswer(inv -> {
+            RedisScript<Long> script = inv.getArgument(0);
+            List<String> keys = inv.getArgument(1);
+            List<String> args = inv.getArgument(2);
+            return Flux.just(script.getScriptAsString().contains("INCRBY") ? acquire(keys, args) : exhaust(keys, args));
+        });
+        ProvidersProperties providers = new ProvidersProperties();
+        providers.getYoutube().setApiKeys(List.of("key-a", "key-b", "key-c"));
+        providers.getYoutube().setDailyQuota(100);
+        providers.getYoutube().setQuotaZone(QUOTA_ZONE);
+        ledger = new ProviderQuotaLedger(redis, providers, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void rotatesOverThePool() {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(ledger.acquire(YT, 1)).assertNext(keys::add).verifyComplete();
+        }
+
+        assertThat(keys).containsExactly("key-a", "key-b", "key-c", "key-a");
+    }
+
+    @Test
+    void skipsKeysThatCannotAffordTheCall() {
+        StepVerifier.create(ledger.acquire(YT, 90)).expectNext("key-a").verifyComplete();
+        StepVerifier.create(ledger.acquire(YT, 90)).expectNext("key-b").verifyComplete();
+        StepVerifier.create(ledger.acquire(YT, 20)).expectNext("key-c").verifyComplete();
+
+        // the cursor is at key-a again, which has 10 units left
+        StepVerifier.create(ledger.acquire(YT, 20)).expectNext("key-c").verifyComplete();
+    }
+
+    @Test
+    void failsUntilTheQuotaResetOnceThePoolIsSpent() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(ledger.acquire(YT, 100)).expectNextCount(1).verifyComplete();
+        }
+
+        StepVerifier.create(ledger.acquire(YT, 1))
+                .expectErrorSatisfies(ex -> {
+                    assertThat(ex).isInstanceOf(ProviderQuotaExhaustedException.class);
+                    assertThat(((ProviderQuotaExhaustedException) ex).getResetAt())
+                            .isEqualTo(LocalDate.now(QUOTA_ZONE).plusDays(1).atStartOfDay(QUOTA_ZONE).toInstant());
+                })
+                .verify();
+    }
+
+    @Test
+    void exhaustedKeyIsSkipped() {
+        StepVerifier.create(ledger.markExhausted(YT, "key-a")).verifyComplete();
+
+        StepVerifier.create(ledger.acquire(YT, 1)).expectNext("key-b").verifyComplete();
+        StepVerifier.create(ledger.acquire(YT, 1)).expectNext("key-b").verifyComplete();
+        StepVerifier.create(ledger.acquire(YT, 1)).expectNext("key-c").verifyComplete();
+    }
+
+    @Test
+    void retriesWithTheNextKeyWhenAKeyIsReportedSpent() {
+        List<String> calledWith = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(ledger.withKey(YT, 1, apiKey -> {
+                    calledWith.add(apiKey);
+                    return apiKey.equals("key-a") ? Mono.<String>error(quotaExceeded()) : Mono.just("ok with " + apiKey);
+                }))
+                .expectNext("ok with key-b")
+                .verifyComplete();
+
+        assertThat(calledWith).containsExactly("key-a", "key-b");
+        // key-a stays out of rotation for the day
+        StepVerifier.create(ledger.acquire(YT, 1)).expectNext("key-c").verifyComplete();
+        StepVerifier.create(ledger.acquire(YT, 1)).expectNext("key-b").verifyComplete();
+    }
+
+    @Test
+    void defersWhenTheNextKeyIsReportedSpentToo() {
+        List<String> calledWith = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(ledger.withKey(YT, 1, apiKey -> {
+                    calledWith.add(apiKey);
+                    return Mono.<String>error(quotaExceeded());
+                }))
+                .expectErrorSatisfies(ex -> {
+                    assertThat(ex).isInstanceOf(ProviderQuotaExhaustedException.class);
+                    assertThat(ex.getCause()).isInstanceOf(WebClientResponseException.Forbidden.class);
+                })
+                .verify();
+
+        assertThat(calledWith).containsExactly("key-a", "key-b");
+    }
+
+    @Test
+    void otherErrorsAreNotRetriedWithAnotherKey() {
+        List<String> calledWith = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(ledger.withKey(YT, 1, apiKey -> {
+                    calledWith.add(apiKey);
+                    return Mono.<String>error(WebClientResponseException.create(503, "Unavailable", HttpHeaders.EMPTY,
+                            new byte[0], null));
+                }))
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify();
+
+        assertThat(calledWith).containsExactly("key-a");
+    }
+
+    @Test
+    void usesTheNextKeyUnaccountedWhenRedisIsDown() {
+        when(redis.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), anyList()))
+                .thenReturn(Flux.error(new IllegalStateException("redis down")));
+
+        StepVerifier.create(ledger.acquire(YT, 1)).expectNext("key-a").verifyComplete();
+        StepVerifier.create(ledger.acquire(YT, 1)).expectNext("key-b").verifyComplete();
+    }
+
+    @Test
+    void failsForAProviderWithoutKeys() {
+        StepVerifier.create(ledger.acquire(VideoProvider.VIMEO, 1))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    /** In-memory ACQUIRE script. */
+    private long acquire(List<String> keys, List<String> args) {
+        long units = Long.parseLong(args.get(0));
+        long limit = Long.parseLong(args.get(1));
+        for (int i = 0; i < keys.size(); i++) {
+            long current = used.getOrDefault(keys.get(i), 0L);
+            if (current + units <= limit) {
+                used.put(keys.get(i), current + units);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** In-memory EXHAUST script. */
+    private long exhaust(List<String> keys, List<String> args) {
+        used.merge(keys.get(0), Long.parseLong(args.get(0)), Math::max);
+        return 1;
+    }
+
+    private static WebClientResponseException quotaExceeded() {
+        byte[] body = "{\"error\":{\"code\":403,\"errors\":[{\"reason\":\"quotaExceeded\"}]}}".getBytes(StandardCharsets.UTF_8);
+        return WebClientResponseException.create(403, "Forbidden", HttpHeaders.EMPTY, body, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.imports.ImportMetrics;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRequestHedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ProviderRequestHedger}: the hedge delay, which copy wins and the cancellation of the other,
+ * held‑back errors and the hedge budget, in virtual time. Warm‑up calls answer at once, so the
+ * hedge delay is {@code min-delay}.
+ */
+class ProviderRequestHedgerTests {
+
+    private static final VideoProvider YT = VideoProvider.YOUTUBE;
+    private static final Duration MIN_DELAY = Duration.ofMillis(100);
+    private static final int MIN_SAMPLES = 3;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ImportProperties props = new ImportProperties();
+
+    /** Subscriptions and cancellations of the copies of a call, in order. */
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final List<Integer> cancelled = new CopyOnWriteArrayList<>();
+
+    private ProviderRequestHedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        props.getHedging().setProviders(Set.of(YT));
+        props.getHedging().setMinSamples(MIN_SAMPLES);
+        props.getHedging().setMinDelay(MIN_DELAY);
+        props.getHedging().setBudgetRatio(0);
+        props.getHedging().setBudgetMaxTokens(1);
+        hedger = new ProviderRequestHedger(props, registry);
+    }
+
+    @Test
+    void leavesProvidersNotOptedInAlone() {
+        warmUp(VideoProvider.VIMEO);
+        subscriptions.set(0);
+
+        StepVerifier.withVirtualTime(() -> hedged(VideoProvider.VIMEO,
+                        () -> Mono.delay(Duration.ofSeconds(1)).thenReturn("primary")))
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertThat(subscriptions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotHedgeBeforeEnoughCallsWereTimed() {
+        StepVerifier.withVirtualTime(() -> hedged(YT, () -> Mono.delay(Duration.ofSeconds(1)).thenReturn("primary")))
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertThat(subscriptions.get()).isEqualTo(1);
+        assertThat(hedges("sent")).isZero();
+    }
+
+    @Test
+    void sendsNoHedgeWhenThePrimaryAnswersInTime() {
+        warmUp(YT);
+
+        StepVerifier.withVirtualTime(() -> hedged(YT, () -> Mono.delay(Duration.ofMillis(50)).thenReturn("primary")))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(50))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertThat(subscriptions.get()).isEqualTo(1);
+        assertThat(hedges("sent")).isZero();
+    }
+
+    @Test
+    void hedgeThatAnswersFirstWinsAndCancelsThePrimary() {
+        warmUp(YT);
+
+        StepVerifier.withVirtualTime(() -> hedged(YT,
+                        () -> Mono.delay(Duration.ofSeconds(1)).thenReturn("primary"),
+                        () -> Mono.delay(Duration.ofMillis(10)).thenReturn("hedge")))
+                .expectSubscription()
+                .expectNoEvent(MIN_DELAY)
+                .thenAwait(Duration.ofMillis(10))
+                .expectNext("hedge")
+                .verifyComplete();
+
+        assertThat(subscriptions.get()).isEqualTo(2);
+        assertThat(cancelled).containsExactly(1);
+        assertThat(hedges("sent")).isEqualTo(1.0);
+        assertThat(hedges("won")).isEqualTo(1.0);
+    }
+
+    @Test
+    void primaryThatAnswersFirstWinsAndCancelsTheHedge() {
+        warmUp(YT);
+
+        StepVerifier.withVirtualTime(() -> hedged(YT,
+                        () -> Mono.delay(Duration.ofMillis(150)).thenReturn("primary"),
+                        () -> Mono.delay(Duration.ofSeconds(1)).thenReturn("hedge")))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(150))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertThat(subscriptions.get()).isEqualTo(2);
+        assertThat(cancelled).containsExactly(2);
+        assertThat(hedges("sent")).isEqualTo(1.0);
+        assertThat(hedges("won")).isZero();
+    }
+
+    @Test
+    void errorOfOneCopyIsHeldWhileTheOtherMayAnswer() {
+        warmUp(YT);
+
+        StepVerifier.withVirtualTime(() -> hedged(YT,
+                        () -> Mono.delay(Duration.ofMillis(150)).then(Mono.error(new IllegalStateException("primary"))),
+                        () -> Mono.delay(Duration.ofMillis(200)).thenReturn("hedge")))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(300))
+                .expectNext("hedge")
+                .verifyComplete();
+    }
+
+    @Test
+    void failsOnceBothCopiesFailed() {
+        warmUp(YT);
+
+        StepVerifier.withVirtualTime(() -> hedged(YT,
+                        () -> Mono.delay(Duration.ofMillis(150)).then(Mono.error(new IllegalStateException("primary"))),
+                        () -> Mono.delay(Duration.ofMillis(200)).then(Mono.error(new IllegalArgumentException("hedge")))))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(250))
+                .thenAwait(Duration.ofMillis(50))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void skipsTheHedgeOnceTheBudgetIsSpent() {
+        warmUp(YT);
+
+        // the single token goes to the first slow call
+        StepVerifier.withVirtualTime(() -> hedged(YT,
+                        () -> Mono.delay(Duration.ofSeconds(1)).thenReturn("primary"),
+                        () -> Mono.just("hedge")))
+                .expectSubscription()
+                .thenAwait(MIN_DELAY)
+                .expectNext("hedge")
+                .verifyComplete();
+        subscriptions.set(0);
+
+        StepVerifier.withVirtualTime(() -> hedged(YT, () -> Mono.delay(Duration.ofSeconds(1)).thenReturn("primary")))
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertThat(subscriptions.get()).isEqualTo(1);
+        assertThat(hedges("sent")).isEqualTo(1.0);
+        assertThat(hedges("budget_exhausted")).isEqualTo(1.0);
+    }
+
+    /**
+     * Times {@code min-samples} calls that answer at once, enabling hedging at {@code min-delay}.
+     */
+    private void warmUp(VideoProvider provider) {
+        for (int i = 0; i < MIN_SAMPLES; i++) {
+            StepVerifier.create(Mono.just("warm").transform(hedger.<String>hedged(provider)))
+                    .expectNext("warm")
+                    .verifyComplete();
+        }
+    }
+
+    /**
+     * A hedged call whose n‑th copy behaves as {@code copies[n]}; subscriptions and cancellations are recorded.
+     */
+    @SafeVarargs
+    private Mono<String> hedged(VideoProvider provider, Supplier<Mono<String>>... copies) {
+        Mono<String> call = Mono.defer(() -> {
+            int copy = subscriptions.incrementAndGet();
+            return copies[copy - 1].get().doOnCancel(() -> cancelled.add(copy));
+        });
+        return call.transform(hedger.hedged(provider));
+    }
+
+    private double hedges(String result) {
+        return registry.get(ImportMetrics.COUNTER_PROVIDER_HEDGES)
+                .tag("provider", YT.name())
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.imports.ImportMetrics;
+import com.github.dimitryivaniuta.videometadata.imports.ProviderRetryPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * {@link ProviderRetryPolicy} in virtual time: which errors are retried, how often, after which
+ * delay, and how the token budget caps retries during a brown‑out.
+ */
+class ProviderRetryPolicyTests {
+
+    private static final VideoProvider YT = VideoProvider.YOUTUBE;
+
+    private ImportProperties props;
+    private SimpleMeterRegistry registry;
+    private ProviderRetryPolicy policy;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        props = new ImportProperties();
+        ImportProperties.ProviderRetry cfg = props.getProviderRetry();
+        cfg.setMaxAttempts(3);
+        cfg.setInitialBackoff(Duration.ofMillis(200));
+        cfg.setMaxBackoff(Duration.ofSeconds(5));
+        cfg.setBudgetRatio(0.1);
+        cfg.setBudgetMaxTokens(10);
+        cfg.setMaxRetryAfter(Duration.ofSeconds(30));
+        registry = new SimpleMeterRegistry();
+        policy = new ProviderRetryPolicy(props, registry);
+    }
+
+    @Test
+    void retriesServerErrorsUntilTheCallSucceeds() {
+        StepVerifier.withVirtualTime(() -> failing(2, status(503, null, "")).transform(policy.<String>withRetry(YT, "test")))
+                .expectSubscription()
+                // full jitter: at most 200ms, then 400ms
+                .thenAwait(Duration.ofMillis(600))
+                .expectNext("ok")
+                .verifyComplete();
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        StepVerifier.withVirtualTime(() -> failing(10, new TimeoutException()).transform(policy.<String>withRetry(YT, "test")))
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(10))
+                .expectError(TimeoutException.class)
+                .verify();
+        assertThat(calls.get()).isEqualTo(4);
+        assertThat(retries("exhausted")).isEqualTo(1.0);
+    }
+
+    @Test
+    void waitsForRetryAfter() {
+        StepVerifier.withVirtualTime(() -> failing(1, status(429, "7", "")).transform(policy.<String>withRetry(YT, "test")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(6_900))
+                .thenAwait(Duration.ofMillis(100))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+
+    @Test
+    void doesNotWaitForARetryAfterBeyondTheMaximum() {
+        StepVerifier.create(failing(1, status(503, "120", "")).transform(policy.<String>withRetry(YT, "test")))
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify();
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(retries("retry_after_too_long")).isEqualTo(1.0);
+    }
+
+    @Test
+    void neverRetriesSpentQuotaOrClientErrors() {
+        WebClientResponseException quota = status(403, null, "{\"error\":{\"errors\":[{\"reason\":\"quotaExceeded\"}]}}");
+        StepVerifier.create(failing(1, quota).transform(policy.<String>withRetry(YT, "test")))
+                .expectError(WebClientResponseException.Forbidden.class)
+                .verify();
+        StepVerifier.create(failing(1, status(404, null, "")).transform(policy.<String>withRetry(YT, "test")))
+                .expectError(WebClientResponseException.NotFound.class)
+                .verify();
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(retries("quota_exceeded")).isEqualTo(1.0);
+        assertThat(ProviderRetryPolicy.isQuotaExceeded(quota)).isTrue();
+    }
+
+    @Test
+    void retriesYouTubeRateLimits() {
+        WebClientResponseException rateLimited = status(403, null, "{\"error\":{\"errors\":[{\"reason\":\"rateLimitExceeded\"}]}}");
+
+        StepVerifier.withVirtualTime(() -> failing(1, rateLimited).transform(policy.<String>withRetry(YT, "test")))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(200))
+                .expectNext("ok")
+                .verifyComplete();
+        assertThat(ProviderRetryPolicy.isQuotaExceeded(rateLimited)).isFalse();
+    }
+
+    @Test
+    void budgetCapsRetriesDuringABrownOut() {
+        // the initial 10 tokens allow 10 retries in total, then calls fail on the first error
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.withVirtualTime(() -> failing(10, status(500, null, "")).transform(policy.<String>withRetry(YT, "test")))
+                    .expectSubscription()
+                    .thenAwait(Duration.ofSeconds(30))
+                    .expectError(WebClientResponseException.InternalServerError.class)
+                    .verify();
+        }
+
+        assertThat(retries("retried")).isEqualTo(10.0);
+        assertThat(retries("budget_exhausted")).isEqualTo(2.0);
+        assertThat(budget()).isEqualTo(0.0);
+    }
+
+    @Test
+    void successesRefillTheBudget() {
+        budgetCapsRetriesDuringABrownOut();
+        for (int i = 0; i < 20; i++) {
+            StepVerifier.create(Mono.just("ok").transform(policy.<String>withRetry(YT, "test")))
+                    .expectNext("ok")
+                    .verifyComplete();
+        }
+        assertThat(budget()).isCloseTo(2.0, within(1e-9));
+
+        StepVerifier.withVirtualTime(() -> failing(1, status(500, null, "")).transform(policy.<String>withRetry(YT, "test")))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(200))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+
+    @Test
+    void budgetsAreKeptPerProvider() {
+        budgetCapsRetriesDuringABrownOut();
+
+        StepVerifier.withVirtualTime(() -> failing(1, status(502, null, "")).transform(policy.<String>withRetry(VideoProvider.VIMEO, "test")))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(200))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+
+    /**
+     * A call that fails with {@code error} on its first {@code failures} subscriptions, then emits "ok".
+     */
+    private Mono<String> failing(int failures, Throwable error) {
+        AtomicInteger subscriptions = new AtomicInteger();
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            return subscriptions.incrementAndGet() <= failures ? Mono.<String>error(error) : Mono.just("ok");
+        });
+    }
+
+    private double retries(String outcome) {
+        return registry.get(ImportMetrics.COUNTER_PROVIDER_RETRIES).tag("outcome", outcome).counter().count();
+    }
+
+    private double budget() {
+        return registry.get(ImportMetrics.GAUGE_PROVIDER_RETRY_BUDGET).tag("provider", YT.name()).gauge().value();
+    }
+
+    private static WebClientResponseException status(int status, String retryAfter, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return WebClientResponseException.create(status, "status " + status, headers,
+                body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
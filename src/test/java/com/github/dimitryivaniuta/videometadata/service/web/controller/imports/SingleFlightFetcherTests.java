@@ -0,0 +1,181 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.imports;
+
+import com.github.dimitryivaniuta.videometadata.config.ImportProperties;
+import com.github.dimitryivaniuta.videometadata.domain.entity.Video;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.imports.ImportJobKey;
+import com.github.dimitryivaniuta.videometadata.imports.ImportMetrics;
+import com.github.dimitryivaniuta.videometadata.imports.RedisDistributedLock;
+import com.github.dimitryivaniuta.videometadata.imports.SingleFlightFetcher;
+import com.github.dimitryivaniuta.videometadata.service.BatchFetchResult;
+import com.github.dimitryivaniuta.videometadata.service.VideoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link SingleFlightFetcher}: joining a fetch in flight in this JVM, waiting for a peer's lease and
+ * fetching only if the peer did not store the video, the bound on that wait, and cancelling the
+ * shared fetch once its last caller cancels. The Redis lease is mocked.
+ */
+class SingleFlightFetcherTests {
+
+    private static final VideoProvider YT = VideoProvider.YOUTUBE;
+    private static final ImportJobKey KEY = new ImportJobKey(YT, "abc");
+    private static final String LEASE = "fetch:" + KEY;
+
+    private final RedisDistributedLock lock = mock(RedisDistributedLock.class);
+    private final VideoService videoService = mock(VideoService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SingleFlightFetcher fetcher;
+
+    @BeforeEach
+    void setUp() {
+        when(lock.tryAcquire(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(lock.extend(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(lock.release(anyString(), anyString())).thenReturn(Mono.just(true));
+        ImportProperties props = new ImportProperties();
+        props.getSingleFlight().setLease(Duration.ofSeconds(3));
+        props.getSingleFlight().setPollInterval(Duration.ofMillis(10));
+        props.getSingleFlight().setMaxWait(Duration.ofMillis(200));
+        fetcher = new SingleFlightFetcher(lock, videoService, props, registry);
+    }
+
+    @Test
+    void concurrentCallersInTheJvmShareOneFetch() {
+        Sinks.One<Video> response = Sinks.one();
+        Mono<Video> first = fetcher.fetch(KEY, loader(response.asMono())).cache();
+        Mono<Video> second = fetcher.fetch(KEY, loader(response.asMono())).cache();
+        first.subscribe();
+        second.subscribe();
+
+        Video video = video();
+        response.tryEmitValue(video);
+
+        StepVerifier.create(first).expectNext(video).verifyComplete();
+        StepVerifier.create(second).expectNext(video).verifyComplete();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(registry.get(ImportMetrics.COUNTER_FETCH_COALESCED).counter().count()).isEqualTo(1.0);
+        verify(lock).tryAcquire(eq(LEASE), anyString(), any(Duration.class));
+        verify(lock).release(eq(LEASE), anyString());
+    }
+
+    @Test
+    void skipsTheFetchIfThePeerHoldingTheLeaseStoredTheVideo() {
+        when(lock.tryAcquire(eq(LEASE), anyString(), any(Duration.class))).thenReturn(heldFor(3));
+        when(videoService.existsByProviderAndExternalIdMono(YT, "abc")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(fetcher.fetch(KEY, loader(Mono.just(video())))).verifyComplete();
+
+        assertThat(loads.get()).isZero();
+        assertThat(registry.get(ImportMetrics.COUNTER_FETCH_PEER_WAIT).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void fetchesOnceThePeerLeaseExpiredWithoutTheVideoStored() {
+        when(lock.tryAcquire(eq(LEASE), anyString(), any(Duration.class))).thenReturn(heldFor(3));
+        when(videoService.existsByProviderAndExternalIdMono(YT, "abc")).thenReturn(Mono.just(false));
+        Video video = video();
+
+        StepVerifier.create(fetcher.fetch(KEY, loader(Mono.just(video)))).expectNext(video).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchesAnywayOnceThePeerHeldTheLeaseLongerThanTheMaxWait() {
+        when(lock.tryAcquire(eq(LEASE), anyString(), any(Duration.class))).thenReturn(heldFor(Integer.MAX_VALUE));
+        when(videoService.existsByProviderAndExternalIdMono(YT, "abc")).thenReturn(Mono.just(false));
+        Video video = video();
+
+        StepVerifier.create(fetcher.fetch(KEY, loader(Mono.just(video)))).expectNext(video).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelsTheSharedFetchOnceTheLastCallerCancels() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<Video> never = Mono.<Video>never().doOnCancel(() -> cancelled.set(true));
+        Disposable first = fetcher.fetch(KEY, loader(never)).subscribe();
+        Disposable second = fetcher.fetch(KEY, loader(never)).subscribe();
+
+        first.dispose();
+        assertThat(cancelled.get()).isFalse();
+
+        second.dispose();
+        assertThat(cancelled.get()).isTrue();
+        assertThat(loads.get()).isEqualTo(1);
+        verify(lock).release(eq(LEASE), anyString());
+    }
+
+    @Test
+    void fetchManyLoadsTheLeasedIdsTogetherAndWaitsForThePeerOnes() {
+        when(lock.tryAcquire(eq("fetch:YOUTUBE:b"), anyString(), any(Duration.class))).thenReturn(heldFor(2));
+        when(lock.tryAcquire(eq("fetch:YOUTUBE:c"), anyString(), any(Duration.class))).thenReturn(heldFor(2));
+        when(videoService.findExistingExternalIds(eq(YT), anyList())).thenReturn(Mono.just(Set.of("b")));
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        Video a = video();
+        Video c = video();
+
+        StepVerifier.create(fetcher.fetchMany(YT, List.of("a", "b", "c"), ids -> {
+                    calls.add(ids);
+                    return Mono.just(new BatchFetchResult<>(ids.contains("a") ? Map.of("a", a) : Map.of("c", c), Set.of()));
+                }).collectMap(SingleFlightFetcher.Fetch::externalId, fetch -> fetch))
+                .assertNext(fetches -> {
+                    assertThat(fetches.get("a").video()).isSameAs(a);
+                    assertThat(fetches.get("b").video()).isNull();
+                    assertThat(fetches.get("b").error()).isNull();
+                    assertThat(fetches.get("c").video()).isSameAs(c);
+                })
+                .verifyComplete();
+
+        assertThat(calls).containsExactly(List.of("a"), List.of("c"));
+        verify(videoService, never()).existsByProviderAndExternalIdMono(any(VideoProvider.class), anyString());
+    }
+
+    /**
+     * A lease a peer holds for the first {@code attempts} tries; like the Redis call, it is evaluated
+     * again on every subscription.
+     */
+    private static Mono<Boolean> heldFor(int attempts) {
+        AtomicInteger tries = new AtomicInteger();
+        return Mono.fromSupplier(() -> tries.getAndIncrement() >= attempts);
+    }
+
+    private Supplier<Mono<Video>> loader(Mono<Video> response) {
+        return () -> {
+            loads.incrementAndGet();
+            return response;
+        };
+    }
+
+    private static Video video() {
+        return Video.builder().externalVideoId("abc").title("title").build();
+    }
+}
@@ -1,4 +1,25 @@
 package com.github.dimitryivaniuta.videometadata.service.web.controller.integration;
 
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Containers for tests that need real infrastructure. Spring Boot derives the connection
+ * settings from the {@link ServiceConnection} beans.
+ * <p>
+ * The Postgres schema comes from {@code testcontainers/schema.sql} rather than Flyway; tests that
+ * import this configuration should set {@code spring.flyway.enabled=false}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
 public class TestcontainersConfig {
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgres() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                .withInitScript("testcontainers/schema.sql");
+    }
 }
@@ -0,0 +1,246 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.repository;
+
+import com.github.dimitryivaniuta.videometadata.config.db.R2dbcConfig;
+import com.github.dimitryivaniuta.videometadata.domain.entity.VideoImportSubmission;
+import com.github.dimitryivaniuta.videometadata.domain.model.SubmissionStatus;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.domain.repository.VideoImportSubmissionRepository;
+import com.github.dimitryivaniuta.videometadata.service.web.controller.integration.TestcontainersConfig;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lease operations of {@link VideoImportSubmissionRepository} against a real Postgres: claiming with
+ * {@code SKIP LOCKED}, reclaiming expired leases, completions fenced by the lease owner and the
+ * completion of chunked parents.
+ */
+@DataR2dbcTest(properties = "spring.flyway.enabled=false")
+@Import({TestcontainersConfig.class, R2dbcConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class VideoImportSubmissionRepositoryTests {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    @Autowired
+    private VideoImportSubmissionRepository repo;
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        db.sql("DELETE FROM video_import_submissions").then().block();
+    }
+
+    @Test
+    void claimsTheOldestQueuedRowsOnce() {
+        save(queued("s-1", 3));
+        save(queued("s-2", 2));
+        save(queued("s-3", 1));
+
+        List<VideoImportSubmission> first = repo.claimQueued("node-a", LEASE, 2).collectList().block();
+        List<VideoImportSubmission> second = repo.claimQueued("node-b", LEASE, 2).collectList().block();
+
+        assertThat(first).extracting(VideoImportSubmission::getSubmissionId).containsExactlyInAnyOrder("s-1", "s-2");
+        assertThat(first).allSatisfy(s -> {
+            assertThat(s.getStatus()).isEqualTo(SubmissionStatus.RUNNING);
+            assertThat(s.getLeaseOwner()).isEqualTo("node-a");
+            assertThat(s.getAttempts()).isEqualTo(1);
+            assertThat(s.getLeaseExpiresAt()).isAfter(ZonedDateTime.now());
+        });
+        assertThat(second).extracting(VideoImportSubmission::getSubmissionId).containsExactly("s-3");
+    }
+
+    @Test
+    void claimSkipsRowsLockedByAnotherTransaction() {
+        VideoImportSubmission oldest = save(queued("s-1", 3));
+        save(queued("s-2", 2));
+
+        Connection other = Mono.from(connectionFactory.create()).block();
+        try {
+            Mono.from(other.beginTransaction()).block();
+            Flux.from(other.createStatement("SELECT id FROM video_import_submissions WHERE id = $1 FOR UPDATE")
+                            .bind(0, oldest.getId())
+                            .execute())
+                    .flatMap(result -> result.map((row, meta) -> row.get(0, Long.class)))
+                    .blockLast();
+
+            StepVerifier.create(repo.claimQueued("node-a", LEASE, 10).map(VideoImportSubmission::getSubmissionId))
+                    .expectNext("s-2")
+                    .verifyComplete();
+        } finally {
+            Mono.from(other.rollbackTransaction()).then(Mono.from(other.close())).block();
+        }
+
+        StepVerifier.create(repo.claimQueued("node-b", LEASE, 10).map(VideoImportSubmission::getSubmissionId))
+                .expectNext("s-1")
+                .verifyComplete();
+    }
+
+    @Test
+    void reclaimsARowOnceItsLeaseExpired() {
+        VideoImportSubmission row = save(queued("s-1", 1));
+        repo.claimQueued("node-a", LEASE, 1).blockLast();
+
+        StepVerifier.create(repo.reclaimExpired(3)).expectNext(0).verifyComplete();
+
+        expireLeases();
+        StepVerifier.create(repo.reclaimExpired(3)).expectNext(1).verifyComplete();
+        StepVerifier.create(repo.findById(row.getId()))
+                .assertNext(s -> {
+                    assertThat(s.getStatus()).isEqualTo(SubmissionStatus.QUEUED);
+                    assertThat(s.getLeaseOwner()).isNull();
+                    assertThat(s.getLeaseExpiresAt()).isNull();
+                })
+                .verifyComplete();
+
+        StepVerifier.create(repo.claimQueued("node-b", LEASE, 1))
+                .assertNext(s -> {
+                    assertThat(s.getLeaseOwner()).isEqualTo("node-b");
+                    assertThat(s.getAttempts()).isEqualTo(2);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void failsARowWhoseLeaseExpiredOnTheLastAttempt() {
+        VideoImportSubmission row = save(queued("s-1", 1));
+        repo.claimQueued("node-a", LEASE, 1).blockLast();
+        expireLeases();
+
+        StepVerifier.create(repo.reclaimExpired(1)).expectNext(1).verifyComplete();
+
+        StepVerifier.create(repo.findById(row.getId()))
+                .assertNext(s -> {
+                    assertThat(s.getStatus()).isEqualTo(SubmissionStatus.FAILED);
+                    assertThat(s.getErrorMessage()).isEqualTo("Lease expired after 1 attempts");
+                    assertThat(s.getFinishedAt()).isNotNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void heartbeatAndCompleteDoNothingOnceTheLeaseWasLost() {
+        VideoImportSubmission row = save(queued("s-1", 1));
+        repo.claimQueued("node-a", LEASE, 1).blockLast();
+        expireLeases();
+        repo.reclaimExpired(3).block();
+        repo.claimQueued("node-b", LEASE, 1).blockLast();
+
+        StepVerifier.create(repo.heartbeat(row.getId(), "node-a", LEASE)).expectNext(0).verifyComplete();
+        StepVerifier.create(repo.complete(row.getId(), "node-a", SubmissionStatus.FINISHED, null))
+                .expectNext(0)
+                .verifyComplete();
+        StepVerifier.create(repo.findById(row.getId()))
+                .assertNext(s -> {
+                    assertThat(s.getStatus()).isEqualTo(SubmissionStatus.RUNNING);
+                    assertThat(s.getLeaseOwner()).isEqualTo("node-b");
+                })
+                .verifyComplete();
+
+        StepVerifier.create(repo.complete(row.getId(), "node-b", SubmissionStatus.FINISHED, null))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(repo.findById(row.getId()))
+                .assertNext(s -> {
+                    assertThat(s.getStatus()).isEqualTo(SubmissionStatus.FINISHED);
+                    assertThat(s.getLeaseOwner()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void completeChunkedFinishesAParentOnceAllItsChunksFinished() {
+        VideoImportSubmission parent = save(queued("p", 5).chunkCount(2));
+        VideoImportSubmission first = save(queued("p-1", 4).parentFk(parent.getId()));
+        VideoImportSubmission second = save(queued("p-2", 3).parentFk(parent.getId()));
+
+        StepVerifier.create(repo.claimQueued("node-a", LEASE, 10).map(VideoImportSubmission::getSubmissionId).sort())
+                .expectNext("p-1", "p-2")
+                .verifyComplete();
+        repo.markParentRunning(parent.getId()).block();
+        repo.addStatistics(first.getId(), 3, 3, 2, 1, 0).block();
+        repo.addStatistics(second.getId(), 2, 2, 2, 0, 0).block();
+
+        repo.complete(first.getId(), "node-a", SubmissionStatus.FINISHED, null).block();
+        StepVerifier.create(repo.completeChunked(parent.getId())).verifyComplete();
+
+        repo.complete(second.getId(), "node-a", SubmissionStatus.FINISHED, null).block();
+        StepVerifier.create(repo.completeChunked(null))
+                .assertNext(p -> {
+                    assertThat(p.getId()).isEqualTo(parent.getId());
+                    assertThat(p.getStatus()).isEqualTo(SubmissionStatus.FINISHED);
+                    assertThat(p.getErrorMessage()).isNull();
+                    assertThat(p.getRequestedCount()).isEqualTo(5);
+                    assertThat(p.getAcceptedCount()).isEqualTo(5);
+                    assertThat(p.getSucceededCount()).isEqualTo(4);
+                    assertThat(p.getSkippedDuplicates()).isEqualTo(1);
+                    assertThat(p.getFailedCount()).isZero();
+                })
+                .verifyComplete();
+
+        // completed exactly once
+        StepVerifier.create(repo.completeChunked(null)).verifyComplete();
+    }
+
+    @Test
+    void completeChunkedFailsAParentWithAFailedChunk() {
+        VideoImportSubmission parent = save(queued("p", 5).chunkCount(2));
+        VideoImportSubmission first = save(queued("p-1", 4).parentFk(parent.getId()));
+        VideoImportSubmission second = save(queued("p-2", 3).parentFk(parent.getId()));
+        repo.claimQueued("node-a", LEASE, 10).blockLast();
+
+        repo.complete(first.getId(), "node-a", SubmissionStatus.FAILED, "boom").block();
+        repo.complete(second.getId(), "node-a", SubmissionStatus.FINISHED, null).block();
+
+        StepVerifier.create(repo.completeChunked(parent.getId()))
+                .assertNext(p -> {
+                    assertThat(p.getStatus()).isEqualTo(SubmissionStatus.FAILED);
+                    assertThat(p.getErrorMessage()).isEqualTo("1 of 2 chunk(s) failed or cancelled");
+                })
+                .verifyComplete();
+    }
+
+    private VideoImportSubmission save(VideoImportSubmission.VideoImportSubmissionBuilder builder) {
+        return repo.save(builder.build()).block();
+    }
+
+    private static VideoImportSubmission.VideoImportSubmissionBuilder queued(String submissionId, int minutesAgo) {
+        return VideoImportSubmission.builder()
+                .submissionId(submissionId)
+                .username("user")
+                .provider(VideoProvider.YOUTUBE)
+                .status(SubmissionStatus.QUEUED)
+                .queuedAt(ZonedDateTime.now().minusMinutes(minutesAgo))
+                .externalIds(List.of("abc"));
+    }
+
+    /** Moves every lease into the past, as if its holder stopped heartbeating. */
+    private void expireLeases() {
+        db.sql("UPDATE video_import_submissions SET lease_expires_at = NOW() - INTERVAL '1 second' WHERE lease_expires_at IS NOT NULL")
+                .then()
+                .block();
+    }
+}
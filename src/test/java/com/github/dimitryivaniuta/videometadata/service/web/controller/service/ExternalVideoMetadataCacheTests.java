@@ -0,0 +1,244 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.dimitryivaniuta.videometadata.config.VideoProperties;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.service.BatchFetchResult;
+import com.github.dimitryivaniuta.videometadata.service.ExternalVideoMetadataCache;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ExternalVideoMetadataCache}: read‑through of both tiers, stale‑while‑revalidate, negative
+ * caching and the batch path. Entries age by wall clock, so stale and expired ones are seeded into
+ * L2 with a back‑dated fetch time.
+ */
+class ExternalVideoMetadataCacheTests {
+
+    private static final VideoProvider YT = VideoProvider.YOUTUBE;
+    private static final Duration FRESH_FOR = Duration.ofMinutes(10);
+    private static final Duration NEGATIVE_TTL = Duration.ofMinutes(1);
+
+    private static final ObjectMapper JSON = JsonMapper.builder().findAndAddModules().build();
+
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    private final ReactiveValueOperations<String, String> values = mockValues();
+
+    /** Redis values by key. */
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ExternalVideoMetadataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.get(any())).thenAnswer(inv -> Mono.fromSupplier(() -> store.get(inv.<String>getArgument(0))));
+        when(values.set(anyString(), anyString(), any(Duration.class))).thenAnswer(inv -> {
+            store.put(inv.getArgument(0), inv.getArgument(1));
+            return Mono.just(true);
+        });
+
+        VideoProperties props = new VideoProperties();
+        props.getMetadataCache().setFreshFor(FRESH_FOR);
+        props.getMetadataCache().setStaleWhileRevalidate(Duration.ofMinutes(50));
+        props.getMetadataCache().setNegativeTtl(NEGATIVE_TTL);
+        cache = new ExternalVideoMetadataCache(redis, props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void loadsAMissOnceAndServesItFromBothTiers() {
+        StepVerifier.create(cache.get(YT, "v1", loader("v1", "title 1"))).expectNext(video("v1", "title 1")).verifyComplete();
+        StepVerifier.create(cache.get(YT, "v1", loader("v1", "title 2"))).expectNext(video("v1", "title 1")).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(store).containsKey("ext-video:meta:YOUTUBE:v1");
+    }
+
+    @Test
+    void servesAFreshEntryOfAnotherNodeWithoutLoading() throws Exception {
+        seed("v1", video("v1", "from peer"), Duration.ofMinutes(1));
+
+        StepVerifier.create(cache.get(YT, "v1", loader("v1", "loaded"))).expectNext(video("v1", "from peer")).verifyComplete();
+
+        assertThat(loads.get()).isZero();
+    }
+
+    @Test
+    void servesAStaleEntryAndRefreshesItInTheBackground() throws Exception {
+        seed("v1", video("v1", "old"), FRESH_FOR.plusMinutes(5));
+
+        StepVerifier.create(cache.get(YT, "v1", loader("v1", "new"))).expectNext(video("v1", "old")).verifyComplete();
+        StepVerifier.create(cache.get(YT, "v1", loader("v1", "newer"))).expectNext(video("v1", "new")).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(store.get("ext-video:meta:YOUTUBE:v1")).contains("\"new\"");
+    }
+
+    @Test
+    void keepsServingAStaleEntryWhenTheRefreshFails() throws Exception {
+        seed("v1", video("v1", "old"), FRESH_FOR.plusMinutes(5));
+        Supplier<Mono<ExternalVideoMetadata>> failing = () -> {
+            loads.incrementAndGet();
+            return Mono.error(new IllegalStateException("provider down"));
+        };
+
+        StepVerifier.create(cache.get(YT, "v1", failing)).expectNext(video("v1", "old")).verifyComplete();
+        StepVerifier.create(cache.get(YT, "v1", failing)).expectNext(video("v1", "old")).verifyComplete();
+
+        // each read of the stale entry retries, one at a time
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void entryPastTheStaleWindowIsLoadedAgain() throws Exception {
+        seed("v1", video("v1", "expired"), Duration.ofMinutes(61));
+
+        StepVerifier.create(cache.get(YT, "v1", loader("v1", "loaded"))).expectNext(video("v1", "loaded")).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void cachesAnEmptyResultAsNotFound() {
+        Supplier<Mono<ExternalVideoMetadata>> empty = () -> {
+            loads.incrementAndGet();
+            return Mono.empty();
+        };
+
+        StepVerifier.create(cache.get(YT, "gone", empty)).verifyComplete();
+        StepVerifier.create(cache.get(YT, "gone", loader("gone", "back"))).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void cachesANotFoundErrorAsNotFoundButPropagatesOtherErrors() {
+        Supplier<Mono<ExternalVideoMetadata>> notFound = () -> {
+            loads.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY, new byte[0], null));
+        };
+        Supplier<Mono<ExternalVideoMetadata>> failing = () -> Mono.error(new IllegalStateException("provider down"));
+
+        StepVerifier.create(cache.get(YT, "gone", notFound)).verifyComplete();
+        StepVerifier.create(cache.get(YT, "gone", notFound)).verifyComplete();
+        StepVerifier.create(cache.get(YT, "v2", failing)).expectError(IllegalStateException.class).verify();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(store).doesNotContainKey("ext-video:meta:YOUTUBE:v2");
+    }
+
+    @Test
+    void notFoundExpiresAfterTheNegativeTtl() throws Exception {
+        seed("gone", null, NEGATIVE_TTL.plusSeconds(1));
+
+        StepVerifier.create(cache.get(YT, "gone", loader("gone", "back"))).expectNext(video("gone", "back")).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        Sinks.One<ExternalVideoMetadata> response = Sinks.one();
+        Supplier<Mono<ExternalVideoMetadata>> slow = () -> {
+            loads.incrementAndGet();
+            return response.asMono();
+        };
+        List<ExternalVideoMetadata> received = new CopyOnWriteArrayList<>();
+
+        cache.get(YT, "v1", slow).subscribe(received::add);
+        cache.get(YT, "v1", slow).subscribe(received::add);
+        response.tryEmitValue(video("v1", "once"));
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(received).containsExactly(video("v1", "once"), video("v1", "once"));
+    }
+
+    @Test
+    void getManyLoadsAllMissesWithOneBatchCall() throws Exception {
+        StepVerifier.create(cache.get(YT, "a", loader("a", "a"))).expectNextCount(1).verifyComplete();
+        seed("b", video("b", "b"), Duration.ofMinutes(1));
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(cache.getMany(YT, List.of("a", "b", "c", "d", "c"), ids -> {
+                    batches.add(ids);
+                    return Mono.just(BatchFetchResult.of(ids, Map.of("c", video("c", "c"))));
+                }).collectList())
+                .assertNext(found -> assertThat(found).containsExactlyInAnyOrder(
+                        video("a", "a"), video("b", "b"), video("c", "c")))
+                .verifyComplete();
+
+        assertThat(batches).containsExactly(List.of("c", "d"));
+        // "d" is remembered as not found
+        StepVerifier.create(cache.get(YT, "d", loader("d", "d"))).verifyComplete();
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void degradesToTheLocalTierWhenRedisIsDown() {
+        when(values.get(any())).thenReturn(Mono.error(new IllegalStateException("redis down")));
+        when(values.set(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(Mono.error(new IllegalStateException("redis down")));
+
+        StepVerifier.create(cache.get(YT, "v1", loader("v1", "title"))).expectNext(video("v1", "title")).verifyComplete();
+        StepVerifier.create(cache.get(YT, "v1", loader("v1", "title"))).expectNext(video("v1", "title")).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private Supplier<Mono<ExternalVideoMetadata>> loader(String id, String title) {
+        return () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return video(id, title);
+        });
+    }
+
+    /**
+     * Puts an entry into L2 as another node would have written it {@code age} ago.
+     */
+    private void seed(String id, ExternalVideoMetadata value, Duration age) throws Exception {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("value", value);
+        entry.put("fetchedAt", System.currentTimeMillis() - age.toMillis());
+        store.put("ext-video:meta:YOUTUBE:" + id, JSON.writeValueAsString(entry));
+    }
+
+    private static ExternalVideoMetadata video(String id, String title) {
+        return ExternalVideoMetadata.builder()
+                .externalId(id)
+                .provider(YT)
+                .title(title)
+                .duration(Duration.ofMinutes(3))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReactiveValueOperations<String, String> mockValues() {
+        return mock(ReactiveValueOperations.class);
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.dimitryivaniuta.videometadata.service.web.controller.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dimitryivaniuta.videometadata.domain.model.VideoProvider;
+import com.github.dimitryivaniuta.videometadata.service.ProviderJsonDecoders;
+import com.github.dimitryivaniuta.videometadata.web.dto.provider.vimeo.VimeoVideoResponse;
+import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.PlaylistItem;
+import com.github.dimitryivaniuta.videometadata.web.dto.provider.youtube.YouTubePlaylistResponse;
+import com.github.dimitryivaniuta.videometadata.web.dto.video.ExternalVideoMetadata;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The streaming {@link ProviderJsonDecoders} must read the same values the Jackson DTO path
+ * ({@link YouTubePlaylistResponse}, {@link VimeoVideoResponse}) did, and skip everything else.
+ */
+class ProviderJsonDecodersTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    /** Full videos.list response, with parts and fields the partial request would not return. */
+    private static final String YOUTUBE_VIDEOS = """
+            {
+              "kind": "youtube#videoListResponse",
+              "etag": "list-etag",
+              "items": [
+                {
+                  "kind": "youtube#video",
+                  "etag": "item-etag",
+                  "id": "dQw4w9WgXcQ",
+                  "snippet": {
+                    "publishedAt": "2009-10-25T06:57:33Z",
+                    "channelId": "UCuAXFkgsw1L7xaCfnd5JJOw",
+                    "title": "Never Gonna Give You Up",
+                    "description": "The official video \\"Never Gonna Give You Up\\"",
+                    "thumbnails": {
+                      "default": { "url": "https://i.ytimg.com/vi/dQw4w9WgXcQ/default.jpg", "width": 120, "height": 90 },
+                      "high": { "url": "https://i.ytimg.com/vi/dQw4w9WgXcQ/hqdefault.jpg", "width": 480, "height": 360 }
+                    },
+                    "channelTitle": "Rick Astley",
+                    "tags": ["rick", "astley"],
+                    "localized": { "title": "Never Gonna Give You Up", "description": "..." }
+                  },
+                  "contentDetails": { "duration": "PT3M33S", "dimension": "2d", "licensedContent": true },
+                  "statistics": { "viewCount": "1600000000", "likeCount": "18000000" }
+                },
+                {
+                  "id": "9bZkp7q19f0",
+                  "snippet": {
+                    "publishedAt": "2012-07-15T07:46:32+02:00",
+                    "title": "PSY - GANGNAM STYLE",
+                    "description": "",
+                    "thumbnails": { "default": { "url": "https://i.ytimg.com/vi/9bZkp7q19f0/default.jpg" } },
+                    "channelTitle": "officialpsy"
+                  },
+                  "contentDetails": { "duration": "PT4M13S" }
+                }
+              ],
+              "pageInfo": { "totalResults": 2, "resultsPerPage": 2 }
+            }
+            """;
+
+    /** Full Vimeo video, with fields the partial request would not return. */
+    private static final String VIMEO_VIDEO = """
+            {
+              "uri": "/videos/76979871",
+              "name": "The New Vimeo Player",
+              "description": "It may look (mostly) the same on the surface",
+              "duration": 62,
+              "created_time": "2013-10-28T19:23:40+00:00",
+              "user": { "uri": "/users/152184", "name": "Vimeo Staff", "pictures": { "base_link": "ignored" } },
+              "pictures": { "uri": "/videos/76979871/pictures/1", "base_link": "https://i.vimeocdn.com/video/452001751" },
+              "stats": { "plays": 1000 },
+              "tags": [ { "name": "player" } ]
+            }
+            """;
+
+    @Test
+    void youtubeVideosMatchTheDtoPath() throws IOException {
+        ProviderJsonDecoders.YouTubeVideos decoded = ProviderJsonDecoders.youtubeVideos(stream(YOUTUBE_VIDEOS));
+        YouTubePlaylistResponse dto = MAPPER.readValue(YOUTUBE_VIDEOS, YouTubePlaylistResponse.class);
+
+        assertThat(decoded.etag()).isEqualTo(dto.etag());
+        assertThat(decoded.items()).hasSameSizeAs(dto.items());
+        for (int i = 0; i < dto.items().size(); i++) {
+            PlaylistItem item = dto.items().get(i);
+            ExternalVideoMetadata video = decoded.items().get(i);
+            assertThat(video.provider()).isEqualTo(VideoProvider.YOUTUBE);
+            assertThat(video.externalId()).isEqualTo(item.id());
+            assertThat(video.title()).isEqualTo(item.snippet().title());
+            assertThat(video.description()).isEqualTo(item.snippet().description());
+            assertThat(video.channelName()).isEqualTo(item.snippet().channelTitle());
+            assertThat(video.duration()).isEqualTo(Duration.parse(item.contentDetails().duration()));
+            assertThat(video.publishedAt()).isEqualTo(OffsetDateTime.parse(item.snippet().publishedAt()).toInstant());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> thumbnail = (Map<String, Object>) item.snippet().thumbnails().get("default");
+            assertThat(video.thumbnailUrl()).isEqualTo(thumbnail.get("url"));
+            assertThat(video.raw()).isNull();
+        }
+        assertThat(decoded.items().get(1).publishedAt()).isEqualTo(Instant.parse("2012-07-15T05:46:32Z"));
+    }
+
+    @Test
+    void youtubeVideosWithoutItemsDecodeEmpty() throws IOException {
+        ProviderJsonDecoders.YouTubeVideos decoded =
+                ProviderJsonDecoders.youtubeVideos(stream("{\"etag\":\"e\",\"items\":[]}"));
+
+        assertThat(decoded.etag()).isEqualTo("e");
+        assertThat(decoded.items()).isEmpty();
+    }
+
+    @Test
+    void vimeoVideoMatchesTheDtoPath() throws IOException {
+        ExternalVideoMetadata decoded = ProviderJsonDecoders.vimeoVideo(stream(VIMEO_VIDEO), "76979871");
+        VimeoVideoResponse dto = MAPPER.readValue(VIMEO_VIDEO, VimeoVideoResponse.class);
+
+        assertThat(decoded.provider()).isEqualTo(VideoProvider.VIMEO);
+        assertThat(decoded.externalId()).isEqualTo("76979871");
+        assertThat(decoded.title()).isEqualTo(dto.name());
+        assertThat(decoded.duration()).isEqualTo(Duration.ofSeconds(dto.duration()));
+        assertThat(decoded.publishedAt()).isEqualTo(dto.createdTime().toInstant());
+        assertThat(decoded.description()).isEqualTo("It may look (mostly) the same on the surface");
+        // only the top-level user name and pictures link, not the nested ones
+        assertThat(decoded.channelName()).isEqualTo("Vimeo Staff");
+        assertThat(decoded.thumbnailUrl()).isEqualTo("https://i.vimeocdn.com/video/452001751");
+    }
+
+    @Test
+    void rejectsNonObjectBodies() {
+        assertThatThrownBy(() -> ProviderJsonDecoders.youtubeVideos(stream("[]")))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void decodesBodySplitAcrossBuffers() {
+        byte[] bytes = VIMEO_VIDEO.getBytes(StandardCharsets.UTF_8);
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+        int half = bytes.length / 2;
+        List<DataBuffer> chunks = List.of(
+                factory.wrap(Arrays.copyOfRange(bytes, 0, half)),
+                factory.wrap(Arrays.copyOfRange(bytes, half, bytes.length)));
+
+        Mono<ExternalVideoMetadata> decoded = ProviderJsonDecoders.decode(Flux.fromIterable(chunks),
+                in -> ProviderJsonDecoders.vimeoVideo(in, "76979871"));
+
+        StepVerifier.create(decoded)
+                .assertNext(video -> assertThat(video.title()).isEqualTo("The New Vimeo Player"))
+                .verifyComplete();
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
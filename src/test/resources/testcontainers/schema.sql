@@ -0,0 +1,57 @@
+-- Schema for container-backed tests: video_import_submissions as left by the migrations up to
+-- V20250805.000022 (the early migrations do not apply to an empty database, so Flyway is not used)
+CREATE SEQUENCE VM_UNIQUE_ID
+    AS BIGINT
+    MINVALUE 10000
+    START WITH 10000
+    INCREMENT BY 1
+    CACHE 10
+    NO CYCLE;
+
+CREATE TABLE video_import_submissions
+(
+    id                     BIGINT                   NOT NULL PRIMARY KEY DEFAULT nextval('VM_UNIQUE_ID'),
+    submission_id          VARCHAR(64)              NOT NULL,
+    username               VARCHAR(150)             NOT NULL,
+    provider               SMALLINT                 NOT NULL             DEFAULT 0,
+    forced                 BOOLEAN                  NOT NULL             DEFAULT FALSE,
+    external_playlist_id   VARCHAR(255),
+    external_playlist_meta JSONB,
+
+    total_requested        INT                      NOT NULL             DEFAULT 0,
+    requested_count        INT                      NOT NULL             DEFAULT 0,
+    accepted_count         INT                      NOT NULL             DEFAULT 0,
+    skipped_duplicates     INT                      NOT NULL             DEFAULT 0,
+    succeeded_count        INT                      NOT NULL             DEFAULT 0,
+    failed_count           INT                      NOT NULL             DEFAULT 0,
+
+    status                 SMALLINT                 NOT NULL, -- enum ordinal
+    error_message          TEXT,
+
+    queued_at              TIMESTAMP WITH TIME ZONE NOT NULL,
+    started_at             TIMESTAMP WITH TIME ZONE,
+    finished_at            TIMESTAMP WITH TIME ZONE,
+    created_at             TIMESTAMP WITH TIME ZONE NOT NULL             DEFAULT NOW(),
+    updated_at             TIMESTAMP WITH TIME ZONE NOT NULL             DEFAULT NOW(),
+    version                BIGINT                   NOT NULL             DEFAULT 0,
+
+    lease_owner            VARCHAR(128),
+    lease_expires_at       TIMESTAMP WITH TIME ZONE,
+    heartbeat_at           TIMESTAMP WITH TIME ZONE,
+    attempts               INT                      NOT NULL             DEFAULT 0,
+
+    parent_fk              BIGINT REFERENCES video_import_submissions (id) ON DELETE CASCADE,
+    chunk_count            INT                      NOT NULL             DEFAULT 0,
+    external_ids           TEXT[]                   NOT NULL             DEFAULT '{}'
+);
+
+CREATE UNIQUE INDEX uq_video_import_submissions_submission_id
+    ON video_import_submissions (submission_id);
+
+CREATE INDEX idx_video_import_submissions_queued
+    ON video_import_submissions (queued_at)
+    WHERE status = 0 AND chunk_count = 0;
+
+CREATE INDEX idx_video_import_submissions_lease
+    ON video_import_submissions (lease_expires_at)
+    WHERE status = 1;